@@ -0,0 +1,85 @@
+package tech.lszita.gardonyi;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import org.apache.commons.lang3.StringUtils;
+import tech.lszita.gardonyi.domain.Authority;
+import tech.lszita.gardonyi.domain.PageEntity;
+import tech.lszita.gardonyi.domain.Post;
+import tech.lszita.gardonyi.domain.User;
+import tech.lszita.gardonyi.security.AuthoritiesConstants;
+
+/**
+ * Entities shared by the benchmarks, sized like the production data.
+ */
+public final class BenchmarkFixtures {
+
+    public static final Instant NOW = Instant.parse("2026-10-18T10:00:00Z");
+
+    private BenchmarkFixtures() {}
+
+    public static String content(int length) {
+        return StringUtils.repeat("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ", length / 57 + 1).substring(0, length);
+    }
+
+    public static Post post(long id, int contentLength) {
+        return new Post()
+            .id(id)
+            .title("Post " + id)
+            .author("author" + (id % 10))
+            .content(content(contentLength))
+            .version(id % 5)
+            .lastModifiedDate(NOW);
+    }
+
+    public static List<Post> posts(int size, int contentLength) {
+        List<Post> posts = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            posts.add(post(id, contentLength));
+        }
+        return posts;
+    }
+
+    public static List<PageEntity> pages(int size, int contentLength) {
+        List<PageEntity> pages = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            pages.add(new PageEntity().id(id).title("Page " + id).content(content(contentLength)).version(id % 5).lastModifiedDate(NOW));
+        }
+        return pages;
+    }
+
+    public static User user(long id) {
+        User user = new User();
+        user.setId(id);
+        user.setLogin("user" + id);
+        user.setPassword("$2a$10$VEjxo0jq2YG9Rbk2HmX9S.k1uZBGYUHdUcid3g/vfiEl7lwWgOH/K");
+        user.setFirstName("First" + id);
+        user.setLastName("Last" + id);
+        user.setEmail("user" + id + "@localhost");
+        user.setImageUrl("http://placehold.it/50x50");
+        user.setActivated(true);
+        user.setLangKey("en");
+        user.setCreatedBy("system");
+        user.setCreatedDate(NOW);
+        user.setLastModifiedBy("system");
+        user.setLastModifiedDate(NOW);
+        user.setAuthorities(Set.of(authority(AuthoritiesConstants.USER), authority(AuthoritiesConstants.ADMIN)));
+        return user;
+    }
+
+    public static List<User> users(int size) {
+        List<User> users = new ArrayList<>(size);
+        for (long id = 1; id <= size; id++) {
+            users.add(user(id));
+        }
+        return users;
+    }
+
+    private static Authority authority(String name) {
+        Authority authority = new Authority();
+        authority.setName(name);
+        return authority;
+    }
+}
@@ -0,0 +1,123 @@
+package tech.lszita.gardonyi.aop.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.AppenderBase;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.core.env.StandardEnvironment;
+import tech.lszita.gardonyi.BenchmarkFixtures;
+import tech.lszita.gardonyi.service.EchoService;
+import tech.lszita.gardonyi.service.dto.PostDTO;
+import tech.lszita.gardonyi.service.mapper.PostMapperImpl;
+
+/**
+ * Benchmarks the overhead of {@link LoggingAspect#logAround} on a service method taking and returning a post, against
+ * the {@link LegacyLoggingAspect} it replaced.
+ * <p>
+ * With the "DEBUG" level the logger has an appender formatting the messages without writing them: the cost of the
+ * aspect and of the rendering of the arguments and results is measured, not the one of the output. The "sampled"
+ * aspect has the settings of the "prod" profile.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingAspectBenchmark {
+
+    @Param({ "INFO", "DEBUG" })
+    private String level;
+
+    @Param({ "100", "20000" })
+    private int contentLength;
+
+    private final EchoService target = new EchoService();
+
+    private final FormattingAppender appender = new FormattingAppender();
+
+    private EchoService legacy;
+
+    private EchoService unsampled;
+
+    private EchoService sampled;
+
+    private PostDTO post;
+
+    @Setup
+    public void setUp() {
+        Logger logger = (Logger) LoggerFactory.getLogger(EchoService.class);
+        logger.setLevel(Level.toLevel(level));
+        logger.setAdditive(false);
+        appender.setContext(logger.getLoggerContext());
+        appender.start();
+        logger.addAppender(appender);
+
+        legacy = advise(new LegacyLoggingAspect(new StandardEnvironment()));
+        unsampled = advise(new LoggingAspect(new StandardEnvironment(), 1, 200));
+        sampled = advise(new LoggingAspect(new StandardEnvironment(), 0.01, 200));
+
+        post = new PostMapperImpl().toDto(BenchmarkFixtures.post(1L, contentLength));
+    }
+
+    @TearDown
+    public void tearDown() {
+        ((Logger) LoggerFactory.getLogger(EchoService.class)).detachAppender(appender);
+        appender.stop();
+    }
+
+    private EchoService advise(Object aspect) {
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAspect(aspect);
+        return proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public PostDTO direct() {
+        return target.echo(post);
+    }
+
+    @Benchmark
+    public PostDTO legacy() {
+        return legacy.echo(post);
+    }
+
+    @Benchmark
+    public PostDTO logAround() {
+        return unsampled.echo(post);
+    }
+
+    @Benchmark
+    public PostDTO logAroundSampled() {
+        return sampled.echo(post);
+    }
+
+    /**
+     * Formats the messages, as the console and file appenders do, but doesn't write them.
+     */
+    private static class FormattingAppender extends AppenderBase<ILoggingEvent> {
+
+        private long length;
+
+        @Override
+        protected void append(ILoggingEvent event) {
+            length += event.getFormattedMessage().length();
+        }
+    }
+}
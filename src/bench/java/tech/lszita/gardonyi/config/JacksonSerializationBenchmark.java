@@ -0,0 +1,84 @@
+package tech.lszita.gardonyi.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import tech.lszita.gardonyi.BenchmarkFixtures;
+import tech.lszita.gardonyi.service.dto.AdminUserDTO;
+import tech.lszita.gardonyi.service.dto.PostDTO;
+import tech.lszita.gardonyi.service.mapper.PostMapper;
+import tech.lszita.gardonyi.service.mapper.PostMapperImpl;
+
+/**
+ * Benchmarks the JSON serialization of the REST responses, with the Jackson modules of {@link JacksonConfiguration}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JacksonSerializationBenchmark {
+
+    @Param({ "256", "16384" })
+    private int contentLength;
+
+    private ObjectMapper objectMapper;
+
+    private PostDTO post;
+
+    private List<PostDTO> posts;
+
+    private AdminUserDTO user;
+
+    @Setup
+    public void setUp() {
+        JacksonConfiguration jacksonConfiguration = new JacksonConfiguration();
+        // Same defaults as the ObjectMapper auto-configured by Spring Boot
+        objectMapper =
+            Jackson2ObjectMapperBuilder
+                .json()
+                .modules(
+                    jacksonConfiguration.javaTimeModule(),
+                    jacksonConfiguration.jdk8TimeModule(),
+                    jacksonConfiguration.hibernate5Module(),
+                    jacksonConfiguration.problemModule(),
+                    jacksonConfiguration.constraintViolationProblemModule()
+                )
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, SerializationFeature.WRITE_DURATIONS_AS_TIMESTAMPS)
+                .build();
+
+        PostMapper postMapper = new PostMapperImpl();
+        post = postMapper.toDto(BenchmarkFixtures.post(1L, contentLength));
+        posts = postMapper.toDto(BenchmarkFixtures.posts(20, contentLength));
+        user = new AdminUserDTO(BenchmarkFixtures.user(1L));
+    }
+
+    @Benchmark
+    public byte[] writePost() throws Exception {
+        return objectMapper.writeValueAsBytes(post);
+    }
+
+    @Benchmark
+    public byte[] writePostList() throws Exception {
+        return objectMapper.writeValueAsBytes(posts);
+    }
+
+    @Benchmark
+    public byte[] writeAdminUser() throws Exception {
+        return objectMapper.writeValueAsBytes(user);
+    }
+}
@@ -0,0 +1,75 @@
+package tech.lszita.gardonyi.security;
+
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.core.userdetails.UserDetails;
+import tech.lszita.gardonyi.BenchmarkFixtures;
+import tech.lszita.gardonyi.domain.User;
+import tech.lszita.gardonyi.repository.UserRepository;
+
+/**
+ * Benchmarks {@link DomainUserDetailsService#loadUserByUsername(String)} when the user is already in the
+ * {@link UserRepository#USERS_BY_LOGIN_CACHE} and {@link UserRepository#USERS_BY_EMAIL_CACHE} caches.
+ * <p>
+ * The repository is replaced by an in-memory map, so that only the cost of the service itself is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainUserDetailsServiceBenchmark {
+
+    private DomainUserDetailsService domainUserDetailsService;
+
+    @Setup
+    public void setUp() {
+        Map<String, User> usersByLogin = new ConcurrentHashMap<>();
+        Map<String, User> usersByEmail = new ConcurrentHashMap<>();
+        BenchmarkFixtures
+            .users(100)
+            .forEach(user -> {
+                usersByLogin.put(user.getLogin(), user);
+                usersByEmail.put(user.getEmail(), user);
+            });
+        UserRepository warmCache = (UserRepository) Proxy.newProxyInstance(
+            UserRepository.class.getClassLoader(),
+            new Class<?>[] { UserRepository.class },
+            (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "findOneWithAuthoritiesByLogin":
+                        return Optional.ofNullable(usersByLogin.get((String) args[0]));
+                    case "findOneWithAuthoritiesByEmailIgnoreCase":
+                        return Optional.ofNullable(usersByEmail.get((String) args[0]));
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            }
+        );
+        domainUserDetailsService = new DomainUserDetailsService(warmCache);
+    }
+
+    @Benchmark
+    public UserDetails loadUserByLogin() {
+        return domainUserDetailsService.loadUserByUsername("User42");
+    }
+
+    @Benchmark
+    public UserDetails loadUserByEmail() {
+        return domainUserDetailsService.loadUserByUsername("user42@localhost");
+    }
+}
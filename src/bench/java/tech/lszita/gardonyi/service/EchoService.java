@@ -0,0 +1,14 @@
+package tech.lszita.gardonyi.service;
+
+import org.springframework.stereotype.Service;
+
+/**
+ * A service returning its argument, advised by the logging aspect in the benchmarks.
+ */
+@Service
+public class EchoService {
+
+    public <T> T echo(T value) {
+        return value;
+    }
+}
@@ -0,0 +1,80 @@
+package tech.lszita.gardonyi.service.mapper;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tech.lszita.gardonyi.BenchmarkFixtures;
+import tech.lszita.gardonyi.domain.PageEntity;
+import tech.lszita.gardonyi.domain.Post;
+import tech.lszita.gardonyi.domain.User;
+import tech.lszita.gardonyi.service.dto.AdminUserDTO;
+import tech.lszita.gardonyi.service.dto.PageDTO;
+import tech.lszita.gardonyi.service.dto.PostDTO;
+import tech.lszita.gardonyi.service.dto.UserDTO;
+
+/**
+ * Benchmarks the entity to DTO mapping of the list endpoints.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    /**
+     * 20 is the default page size of the list endpoints.
+     */
+    @Param({ "20", "200" })
+    private int size;
+
+    private final PostMapper postMapper = new PostMapperImpl();
+
+    private final PageMapper pageMapper = new PageMapperImpl();
+
+    private final UserMapper userMapper = new UserMapper();
+
+    private List<Post> posts;
+
+    private List<PageEntity> pages;
+
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        posts = BenchmarkFixtures.posts(size, 2048);
+        pages = BenchmarkFixtures.pages(size, 2048);
+        users = BenchmarkFixtures.users(size);
+    }
+
+    @Benchmark
+    public List<PostDTO> postsToDto() {
+        return postMapper.toDto(posts);
+    }
+
+    @Benchmark
+    public List<PageDTO> pagesToDto() {
+        return pageMapper.toDto(pages);
+    }
+
+    @Benchmark
+    public List<UserDTO> usersToUserDTOs() {
+        return userMapper.usersToUserDTOs(users);
+    }
+
+    @Benchmark
+    public List<AdminUserDTO> usersToAdminUserDTOs() {
+        return userMapper.usersToAdminUserDTOs(users);
+    }
+}
@@ -0,0 +1,121 @@
+package tech.lszita.gardonyi.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+/**
+ * Latency histograms and error counts of a load test run, per scenario.
+ * <p>
+ * Latencies are recorded in microseconds and reported in milliseconds.
+ */
+class LoadTestReport {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final Map<Scenario, Histogram> latencies = new EnumMap<>(Scenario.class);
+
+    private final Map<Scenario, LongAdder> errors = new EnumMap<>(Scenario.class);
+
+    LoadTestReport() {
+        for (Scenario scenario : Scenario.values()) {
+            latencies.put(scenario, new ConcurrentHistogram(SIGNIFICANT_DIGITS));
+            errors.put(scenario, new LongAdder());
+        }
+    }
+
+    void record(Scenario scenario, long latencyNanos, boolean success) {
+        latencies.get(scenario).recordValue(Math.max(1, latencyNanos / 1000));
+        if (!success) {
+            errors.get(scenario).increment();
+        }
+    }
+
+    void reset() {
+        latencies.values().forEach(Histogram::reset);
+        errors.values().forEach(LongAdder::reset);
+    }
+
+    long getErrorCount() {
+        return errors.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    ObjectNode toJson(ObjectMapper objectMapper, Duration duration) {
+        ObjectNode json = objectMapper.createObjectNode();
+        Histogram total = new Histogram(SIGNIFICANT_DIGITS);
+        long totalErrors = 0;
+        ObjectNode scenarios = objectMapper.createObjectNode();
+        for (Scenario scenario : Scenario.values()) {
+            Histogram histogram = latencies.get(scenario);
+            long scenarioErrors = errors.get(scenario).sum();
+            total.add(histogram);
+            totalErrors += scenarioErrors;
+            scenarios.set(scenario.name(), stats(objectMapper, histogram, scenarioErrors, duration));
+        }
+        json.set("total", stats(objectMapper, total, totalErrors, duration));
+        json.set("scenarios", scenarios);
+        return json;
+    }
+
+    /**
+     * Compare the results of this run with a baseline run.
+     *
+     * @param report the report of this run, see {@link #toJson(ObjectMapper, Duration)}.
+     * @param baseline the report of the baseline run.
+     * @param maxRegression the accepted relative regression of the throughput and the p95 latency, for example 0.25.
+     * @return the regressions exceeding {@code maxRegression}, empty if there are none.
+     */
+    static List<String> findRegressions(JsonNode report, JsonNode baseline, double maxRegression) {
+        List<String> regressions = new ArrayList<>();
+        compare(regressions, "total", report.path("total"), baseline.path("total"), maxRegression);
+        baseline
+            .path("scenarios")
+            .fields()
+            .forEachRemaining(scenario -> {
+                JsonNode current = report.path("scenarios").path(scenario.getKey());
+                compare(regressions, scenario.getKey(), current, scenario.getValue(), maxRegression);
+            });
+        return regressions;
+    }
+
+    private static void compare(List<String> regressions, String name, JsonNode current, JsonNode baseline, double maxRegression) {
+        double rps = current.path("rps").asDouble();
+        double baselineRps = baseline.path("rps").asDouble();
+        if (rps < baselineRps * (1 - maxRegression)) {
+            regressions.add(String.format("%s: %.1f req/s, baseline %.1f req/s", name, rps, baselineRps));
+        }
+        double p95 = current.path("p95").asDouble();
+        double baselineP95 = baseline.path("p95").asDouble();
+        if (baselineP95 > 0 && p95 > baselineP95 * (1 + maxRegression)) {
+            regressions.add(String.format("%s: p95 %.3f ms, baseline %.3f ms", name, p95, baselineP95));
+        }
+    }
+
+    private static ObjectNode stats(ObjectMapper objectMapper, Histogram histogram, long errorCount, Duration duration) {
+        ObjectNode stats = objectMapper.createObjectNode();
+        stats.put("requests", histogram.getTotalCount());
+        stats.put("errors", errorCount);
+        stats.put("rps", round(histogram.getTotalCount() * 1000.0 / duration.toMillis()));
+        stats.put("p50", millis(histogram.getValueAtPercentile(50)));
+        stats.put("p95", millis(histogram.getValueAtPercentile(95)));
+        stats.put("p99", millis(histogram.getValueAtPercentile(99)));
+        stats.put("max", millis(histogram.getMaxValue()));
+        return stats;
+    }
+
+    private static double millis(long micros) {
+        return round(micros / 1000.0);
+    }
+
+    private static double round(double value) {
+        return Math.round(value * 1000) / 1000.0;
+    }
+}
@@ -0,0 +1,342 @@
+package tech.lszita.gardonyi.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.Timeout;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.core.env.Environment;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import tech.lszita.gardonyi.GardonyiCmsApp;
+import tech.lszita.gardonyi.config.AsyncSyncConfiguration;
+import tech.lszita.gardonyi.config.EmbeddedSQL;
+import tech.lszita.gardonyi.domain.Authority;
+import tech.lszita.gardonyi.domain.PageEntity;
+import tech.lszita.gardonyi.domain.Post;
+import tech.lszita.gardonyi.domain.User;
+import tech.lszita.gardonyi.repository.AuthorityRepository;
+import tech.lszita.gardonyi.repository.PageRepository;
+import tech.lszita.gardonyi.repository.PostRepository;
+import tech.lszita.gardonyi.repository.UserRepository;
+import tech.lszita.gardonyi.security.AuthoritiesConstants;
+
+/**
+ * Load test of the REST API, run with {@code ./mvnw -Pdev,loadtest verify} (H2) or {@code ./mvnw -Pprod,loadtest verify}
+ * (PostgreSQL with Testcontainers).
+ * <p>
+ * The application is started on a random port and seeded with posts, pages and users. Each thread then logs in
+ * as one of these users, with remember-me, and sends a weighted mix of the {@link Scenario}s as fast as it can.
+ * The first seconds are a warm-up and are not reported.
+ * <p>
+ * The report is written to {@code target/load-test/<profile>.json}, and compared with the baseline of the same
+ * profile in {@code src/loadtest/baselines}. To refresh a baseline, copy the report over it.
+ * <p>
+ * Options, as system properties: {@code loadtest.threads}, {@code loadtest.warmup} and {@code loadtest.duration}
+ * (ISO-8601 durations), {@code loadtest.posts}, {@code loadtest.pages}, {@code loadtest.users},
+ * {@code loadtest.content-length}, and
+ * {@code loadtest.max-regression} to fail the test when the throughput or p95 latency regressed by more than the
+ * given ratio, for example 0.25.
+ */
+@SpringBootTest(
+    classes = { GardonyiCmsApp.class, AsyncSyncConfiguration.class },
+    webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT
+)
+@EmbeddedSQL
+class RestApiLoadTest {
+
+    private static final String PASSWORD = "load-test";
+
+    private static final int PAGE_SIZE = 20;
+
+    private static final Path REPORT_DIRECTORY = Paths.get("target", "load-test");
+
+    private static final Path BASELINE_DIRECTORY = Paths.get("src", "loadtest", "baselines");
+
+    private final Logger log = LoggerFactory.getLogger(RestApiLoadTest.class);
+
+    private final int threads = Integer.getInteger("loadtest.threads", 16);
+
+    private final Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT10S"));
+
+    private final Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+
+    private final int postCount = Integer.getInteger("loadtest.posts", 1000);
+
+    private final int pageCount = Integer.getInteger("loadtest.pages", 200);
+
+    private final int userCount = Integer.getInteger("loadtest.users", 50);
+
+    private final String content = StringUtils.left(
+        StringUtils.repeat("Lorem ipsum dolor sit amet, consectetur adipiscing elit. ", 1000),
+        Integer.getInteger("loadtest.content-length", 200)
+    );
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PageRepository pageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private Environment env;
+
+    private List<Long> postIds;
+
+    private List<Long> pageIds;
+
+    private List<String> logins;
+
+    private HttpClient httpClient;
+
+    private URI baseUri;
+
+    private volatile boolean running;
+
+    @Test
+    @Timeout(value = 30, unit = TimeUnit.MINUTES)
+    void runMixedWorkload() throws Exception {
+        seed();
+
+        httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        baseUri = URI.create("http://localhost:" + port);
+        LoadTestReport report = new LoadTestReport();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        running = true;
+        List<Future<?>> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int worker = i;
+            workers.add(executor.submit(() -> work(worker, report)));
+        }
+        log.info("Warming up {} threads for {}", threads, warmup);
+        Thread.sleep(warmup.toMillis());
+        report.reset();
+        log.info("Measuring for {}", duration);
+        Instant start = Instant.now();
+        Thread.sleep(duration.toMillis());
+        running = false;
+        for (Future<?> worker : workers) {
+            worker.get();
+        }
+        Duration measured = Duration.between(start, Instant.now());
+        executor.shutdown();
+
+        String profile = String.join("-", env.getActiveProfiles());
+        ObjectNode json = createReport(report, profile, measured);
+        Files.createDirectories(REPORT_DIRECTORY);
+        objectMapper.writerWithDefaultPrettyPrinter().writeValue(REPORT_DIRECTORY.resolve(profile + ".json").toFile(), json);
+        logReport(json);
+
+        assertThat(report.getErrorCount()).as("failed requests").isZero();
+        Path baselineFile = BASELINE_DIRECTORY.resolve(profile + ".json");
+        String maxRegression = System.getProperty("loadtest.max-regression");
+        if (Files.exists(baselineFile)) {
+            JsonNode baseline = objectMapper.readTree(baselineFile.toFile());
+            double tolerance = maxRegression != null ? Double.parseDouble(maxRegression) : 0;
+            List<String> regressions = LoadTestReport.findRegressions(json, baseline, tolerance);
+            regressions.forEach(regression -> log.info("Slower than the baseline: {}", regression));
+            if (maxRegression != null) {
+                assertThat(regressions).as("regressions over %s", maxRegression).isEmpty();
+            }
+        } else {
+            log.info("No baseline in {}", baselineFile);
+        }
+    }
+
+    private void seed() {
+        log.info("Seeding {} posts, {} pages and {} users", postCount, pageCount, userCount);
+        List<Post> posts = IntStream
+            .range(0, postCount)
+            .mapToObj(i -> new Post().title("Post " + i).author("load-test-" + (i % userCount)).content(content))
+            .collect(Collectors.toList());
+        postIds = postRepository.saveAll(posts).stream().map(Post::getId).collect(Collectors.toList());
+
+        List<PageEntity> pages = IntStream
+            .range(0, pageCount)
+            .mapToObj(i -> new PageEntity().title("Page " + i).content(content))
+            .collect(Collectors.toList());
+        pageIds = pageRepository.saveAll(pages).stream().map(PageEntity::getId).collect(Collectors.toList());
+
+        // BCrypt is slow on purpose, all the users share the same password
+        String encodedPassword = passwordEncoder.encode(PASSWORD);
+        Set<Authority> authorities = Set.of(authorityRepository.findById(AuthoritiesConstants.USER).orElseThrow());
+        List<User> users = IntStream
+            .range(0, userCount)
+            .mapToObj(i -> {
+                User user = new User();
+                user.setLogin("load-test-" + i);
+                user.setPassword(encodedPassword);
+                user.setEmail("load-test-" + i + "@localhost");
+                user.setActivated(true);
+                user.setLangKey("en");
+                user.setAuthorities(authorities);
+                return user;
+            })
+            .collect(Collectors.toList());
+        logins = userRepository.saveAll(users).stream().map(User::getLogin).collect(Collectors.toList());
+    }
+
+    private Void work(int worker, LoadTestReport report) throws Exception {
+        VirtualUser user = new VirtualUser(httpClient, baseUri);
+        String login = logins.get(worker % logins.size());
+        assertThat(user.authenticate(login, PASSWORD, true)).as("authentication of %s", login).isEqualTo(200);
+        // Each thread only updates its own posts, so that concurrent updates don't fail the optimistic lock
+        List<Long> ownPostIds = IntStream
+            .range(0, postIds.size())
+            .filter(i -> i % threads == worker)
+            .mapToObj(postIds::get)
+            .collect(Collectors.toList());
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (running) {
+            Scenario scenario = Scenario.pick(random.nextDouble());
+            long start = System.nanoTime();
+            boolean success;
+            try {
+                success = execute(scenario, user, login, ownPostIds, random);
+            } catch (IOException e) {
+                log.debug("{} failed", scenario, e);
+                success = false;
+            }
+            report.record(scenario, System.nanoTime() - start, success);
+        }
+        return null;
+    }
+
+    private boolean execute(Scenario scenario, VirtualUser user, String login, List<Long> ownPostIds, ThreadLocalRandom random)
+        throws IOException, InterruptedException {
+        switch (scenario) {
+            case LIST_POSTS:
+                return isSuccessful(user.get(listPath("/api/posts", postCount, random)));
+            case GET_POST:
+                return isSuccessful(user.get("/api/posts/" + postIds.get(random.nextInt(postIds.size()))));
+            case LIST_PAGES:
+                return isSuccessful(user.get(listPath("/api/pages", pageCount, random)));
+            case GET_PAGE:
+                return isSuccessful(user.get("/api/pages/" + pageIds.get(random.nextInt(pageIds.size()))));
+            case GET_ACCOUNT:
+                return isSuccessful(user.get("/api/account"));
+            case UPDATE_POST:
+                {
+                    Long id = ownPostIds.get(random.nextInt(ownPostIds.size()));
+                    return isSuccessful(user.sendJson("PUT", "/api/posts/" + id, postJson(id, "Updated post " + id, login)));
+                }
+            case CREATE_POST:
+                return isSuccessful(user.sendJson("POST", "/api/posts", postJson(null, "New post", login)));
+            case REMEMBER_ME_LOGIN:
+                {
+                    // A new browser session, authenticated by the remember-me cookie only
+                    VirtualUser newSession = new VirtualUser(httpClient, baseUri);
+                    newSession.setCookie(VirtualUser.REMEMBER_ME_COOKIE, user.getCookie(VirtualUser.REMEMBER_ME_COOKIE));
+                    boolean success = isSuccessful(newSession.get("/api/account"));
+                    user.setCookie(VirtualUser.REMEMBER_ME_COOKIE, newSession.getCookie(VirtualUser.REMEMBER_ME_COOKIE));
+                    return success;
+                }
+            case AUTHENTICATE:
+                return new VirtualUser(httpClient, baseUri).authenticate(login, PASSWORD, false) == 200;
+            default:
+                throw new IllegalStateException("Unknown scenario " + scenario);
+        }
+    }
+
+    private static String listPath(String path, int count, ThreadLocalRandom random) {
+        return path + "?sort=id,desc&size=" + PAGE_SIZE + "&page=" + random.nextInt(Math.max(1, count / PAGE_SIZE));
+    }
+
+    private String postJson(Long id, String title, String author) throws IOException {
+        Map<String, Object> post = new LinkedHashMap<>();
+        if (id != null) {
+            post.put("id", id);
+        }
+        post.put("title", title);
+        post.put("content", content);
+        post.put("author", author);
+        return objectMapper.writeValueAsString(post);
+    }
+
+    private static boolean isSuccessful(HttpResponse<byte[]> response) {
+        return response.statusCode() >= 200 && response.statusCode() < 300;
+    }
+
+    private ObjectNode createReport(LoadTestReport report, String profile, Duration measured) {
+        ObjectNode json = objectMapper.createObjectNode();
+        json.put("profile", profile);
+        // Baselines are only comparable on similar machines
+        json.put("cpus", Runtime.getRuntime().availableProcessors());
+        json.put("threads", threads);
+        json.put("warmupSeconds", warmup.toSeconds());
+        json.put("durationSeconds", measured.toSeconds());
+        ObjectNode seed = json.putObject("seed");
+        seed.put("posts", postCount);
+        seed.put("pages", pageCount);
+        seed.put("users", userCount);
+        json.setAll(report.toJson(objectMapper, measured));
+        return json;
+    }
+
+    private void logReport(JsonNode json) {
+        StringBuilder table = new StringBuilder(
+            String.format("%n%-18s %9s %7s %9s %9s %9s %9s%n", "scenario", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms")
+        );
+        Map<String, JsonNode> rows = new LinkedHashMap<>();
+        json.path("scenarios").fields().forEachRemaining(scenario -> rows.put(scenario.getKey(), scenario.getValue()));
+        rows.put("TOTAL", json.path("total"));
+        rows.forEach((name, stats) ->
+            table.append(
+                String.format(
+                    "%-18s %9d %7d %9.1f %9.3f %9.3f %9.3f%n",
+                    name,
+                    stats.path("requests").asLong(),
+                    stats.path("errors").asLong(),
+                    stats.path("rps").asDouble(),
+                    stats.path("p50").asDouble(),
+                    stats.path("p95").asDouble(),
+                    stats.path("p99").asDouble()
+                )
+            )
+        );
+        log.info("Load test results ({}):{}", json.path("profile").asText(), table);
+    }
+}
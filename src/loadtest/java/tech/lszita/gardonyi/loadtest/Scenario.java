@@ -0,0 +1,49 @@
+package tech.lszita.gardonyi.loadtest;
+
+/**
+ * The requests of the load test, with their share of the traffic.
+ */
+enum Scenario {
+    LIST_POSTS(25),
+    GET_POST(25),
+    LIST_PAGES(10),
+    GET_PAGE(10),
+    GET_ACCOUNT(10),
+    UPDATE_POST(8),
+    CREATE_POST(4),
+    REMEMBER_ME_LOGIN(6),
+    AUTHENTICATE(2);
+
+    private static final int TOTAL_WEIGHT = totalWeight();
+
+    private final int weight;
+
+    Scenario(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Pick a scenario according to the weights.
+     *
+     * @param random a random number between 0 (inclusive) and 1 (exclusive).
+     * @return the scenario.
+     */
+    static Scenario pick(double random) {
+        int remaining = (int) (random * TOTAL_WEIGHT);
+        for (Scenario scenario : values()) {
+            remaining -= scenario.weight;
+            if (remaining < 0) {
+                return scenario;
+            }
+        }
+        return LIST_POSTS;
+    }
+
+    private static int totalWeight() {
+        int total = 0;
+        for (Scenario scenario : values()) {
+            total += scenario.weight;
+        }
+        return total;
+    }
+}
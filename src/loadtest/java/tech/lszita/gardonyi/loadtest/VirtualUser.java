@@ -0,0 +1,119 @@
+package tech.lszita.gardonyi.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * A browser-like client of the REST API: it keeps its own cookies, and sends the CSRF token the way the
+ * front-end does.
+ * <p>
+ * Instances are not thread-safe, each load test thread drives its own virtual user.
+ */
+class VirtualUser {
+
+    static final String REMEMBER_ME_COOKIE = "remember-me";
+
+    private static final String CSRF_COOKIE = "XSRF-TOKEN";
+
+    private static final String CSRF_HEADER = "X-XSRF-TOKEN";
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private final HttpClient httpClient;
+
+    private final URI baseUri;
+
+    private final Map<String, String> cookies = new LinkedHashMap<>();
+
+    VirtualUser(HttpClient httpClient, URI baseUri) {
+        this.httpClient = httpClient;
+        this.baseUri = baseUri;
+    }
+
+    /**
+     * Log in with the form login of the front-end.
+     *
+     * @return the status of the response.
+     */
+    int authenticate(String login, String password, boolean rememberMe) throws IOException, InterruptedException {
+        Map<String, String> form = new LinkedHashMap<>();
+        form.put("username", login);
+        form.put("password", password);
+        form.put("remember-me", String.valueOf(rememberMe));
+        String body = form
+            .entrySet()
+            .stream()
+            .map(entry -> entry.getKey() + "=" + URLEncoder.encode(entry.getValue(), StandardCharsets.UTF_8))
+            .collect(Collectors.joining("&"));
+        return send("POST", "/api/authentication", "application/x-www-form-urlencoded", body).statusCode();
+    }
+
+    HttpResponse<byte[]> get(String path) throws IOException, InterruptedException {
+        return send("GET", path, null, null);
+    }
+
+    HttpResponse<byte[]> sendJson(String method, String path, String json) throws IOException, InterruptedException {
+        return send(method, path, "application/json", json);
+    }
+
+    String getCookie(String name) {
+        return cookies.get(name);
+    }
+
+    void setCookie(String name, String value) {
+        cookies.put(name, value);
+    }
+
+    private HttpResponse<byte[]> send(String method, String path, String contentType, String body)
+        throws IOException, InterruptedException {
+        // The CSRF filter only checks that the header matches the cookie, so any value does
+        cookies.computeIfAbsent(CSRF_COOKIE, name -> UUID.randomUUID().toString());
+        HttpRequest.Builder request = HttpRequest
+            .newBuilder(baseUri.resolve(path))
+            .timeout(TIMEOUT)
+            .header("Accept", "application/json")
+            .header("User-Agent", "gardonyiCms-load-test")
+            .header(CSRF_HEADER, cookies.get(CSRF_COOKIE))
+            .header("Cookie", cookieHeader())
+            .method(method, body != null ? HttpRequest.BodyPublishers.ofString(body) : HttpRequest.BodyPublishers.noBody());
+        if (contentType != null) {
+            request.header("Content-Type", contentType);
+        }
+        HttpResponse<byte[]> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        response.headers().allValues("Set-Cookie").forEach(this::storeCookie);
+        return response;
+    }
+
+    private String cookieHeader() {
+        return cookies.entrySet().stream().map(cookie -> cookie.getKey() + "=" + cookie.getValue()).collect(Collectors.joining("; "));
+    }
+
+    private void storeCookie(String setCookie) {
+        String[] attributes = setCookie.split(";");
+        int separator = attributes[0].indexOf('=');
+        if (separator <= 0) {
+            return;
+        }
+        String name = attributes[0].substring(0, separator).trim();
+        String value = attributes[0].substring(separator + 1).trim();
+        boolean expired = value.isEmpty();
+        for (String attribute : attributes) {
+            expired |= attribute.trim().equalsIgnoreCase("Max-Age=0");
+        }
+        if (expired) {
+            cookies.remove(name);
+        } else {
+            cookies.put(name, value);
+        }
+    }
+}
@@ -1,12 +1,19 @@
 package tech.lszita.gardonyi.aop.logging;
 
+import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.env.Environment;
@@ -16,15 +23,41 @@ import tech.jhipster.config.JHipsterConstants;
 /**
  * Aspect for logging execution of service and repository Spring components.
  *
- * By default, it only runs with the "dev" profile.
+ * By default, it only runs with the "dev" profile, or when {@code application.logging.aspect.enabled} is set.
+ * <p>
+ * The loggers are resolved once per method. At DEBUG, only the given share of the calls is logged, and the arguments
+ * and results are rendered truncated, only once the logging event is accepted by the appenders: the events dropped by
+ * an asynchronous appender under load are never rendered.
+ * <p>
+ * Outside of development, the exceptions are logged at DEBUG and sampled too: an exception crossing several layers is
+ * logged by each of them, and the expected ones are already handled by the callers.
  */
 @Aspect
 public class LoggingAspect {
 
-    private final Environment env;
+    private static final String TRUNCATED = "...";
+
+    private final boolean development;
+
+    private final double samplingRate;
+
+    private final int maxArgumentLength;
+
+    private final Map<Method, MethodLogger> methodLoggers = new ConcurrentHashMap<>();
 
     public LoggingAspect(Environment env) {
-        this.env = env;
+        this(env, 1, Integer.MAX_VALUE);
+    }
+
+    /**
+     * @param env the environment, the exceptions are logged with their stack trace in development.
+     * @param samplingRate the share of the calls whose entering and exiting is logged, between 0 and 1.
+     * @param maxArgumentLength the maximum length of each rendered argument or result.
+     */
+    public LoggingAspect(Environment env, double samplingRate, int maxArgumentLength) {
+        this.development = env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT));
+        this.samplingRate = samplingRate;
+        this.maxArgumentLength = maxArgumentLength;
     }
 
     /**
@@ -52,13 +85,14 @@ public class LoggingAspect {
     }
 
     /**
-     * Retrieves the {@link Logger} associated to the given {@link JoinPoint}.
+     * Retrieves the {@link MethodLogger} associated to the given {@link JoinPoint}, resolved on the first call.
      *
      * @param joinPoint join point we want the logger for.
-     * @return {@link Logger} associated to the given {@link JoinPoint}.
+     * @return {@link MethodLogger} associated to the given {@link JoinPoint}.
      */
-    private Logger logger(JoinPoint joinPoint) {
-        return LoggerFactory.getLogger(joinPoint.getSignature().getDeclaringTypeName());
+    private MethodLogger logger(JoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        return methodLoggers.computeIfAbsent(signature.getMethod(), method -> new MethodLogger(signature));
     }
 
     /**
@@ -69,22 +103,17 @@ public class LoggingAspect {
      */
     @AfterThrowing(pointcut = "applicationPackagePointcut() && springBeanPointcut()", throwing = "e")
     public void logAfterThrowing(JoinPoint joinPoint, Throwable e) {
-        if (env.acceptsProfiles(Profiles.of(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT))) {
-            logger(joinPoint)
-                .error(
-                    "Exception in {}() with cause = '{}' and exception = '{}'",
-                    joinPoint.getSignature().getName(),
-                    e.getCause() != null ? e.getCause() : "NULL",
-                    e.getMessage(),
-                    e
-                );
-        } else {
-            logger(joinPoint)
-                .error(
-                    "Exception in {}() with cause = {}",
-                    joinPoint.getSignature().getName(),
-                    e.getCause() != null ? e.getCause() : "NULL"
-                );
+        MethodLogger logger = logger(joinPoint);
+        if (development) {
+            logger.log.error(
+                "Exception in {}() with cause = '{}' and exception = '{}'",
+                logger.name,
+                e.getCause() != null ? e.getCause() : "NULL",
+                e.getMessage(),
+                e
+            );
+        } else if (logger.log.isDebugEnabled() && isSampled()) {
+            logger.log.debug("Exception in {}() with cause = {}", logger.name, e.getCause() != null ? e.getCause() : "NULL");
         }
     }
 
@@ -97,19 +126,106 @@ public class LoggingAspect {
      */
     @Around("applicationPackagePointcut() && springBeanPointcut()")
     public Object logAround(ProceedingJoinPoint joinPoint) throws Throwable {
-        Logger log = logger(joinPoint);
-        if (log.isDebugEnabled()) {
-            log.debug("Enter: {}() with argument[s] = {}", joinPoint.getSignature().getName(), Arrays.toString(joinPoint.getArgs()));
+        MethodLogger logger = logger(joinPoint);
+        boolean sampled = logger.log.isDebugEnabled() && isSampled();
+        if (sampled) {
+            logger.log.debug("Enter: {}() with argument[s] = {}", logger.name, new Rendered(joinPoint.getArgs(), maxArgumentLength));
         }
         try {
             Object result = joinPoint.proceed();
-            if (log.isDebugEnabled()) {
-                log.debug("Exit: {}() with result = {}", joinPoint.getSignature().getName(), result);
+            if (sampled) {
+                logger.log.debug("Exit: {}() with result = {}", logger.name, new Rendered(result, maxArgumentLength));
             }
             return result;
         } catch (IllegalArgumentException e) {
-            log.error("Illegal argument: {} in {}()", Arrays.toString(joinPoint.getArgs()), joinPoint.getSignature().getName());
+            if (development) {
+                logger.log.error("Illegal argument: {} in {}()", new Rendered(joinPoint.getArgs(), maxArgumentLength), logger.name);
+            } else if (sampled) {
+                logger.log.debug("Illegal argument: {} in {}()", new Rendered(joinPoint.getArgs(), maxArgumentLength), logger.name);
+            }
             throw e;
         }
     }
+
+    private boolean isSampled() {
+        return samplingRate >= 1 || ThreadLocalRandom.current().nextDouble() < samplingRate;
+    }
+
+    /**
+     * Logger and name of an advised method.
+     */
+    private static final class MethodLogger {
+
+        private final Logger log;
+
+        private final String name;
+
+        private MethodLogger(MethodSignature signature) {
+            this.log = LoggerFactory.getLogger(signature.getDeclaringTypeName());
+            this.name = signature.getName();
+        }
+    }
+
+    /**
+     * An argument, arguments array or result, rendered truncated when the logging event is formatted.
+     */
+    private static final class Rendered {
+
+        private final Object value;
+
+        private final int maxLength;
+
+        private Rendered(Object value, int maxLength) {
+            this.value = value;
+            this.maxLength = maxLength;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder rendered = new StringBuilder();
+            if (value instanceof Object[]) {
+                render(rendered, Arrays.asList((Object[]) value).iterator());
+            } else {
+                render(rendered, value);
+            }
+            return rendered.toString();
+        }
+
+        private void render(StringBuilder rendered, Object value) {
+            if (value instanceof Collection) {
+                render(rendered, ((Collection<?>) value).iterator());
+                return;
+            }
+            // Characters are appended as is, without copying the whole value
+            CharSequence chars = value instanceof CharSequence ? (CharSequence) value : String.valueOf(value);
+            if (chars.length() <= maxLength) {
+                rendered.append(chars);
+            } else {
+                rendered.append(chars, 0, maxLength).append(TRUNCATED).append(" (").append(chars.length()).append(" chars)");
+            }
+        }
+
+        private void render(StringBuilder rendered, Iterator<?> elements) {
+            // Elements are rendered until the whole exceeds the maximum length, the others are only counted
+            int start = rendered.length();
+            int count = 0;
+            int skipped = 0;
+            rendered.append('[');
+            while (elements.hasNext()) {
+                Object element = elements.next();
+                if (rendered.length() - start > maxLength) {
+                    skipped++;
+                    continue;
+                }
+                if (count++ > 0) {
+                    rendered.append(", ");
+                }
+                render(rendered, element);
+            }
+            if (skipped > 0) {
+                rendered.append(", ").append(TRUNCATED).append(' ').append(skipped).append(" more");
+            }
+            rendered.append(']');
+        }
+    }
 }
@@ -0,0 +1,140 @@
+package tech.lszita.gardonyi.aop.metrics;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Aspect for timing the execution of service and repository Spring components, on the pointcuts of the
+ * {@link tech.lszita.gardonyi.aop.logging.LoggingAspect} and on all the Spring Data repositories.
+ * <p>
+ * Every method gets a {@code method.timed} timer and {@code method.exceptions} counters by exception type, tagged with
+ * the {@code class} (the repository interface of the Spring Data repositories) and {@code method}. The meters are
+ * resolved on the first call of a method (or exception type), the following calls only read the clock and record. The
+ * percentiles are those of {@code management.metrics.distribution}, as for the other timers, but not the histogram
+ * buckets: they are turned off for {@code method.timed}, which has a timer per method.
+ */
+@Aspect
+public class MetricsAspect {
+
+    public static final String TIMER_NAME = "method.timed";
+
+    public static final String EXCEPTIONS_COUNTER_NAME = "method.exceptions";
+
+    private final MeterRegistry meterRegistry;
+
+    private final Clock clock;
+
+    private final Map<Class<?>, Map<Method, MethodMeters>> methodMeters = new ConcurrentHashMap<>();
+
+    public MetricsAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        this.clock = meterRegistry.config().clock();
+    }
+
+    /**
+     * Pointcut that matches all repositories and services, but not the Web REST endpoints, timed as HTTP requests.
+     */
+    @Pointcut(
+        "(tech.lszita.gardonyi.aop.logging.LoggingAspect.applicationPackagePointcut()" +
+        " && tech.lszita.gardonyi.aop.logging.LoggingAspect.springBeanPointcut()" +
+        " && !within(@org.springframework.web.bind.annotation.RestController *))" +
+        " || target(org.springframework.data.repository.Repository)"
+    )
+    public void serviceAndRepositoryPointcut() {
+        // Method is empty as this is just a Pointcut, the implementations are in the advices.
+    }
+
+    /**
+     * Advice that times a method, and counts the exceptions it throws.
+     *
+     * @param joinPoint join point for advice.
+     * @return result.
+     * @throws Throwable the exception of the method.
+     */
+    @Around("serviceAndRepositoryPointcut()")
+    public Object timeAround(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodMeters meters = meters(joinPoint);
+        long start = clock.monotonicTime();
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            meters.exceptions(e.getClass()).increment();
+            throw e;
+        } finally {
+            meters.timer.record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private MethodMeters meters(ProceedingJoinPoint joinPoint) {
+        Object target = joinPoint.getTarget();
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+        // By target class, the methods of the Spring Data repositories are shared by all the repositories
+        return methodMeters
+            .computeIfAbsent(target.getClass(), targetClass -> new ConcurrentHashMap<>())
+            .computeIfAbsent(signature.getMethod(), method -> new MethodMeters(className(target), signature.getName()));
+    }
+
+    /**
+     * The class of the target, or its repository interface when the target is a Spring Data repository.
+     */
+    private static String className(Object target) {
+        if (Proxy.isProxyClass(target.getClass())) {
+            return AopProxyUtils.proxiedUserInterfaces(target)[0].getName();
+        }
+        return ClassUtils.getUserClass(target).getName();
+    }
+
+    /**
+     * Meters of an advised method.
+     */
+    private final class MethodMeters {
+
+        private final String className;
+
+        private final String methodName;
+
+        private final Timer timer;
+
+        private final Map<Class<?>, Counter> exceptions = new ConcurrentHashMap<>();
+
+        private MethodMeters(String className, String methodName) {
+            this.className = className;
+            this.methodName = methodName;
+            this.timer =
+                Timer
+                    .builder(TIMER_NAME)
+                    .description("Execution time of the service and repository methods")
+                    .tag("class", className)
+                    .tag("method", methodName)
+                    .register(meterRegistry);
+        }
+
+        private Counter exceptions(Class<?> exceptionClass) {
+            return exceptions.computeIfAbsent(
+                exceptionClass,
+                type ->
+                    Counter
+                        .builder(EXCEPTIONS_COUNTER_NAME)
+                        .description("Exceptions thrown by the service and repository methods")
+                        .tag("class", className)
+                        .tag("method", methodName)
+                        .tag("exception", type.getSimpleName())
+                        .register(meterRegistry)
+            );
+        }
+    }
+}
@@ -1,6 +1,12 @@
 package tech.lszita.gardonyi.config;
 
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import tech.lszita.gardonyi.service.TotalCount;
 
 /**
  * Properties specific to Gardonyi Cms.
@@ -10,7 +16,839 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
  */
 @ConfigurationProperties(prefix = "application", ignoreUnknownFields = false)
 public class ApplicationProperties {
+
+    private final RememberMe rememberMe = new RememberMe();
+
+    private final Search search = new Search();
+
+    private final Bulk bulk = new Bulk();
+
+    private final Sequence sequence = new Sequence();
+
+    private final Cache cache = new Cache();
+
+    private final Pagination pagination = new Pagination();
+
+    private final Logging logging = new Logging();
+
+    private final Metrics metrics = new Metrics();
+
+    private final QueryStatistics queryStatistics = new QueryStatistics();
+
+    private final QueryMetrics queryMetrics = new QueryMetrics();
+
+    private final ReadReplicas readReplicas = new ReadReplicas();
+
     // jhipster-needle-application-properties-property
+
+    public RememberMe getRememberMe() {
+        return rememberMe;
+    }
+
+    public Search getSearch() {
+        return search;
+    }
+
+    public Bulk getBulk() {
+        return bulk;
+    }
+
+    public Sequence getSequence() {
+        return sequence;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Pagination getPagination() {
+        return pagination;
+    }
+
+    public Logging getLogging() {
+        return logging;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public QueryStatistics getQueryStatistics() {
+        return queryStatistics;
+    }
+
+    public QueryMetrics getQueryMetrics() {
+        return queryMetrics;
+    }
+
+    public ReadReplicas getReadReplicas() {
+        return readReplicas;
+    }
+
     // jhipster-needle-application-properties-property-getter
+
+    public static class RememberMe {
+
+        /**
+         * Write the audit fields (date, IP address, user agent) of refreshed remember-me tokens in the background,
+         * instead of in the request thread. The token value itself is always rotated synchronously.
+         */
+        private boolean auditWriteBehind = false;
+
+        /**
+         * Delay between two flushes of the buffered audit fields, in milliseconds.
+         */
+        private long auditFlushDelayMs = 5000;
+
+        public boolean isAuditWriteBehind() {
+            return auditWriteBehind;
+        }
+
+        public void setAuditWriteBehind(boolean auditWriteBehind) {
+            this.auditWriteBehind = auditWriteBehind;
+        }
+
+        public long getAuditFlushDelayMs() {
+            return auditFlushDelayMs;
+        }
+
+        public void setAuditFlushDelayMs(long auditFlushDelayMs) {
+            this.auditFlushDelayMs = auditFlushDelayMs;
+        }
+    }
+
+    public static class Search {
+
+        /**
+         * Full-text search engine of the posts and pages.
+         */
+        public enum Engine {
+            /**
+             * Search the database: native full-text search on PostgreSQL, in-memory search on H2.
+             */
+            DATABASE,
+            /**
+             * Search an embedded Lucene index, kept in sync by the services.
+             */
+            LUCENE,
+        }
+
+        private Engine engine = Engine.DATABASE;
+
+        private final Lucene lucene = new Lucene();
+
+        public Engine getEngine() {
+            return engine;
+        }
+
+        public void setEngine(Engine engine) {
+            this.engine = engine;
+        }
+
+        public Lucene getLucene() {
+            return lucene;
+        }
+
+        public static class Lucene {
+
+            /**
+             * Directory of the index, memory-mapped.
+             */
+            private String indexDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "gardonyiCms", "lucene").toString();
+
+            /**
+             * Number of entities read per batch when the index is rebuilt at startup.
+             */
+            private int rebuildBatchSize = 500;
+
+            /**
+             * Maximum delay before an indexed change is visible to searches, in milliseconds.
+             */
+            private long maxStalenessMs = 1000;
+
+            public String getIndexDirectory() {
+                return indexDirectory;
+            }
+
+            public void setIndexDirectory(String indexDirectory) {
+                this.indexDirectory = indexDirectory;
+            }
+
+            public int getRebuildBatchSize() {
+                return rebuildBatchSize;
+            }
+
+            public void setRebuildBatchSize(int rebuildBatchSize) {
+                this.rebuildBatchSize = rebuildBatchSize;
+            }
+
+            public long getMaxStalenessMs() {
+                return maxStalenessMs;
+            }
+
+            public void setMaxStalenessMs(long maxStalenessMs) {
+                this.maxStalenessMs = maxStalenessMs;
+            }
+        }
+    }
+
+    public static class Bulk {
+
+        /**
+         * Number of operations of a bulk request run in a single transaction.
+         */
+        private int chunkSize = 500;
+
+        public int getChunkSize() {
+            return chunkSize;
+        }
+
+        public void setChunkSize(int chunkSize) {
+            this.chunkSize = chunkSize;
+        }
+    }
+
+    public static class Sequence {
+
+        /**
+         * Number of ids reserved by each call of the {@code sequence_generator} sequence, also its increment.
+         * Changing it migrates the increment of the sequence at the next startup.
+         */
+        private int blockSize = 50;
+
+        public int getBlockSize() {
+            return blockSize;
+        }
+
+        public void setBlockSize(int blockSize) {
+            this.blockSize = blockSize;
+        }
+    }
+
+    public static class Cache {
+
+        /**
+         * Directory of the persistent disk tiers, only used when a region has a disk tier.
+         */
+        private String diskDirectory = Paths.get(System.getProperty("java.io.tmpdir"), "gardonyiCms", "ehcache").toString();
+
+        /**
+         * Tiering and expiry of the cache regions, by cache name (entity class name, collection role or Spring cache name).
+         * The regions not listed here only have a heap tier, sized and expired by {@code jhipster.cache.ehcache}.
+         */
+        private final Map<String, Region> regions = new LinkedHashMap<>();
+
+        /**
+         * URI of the JCache manager, the default one of Ehcache if not set. The application contexts of a JVM with the
+         * same URI share their caches.
+         */
+        private String managerUri;
+
+        private final WarmUp warmUp = new WarmUp();
+
+        private final Invalidation invalidation = new Invalidation();
+
+        public String getDiskDirectory() {
+            return diskDirectory;
+        }
+
+        public void setDiskDirectory(String diskDirectory) {
+            this.diskDirectory = diskDirectory;
+        }
+
+        public Map<String, Region> getRegions() {
+            return regions;
+        }
+
+        public String getManagerUri() {
+            return managerUri;
+        }
+
+        public void setManagerUri(String managerUri) {
+            this.managerUri = managerUri;
+        }
+
+        public WarmUp getWarmUp() {
+            return warmUp;
+        }
+
+        public Invalidation getInvalidation() {
+            return invalidation;
+        }
+
+        public static class Region {
+
+            /**
+             * Number of entries of the heap tier, {@code jhipster.cache.ehcache.max-entries} if not set.
+             */
+            private Long heapEntries;
+
+            /**
+             * Size of the off-heap tier in MB, none if 0. Must fit in the {@code -XX:MaxDirectMemorySize} of the JVM.
+             */
+            private long offHeapMb = 0;
+
+            /**
+             * Size of the disk tier in MB, none if 0.
+             */
+            private long diskMb = 0;
+
+            /**
+             * Keep the disk tier across restarts. Only for regions whose data is not changed while the application is down.
+             */
+            private boolean diskPersistent = true;
+
+            /**
+             * Time to live of the entries, {@code jhipster.cache.ehcache.time-to-live-seconds} if not set.
+             */
+            private Long timeToLiveSeconds;
+
+            /**
+             * Time to idle of the entries: if set, entries expire when not read for this time, instead of the time to live.
+             */
+            private Long timeToIdleSeconds;
+
+            public Long getHeapEntries() {
+                return heapEntries;
+            }
+
+            public void setHeapEntries(Long heapEntries) {
+                this.heapEntries = heapEntries;
+            }
+
+            public long getOffHeapMb() {
+                return offHeapMb;
+            }
+
+            public void setOffHeapMb(long offHeapMb) {
+                this.offHeapMb = offHeapMb;
+            }
+
+            public long getDiskMb() {
+                return diskMb;
+            }
+
+            public void setDiskMb(long diskMb) {
+                this.diskMb = diskMb;
+            }
+
+            public boolean isDiskPersistent() {
+                return diskPersistent;
+            }
+
+            public void setDiskPersistent(boolean diskPersistent) {
+                this.diskPersistent = diskPersistent;
+            }
+
+            public Long getTimeToLiveSeconds() {
+                return timeToLiveSeconds;
+            }
+
+            public void setTimeToLiveSeconds(Long timeToLiveSeconds) {
+                this.timeToLiveSeconds = timeToLiveSeconds;
+            }
+
+            public Long getTimeToIdleSeconds() {
+                return timeToIdleSeconds;
+            }
+
+            public void setTimeToIdleSeconds(Long timeToIdleSeconds) {
+                this.timeToIdleSeconds = timeToIdleSeconds;
+            }
+        }
+
+        public static class WarmUp {
+
+            /**
+             * Warm the cache regions up at startup. The application is only ready once the warm-up is finished or timed out.
+             */
+            private boolean enabled = true;
+
+            /**
+             * Number of posts loaded, the most recently modified first.
+             */
+            private int posts = 500;
+
+            /**
+             * Number of pages loaded, the most recently modified first.
+             */
+            private int pages = 200;
+
+            /**
+             * Number of users loaded with their authorities, the most recently modified first. All the authorities are loaded.
+             */
+            private int users = 100;
+
+            /**
+             * Number of entities loaded per query.
+             */
+            private int batchSize = 100;
+
+            /**
+             * Number of batches loaded in parallel, each one uses a database connection.
+             */
+            private int parallelism = 4;
+
+            /**
+             * Maximum duration of the warm-up, after which the application is ready even if the caches are still cold.
+             */
+            private long timeoutSeconds = 60;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getPosts() {
+                return posts;
+            }
+
+            public void setPosts(int posts) {
+                this.posts = posts;
+            }
+
+            public int getPages() {
+                return pages;
+            }
+
+            public void setPages(int pages) {
+                this.pages = pages;
+            }
+
+            public int getUsers() {
+                return users;
+            }
+
+            public void setUsers(int users) {
+                this.users = users;
+            }
+
+            public int getBatchSize() {
+                return batchSize;
+            }
+
+            public void setBatchSize(int batchSize) {
+                this.batchSize = batchSize;
+            }
+
+            public int getParallelism() {
+                return parallelism;
+            }
+
+            public void setParallelism(int parallelism) {
+                this.parallelism = parallelism;
+            }
+
+            public long getTimeoutSeconds() {
+                return timeoutSeconds;
+            }
+
+            public void setTimeoutSeconds(long timeoutSeconds) {
+                this.timeoutSeconds = timeoutSeconds;
+            }
+        }
+
+        public static class Invalidation {
+
+            /**
+             * Broadcast the cache evictions to the other nodes, over PostgreSQL notifications. Not available on H2.
+             */
+            private boolean enabled = true;
+
+            /**
+             * PostgreSQL notification channel, shared by all the nodes of the cluster.
+             */
+            private String channel = "cache_invalidation";
+
+            /**
+             * Maximum delay before the evictions of this node are sent, in milliseconds.
+             */
+            private long pollIntervalMs = 100;
+
+            /**
+             * Delay between two attempts to reconnect the bus, in milliseconds. All the caches are cleared once reconnected.
+             */
+            private long reconnectDelayMs = 5000;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public String getChannel() {
+                return channel;
+            }
+
+            public void setChannel(String channel) {
+                this.channel = channel;
+            }
+
+            public long getPollIntervalMs() {
+                return pollIntervalMs;
+            }
+
+            public void setPollIntervalMs(long pollIntervalMs) {
+                this.pollIntervalMs = pollIntervalMs;
+            }
+
+            public long getReconnectDelayMs() {
+                return reconnectDelayMs;
+            }
+
+            public void setReconnectDelayMs(long reconnectDelayMs) {
+                this.reconnectDelayMs = reconnectDelayMs;
+            }
+        }
+    }
+
+    public static class Pagination {
+
+        /**
+         * How the {@code X-Total-Count} of the paginated lists is found when the request has no {@code count}
+         * parameter, by list ({@code posts}, {@code pages}, {@code users}).
+         */
+        private final Map<String, TotalCount> totalCount = new LinkedHashMap<>();
+
+        /**
+         * Number of rows from which the estimated totals are used, the smaller tables are counted.
+         */
+        private long estimateThreshold = 100_000;
+
+        public Map<String, TotalCount> getTotalCount() {
+            return totalCount;
+        }
+
+        public long getEstimateThreshold() {
+            return estimateThreshold;
+        }
+
+        public void setEstimateThreshold(long estimateThreshold) {
+            this.estimateThreshold = estimateThreshold;
+        }
+    }
+
+    public static class Logging {
+
+        private final Aspect aspect = new Aspect();
+
+        private final Async async = new Async();
+
+        public Aspect getAspect() {
+            return aspect;
+        }
+
+        public Async getAsync() {
+            return async;
+        }
+
+        public static class Aspect {
+
+            /**
+             * Log the calls of the repositories, services and REST endpoints at DEBUG outside of the "dev" profile,
+             * where it is always enabled.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Share of the calls whose entering and exiting is logged, between 0 and 1.
+             */
+            private double samplingRate = 1;
+
+            /**
+             * Maximum length of each logged argument or result, the rest is truncated.
+             */
+            private int maxArgumentLength = 500;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public double getSamplingRate() {
+                return samplingRate;
+            }
+
+            public void setSamplingRate(double samplingRate) {
+                this.samplingRate = samplingRate;
+            }
+
+            public int getMaxArgumentLength() {
+                return maxArgumentLength;
+            }
+
+            public void setMaxArgumentLength(int maxArgumentLength) {
+                this.maxArgumentLength = maxArgumentLength;
+            }
+        }
+
+        public static class Async {
+
+            /**
+             * Write the logs of the root appenders from a background thread. The calling threads never block: when
+             * the queue is full the events are dropped, and the TRACE, DEBUG and INFO events already once it is 80% full.
+             */
+            private boolean enabled = false;
+
+            /**
+             * Number of events buffered by each asynchronous appender.
+             */
+            private int queueSize = 8192;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+
+            public int getQueueSize() {
+                return queueSize;
+            }
+
+            public void setQueueSize(int queueSize) {
+                this.queueSize = queueSize;
+            }
+        }
+    }
+
+    public static class Metrics {
+
+        private final Aspect aspect = new Aspect();
+
+        public Aspect getAspect() {
+            return aspect;
+        }
+
+        public static class Aspect {
+
+            /**
+             * Time the calls of the repositories and services, and count their exceptions by type.
+             */
+            private boolean enabled = true;
+
+            public boolean isEnabled() {
+                return enabled;
+            }
+
+            public void setEnabled(boolean enabled) {
+                this.enabled = enabled;
+            }
+        }
+    }
+
+    public static class QueryStatistics {
+
+        /**
+         * Count the SQL statements, JDBC time and entity loads of every HTTP request.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Send the statistics in the X-Sql-Statement-Count, X-Sql-Time-Micros and X-Entity-Load-Count response headers.
+         */
+        private boolean headers = false;
+
+        /**
+         * Record the statistics in the http.server.requests.sql.* and http.server.requests.entity.loads meters.
+         */
+        private boolean metrics = true;
+
+        /**
+         * Number of executions of the same statement by a request from which it is logged as a possible N+1 select,
+         * 0 to never log.
+         */
+        private int repeatedStatementThreshold = 10;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isHeaders() {
+            return headers;
+        }
+
+        public void setHeaders(boolean headers) {
+            this.headers = headers;
+        }
+
+        public boolean isMetrics() {
+            return metrics;
+        }
+
+        public void setMetrics(boolean metrics) {
+            this.metrics = metrics;
+        }
+
+        public int getRepeatedStatementThreshold() {
+            return repeatedStatementThreshold;
+        }
+
+        public void setRepeatedStatementThreshold(int repeatedStatementThreshold) {
+            this.repeatedStatementThreshold = repeatedStatementThreshold;
+        }
+    }
+
+    public static class QueryMetrics {
+
+        /**
+         * Time the SQL statements in the jdbc.query timer, tagged with the normalized SQL.
+         */
+        private boolean enabled = true;
+
+        /**
+         * Duration from which a statement is logged with the methods it is run from, 0 to never log.
+         */
+        private long slowQueryThresholdMs = 500;
+
+        /**
+         * Maximum number of distinct normalized SQL tags, the other statements are not timed.
+         */
+        private int maxSqlTags = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getSlowQueryThresholdMs() {
+            return slowQueryThresholdMs;
+        }
+
+        public void setSlowQueryThresholdMs(long slowQueryThresholdMs) {
+            this.slowQueryThresholdMs = slowQueryThresholdMs;
+        }
+
+        public int getMaxSqlTags() {
+            return maxSqlTags;
+        }
+
+        public void setMaxSqlTags(int maxSqlTags) {
+            this.maxSqlTags = maxSqlTags;
+        }
+    }
+    public static class ReadReplicas {
+
+        /**
+         * Run the read-only transactions on the read replicas, the others on the primary database.
+         */
+        private boolean enabled = false;
+
+        /**
+         * JDBC URLs of the read replicas, read from in turn.
+         */
+        private List<String> urls = new ArrayList<>();
+
+        /**
+         * User of the read replicas, that of the primary database if not set.
+         */
+        private String username;
+
+        /**
+         * Password of the user of the read replicas, that of the primary database if not set.
+         */
+        private String password;
+
+        /**
+         * Maximum replication lag of the replicas read from, the reads go to the primary database beyond.
+         */
+        private long maxLagMs = 1000;
+
+        /**
+         * Delay between two checks of the replication lag of the replicas.
+         */
+        private long lagCheckIntervalMs = 1000;
+
+        /**
+         * Query of the replication lag of a replica, in seconds, that of a PostgreSQL standby if not set.
+         */
+        private String lagQuery;
+
+        /**
+         * How long a session keeps reading from the primary database after one of its transactions wrote to it.
+         */
+        private long readYourWritesMs = 5000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public List<String> getUrls() {
+            return urls;
+        }
+
+        public void setUrls(List<String> urls) {
+            this.urls = urls;
+        }
+
+        public String getUsername() {
+            return username;
+        }
+
+        public void setUsername(String username) {
+            this.username = username;
+        }
+
+        public String getPassword() {
+            return password;
+        }
+
+        public void setPassword(String password) {
+            this.password = password;
+        }
+
+        public long getMaxLagMs() {
+            return maxLagMs;
+        }
+
+        public void setMaxLagMs(long maxLagMs) {
+            this.maxLagMs = maxLagMs;
+        }
+
+        public long getLagCheckIntervalMs() {
+            return lagCheckIntervalMs;
+        }
+
+        public void setLagCheckIntervalMs(long lagCheckIntervalMs) {
+            this.lagCheckIntervalMs = lagCheckIntervalMs;
+        }
+
+        public String getLagQuery() {
+            return lagQuery;
+        }
+
+        public void setLagQuery(String lagQuery) {
+            this.lagQuery = lagQuery;
+        }
+
+        public long getReadYourWritesMs() {
+            return readYourWritesMs;
+        }
+
+        public void setReadYourWritesMs(long readYourWritesMs) {
+            this.readYourWritesMs = readYourWritesMs;
+        }
+    }
+
     // jhipster-needle-application-properties-property-class
 }
@@ -1,9 +1,21 @@
 package tech.lszita.gardonyi.config;
 
+import java.io.File;
+import java.net.URI;
 import java.time.Duration;
+import javax.cache.Caching;
 import org.ehcache.config.builders.*;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.core.config.DefaultConfiguration;
+import org.ehcache.expiry.ExpiryPolicy;
+import org.ehcache.impl.config.persistence.DefaultPersistenceConfiguration;
+import org.ehcache.impl.serialization.PlainJavaSerializer;
 import org.ehcache.jsr107.Eh107Configuration;
+import org.ehcache.jsr107.EhcacheCachingProvider;
 import org.hibernate.cache.jcache.ConfigSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
 import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
@@ -19,20 +31,35 @@ import tech.jhipster.config.cache.PrefixedKeyGenerator;
 @EnableCaching
 public class CacheConfiguration {
 
+    private final Logger log = LoggerFactory.getLogger(CacheConfiguration.class);
+
     private GitProperties gitProperties;
     private BuildProperties buildProperties;
-    private final javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration;
+    private final JHipsterProperties.Cache.Ehcache ehcache;
+    private final ApplicationProperties.Cache cache;
 
-    public CacheConfiguration(JHipsterProperties jHipsterProperties) {
-        JHipsterProperties.Cache.Ehcache ehcache = jHipsterProperties.getCache().getEhcache();
+    public CacheConfiguration(JHipsterProperties jHipsterProperties, ApplicationProperties applicationProperties) {
+        this.ehcache = jHipsterProperties.getCache().getEhcache();
+        this.cache = applicationProperties.getCache();
+    }
 
-        jcacheConfiguration =
-            Eh107Configuration.fromEhcacheCacheConfiguration(
-                CacheConfigurationBuilder
-                    .newCacheConfigurationBuilder(Object.class, Object.class, ResourcePoolsBuilder.heap(ehcache.getMaxEntries()))
-                    .withExpiry(ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(ehcache.getTimeToLiveSeconds())))
-                    .build()
-            );
+    /**
+     * The JCache manager, created here instead of by Spring Boot so that the regions can have a persistent disk tier.
+     *
+     * @param customizers the customizers of the cache manager, creating the caches.
+     * @return the cache manager.
+     */
+    @Bean
+    public javax.cache.CacheManager jCacheCacheManager(ObjectProvider<JCacheManagerCustomizer> customizers) {
+        EhcacheCachingProvider provider = (EhcacheCachingProvider) Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        ClassLoader classLoader = provider.getDefaultClassLoader();
+        DefaultConfiguration configuration = cache.getRegions().values().stream().anyMatch(region -> region.getDiskMb() > 0)
+            ? new DefaultConfiguration(classLoader, new DefaultPersistenceConfiguration(new File(cache.getDiskDirectory())))
+            : new DefaultConfiguration(classLoader);
+        URI uri = cache.getManagerUri() != null ? URI.create(cache.getManagerUri()) : provider.getDefaultURI();
+        javax.cache.CacheManager cacheManager = provider.getCacheManager(uri, configuration);
+        customizers.orderedStream().forEach(customizer -> customizer.customize(cacheManager));
+        return cacheManager;
     }
 
     @Bean
@@ -52,6 +79,11 @@ public class CacheConfiguration {
             createCache(cm, tech.lszita.gardonyi.domain.User.class.getName() + ".persistentTokens");
             createCache(cm, tech.lszita.gardonyi.domain.PageEntity.class.getName());
             createCache(cm, tech.lszita.gardonyi.domain.Post.class.getName());
+            createCache(cm, tech.lszita.gardonyi.service.RenderedResponseCache.RENDERED_POSTS_CACHE);
+            createCache(cm, tech.lszita.gardonyi.service.RenderedResponseCache.RENDERED_PAGES_CACHE);
+            createCache(cm, tech.lszita.gardonyi.service.ListingCache.POST_LISTINGS_CACHE);
+            createCache(cm, tech.lszita.gardonyi.service.ListingCache.PAGE_LISTINGS_CACHE);
+            createCache(cm, tech.lszita.gardonyi.service.ListingCache.USER_LISTINGS_CACHE);
             // jhipster-needle-ehcache-add-entry
         };
     }
@@ -61,8 +93,44 @@ public class CacheConfiguration {
         if (cache != null) {
             cache.clear();
         } else {
-            cm.createCache(cacheName, jcacheConfiguration);
+            cm.createCache(cacheName, jcacheConfiguration(cacheName));
+        }
+        // Read by the cache metrics
+        cm.enableStatistics(cacheName, true);
+    }
+
+    private javax.cache.configuration.Configuration<Object, Object> jcacheConfiguration(String cacheName) {
+        ApplicationProperties.Cache.Region region = cache.getRegions().getOrDefault(cacheName, new ApplicationProperties.Cache.Region());
+        ResourcePoolsBuilder resourcePools = ResourcePoolsBuilder.heap(
+            region.getHeapEntries() != null ? region.getHeapEntries() : ehcache.getMaxEntries()
+        );
+        if (region.getOffHeapMb() > 0) {
+            resourcePools = resourcePools.offheap(region.getOffHeapMb(), MemoryUnit.MB);
+        }
+        if (region.getDiskMb() > 0) {
+            resourcePools = resourcePools.disk(region.getDiskMb(), MemoryUnit.MB, region.isDiskPersistent());
+        }
+        CacheConfigurationBuilder<Object, Object> builder = CacheConfigurationBuilder
+            .newCacheConfigurationBuilder(Object.class, Object.class, resourcePools)
+            .withExpiry(expiry(region));
+        if (region.getOffHeapMb() > 0 || region.getDiskMb() > 0) {
+            // Keys and values leave the heap: the cached entities, collections and responses are all serializable
+            log.debug("Cache {} has {} MB off-heap and {} MB on disk", cacheName, region.getOffHeapMb(), region.getDiskMb());
+            ClassLoader classLoader = getClass().getClassLoader();
+            builder =
+                builder
+                    .withKeySerializer(new PlainJavaSerializer<>(classLoader))
+                    .withValueSerializer(new PlainJavaSerializer<>(classLoader));
+        }
+        return Eh107Configuration.fromEhcacheCacheConfiguration(builder.build());
+    }
+
+    private ExpiryPolicy<Object, Object> expiry(ApplicationProperties.Cache.Region region) {
+        if (region.getTimeToIdleSeconds() != null) {
+            return ExpiryPolicyBuilder.timeToIdleExpiration(Duration.ofSeconds(region.getTimeToIdleSeconds()));
         }
+        long timeToLiveSeconds = region.getTimeToLiveSeconds() != null ? region.getTimeToLiveSeconds() : ehcache.getTimeToLiveSeconds();
+        return ExpiryPolicyBuilder.timeToLiveExpiration(Duration.ofSeconds(timeToLiveSeconds));
     }
 
     @Autowired(required = false)
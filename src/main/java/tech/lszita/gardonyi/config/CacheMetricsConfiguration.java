@@ -0,0 +1,124 @@
+package tech.lszita.gardonyi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.jpa.HibernateMetrics;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics of the caches, in addition to the hit, miss, put, removal and eviction counts of every JCache cache bound by
+ * Spring Boot ({@code cache.*} meters, tagged with the {@code cache} name).
+ * <p>
+ * The JCache statistics of the caches are enabled by {@link CacheConfiguration}, and the Hibernate statistics by
+ * {@code hibernate.generate_statistics}.
+ */
+@Configuration
+public class CacheMetricsConfiguration {
+
+    private static final String CACHE_MANAGER_TAG = "cache.manager";
+
+    /**
+     * Name of the Spring cache manager bean, with which Spring Boot tags the {@code cache.*} meters of its caches.
+     */
+    private static final String CACHE_MANAGER_NAME = "cacheManager";
+
+    /**
+     * JCache statistics attributes of the average latencies, in microseconds, by operation.
+     */
+    private static final Map<String, String> LATENCY_ATTRIBUTES = Map.of(
+        "get",
+        "AverageGetTime",
+        "put",
+        "AveragePutTime",
+        "remove",
+        "AverageRemoveTime"
+    );
+
+    /**
+     * Hibernate statistics, including the requests (hits and misses) and puts of every second-level cache region
+     * ({@code hibernate.second.level.cache.*} meters, tagged with the {@code region} name).
+     *
+     * @param entityManagerFactory the entity manager factory.
+     * @return the binder of the Hibernate metrics.
+     */
+    @Bean
+    @SuppressWarnings("deprecation")
+    public MeterBinder hibernateMetrics(EntityManagerFactory entityManagerFactory) {
+        return new HibernateMetrics(entityManagerFactory.unwrap(SessionFactory.class), "entityManagerFactory", Tags.empty());
+    }
+
+    /**
+     * Average latency of the get, put and remove operations of every JCache cache since its creation
+     * ({@code cache.latency.average} meter, tagged with the {@code cache} name, the {@code cache.manager} name and the
+     * {@code operation}).
+     *
+     * @param cacheManager the JCache manager.
+     * @return the binder of the latency metrics.
+     */
+    @Bean
+    public MeterBinder cacheLatencyMetrics(javax.cache.CacheManager cacheManager) {
+        return registry -> {
+            MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+            for (String cacheName : cacheManager.getCacheNames()) {
+                bindLatency(registry, mBeanServer, statisticsObjectName(cacheManager, cacheName), cacheName, CACHE_MANAGER_NAME);
+            }
+        };
+    }
+
+    private static void bindLatency(
+        MeterRegistry registry,
+        MBeanServer mBeanServer,
+        ObjectName statistics,
+        String cacheName,
+        String cacheManagerName
+    ) {
+        LATENCY_ATTRIBUTES.forEach((operation, attribute) ->
+            TimeGauge
+                .builder("cache.latency.average", mBeanServer, TimeUnit.MICROSECONDS, server -> attribute(server, statistics, attribute))
+                .tags("cache", cacheName, CACHE_MANAGER_TAG, cacheManagerName, "operation", operation)
+                .description("Average latency of the cache operations since the cache was created")
+                .register(registry)
+        );
+    }
+
+    private static double attribute(MBeanServer mBeanServer, ObjectName statistics, String attribute) {
+        try {
+            return ((Number) mBeanServer.getAttribute(statistics, attribute)).doubleValue();
+        } catch (JMException e) {
+            // Statistics disabled, or cache closed
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Name of the JCache statistics MBean of a cache, as registered by Ehcache.
+     */
+    private static ObjectName statisticsObjectName(javax.cache.CacheManager cacheManager, String cacheName) {
+        try {
+            return new ObjectName(
+                "javax.cache:type=CacheStatistics,CacheManager=" +
+                sanitize(cacheManager.getURI().toString()) +
+                ",Cache=" +
+                sanitize(cacheName)
+            );
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException("Invalid cache name: " + cacheName, e);
+        }
+    }
+
+    private static String sanitize(String value) {
+        return value.replaceAll("[,:=\n]", ".");
+    }
+}
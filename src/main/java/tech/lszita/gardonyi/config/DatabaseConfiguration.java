@@ -1,17 +1,59 @@
 package tech.lszita.gardonyi.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
 import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.util.StringUtils;
 import tech.jhipster.config.JHipsterConstants;
 import tech.jhipster.config.h2.H2ConfigurationHelper;
+import tech.lszita.gardonyi.domain.PooledLoSequenceGenerator;
+import tech.lszita.gardonyi.repository.CacheInvalidationBus;
+import tech.lszita.gardonyi.repository.ContentSearchRepository;
+import tech.lszita.gardonyi.repository.InMemoryContentSearchRepository;
+import tech.lszita.gardonyi.repository.LuceneContentSearchRepository;
+import tech.lszita.gardonyi.repository.PostgresCacheInvalidationBus;
+import tech.lszita.gardonyi.repository.PostgresContentSearchRepository;
+import tech.lszita.gardonyi.repository.PostgresRowCountEstimator;
+import tech.lszita.gardonyi.repository.ReplicaRoutingDataSource;
+import tech.lszita.gardonyi.repository.RowCountEstimator;
+import tech.lszita.gardonyi.repository.SingleNodeCacheInvalidationBus;
+import tech.lszita.gardonyi.web.filter.ReadYourWritesFilter;
 
 @Configuration
 @EnableJpaRepositories({ "tech.lszita.gardonyi.repository" })
@@ -19,6 +61,8 @@ import tech.jhipster.config.h2.H2ConfigurationHelper;
 @EnableTransactionManagement
 public class DatabaseConfiguration {
 
+    private static final String POSTGRESQL = "PostgreSQL";
+
     private final Logger log = LoggerFactory.getLogger(DatabaseConfiguration.class);
 
     private final Environment env;
@@ -41,6 +85,217 @@ public class DatabaseConfiguration {
         return H2ConfigurationHelper.createServer(port);
     }
 
+    /**
+     * Data source running the read-only transactions on the read replicas, and the others on the primary database
+     * configured by {@code spring.datasource}: replaces the data source of Spring Boot when the read replicas are
+     * enabled.
+     * <p>
+     * The replica pools are configured like the primary one, read-only, named after it with a {@code -replica-n}
+     * suffix.
+     *
+     * @param dataSourceProperties the data source properties of the primary database.
+     * @param applicationProperties the application properties, configuring the read replicas.
+     * @return the routing data source.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.read-replicas", name = "enabled", havingValue = "true")
+    public ReplicaRoutingDataSource dataSource(DataSourceProperties dataSourceProperties, ApplicationProperties applicationProperties) {
+        ApplicationProperties.ReadReplicas readReplicas = applicationProperties.getReadReplicas();
+        HikariDataSource primary = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        Binder.get(env).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        if (StringUtils.hasText(dataSourceProperties.getName())) {
+            primary.setPoolName(dataSourceProperties.getName());
+        }
+        String poolName = StringUtils.hasText(primary.getPoolName()) ? primary.getPoolName() : "Hikari";
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        List<String> urls = readReplicas.getUrls();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = new HikariDataSource();
+            primary.copyStateTo(replica);
+            replica.setPoolName(poolName + "-replica-" + (i + 1));
+            replica.setJdbcUrl(urls.get(i));
+            replica.setUsername(
+                readReplicas.getUsername() != null ? readReplicas.getUsername() : dataSourceProperties.determineUsername()
+            );
+            replica.setPassword(
+                readReplicas.getPassword() != null ? readReplicas.getPassword() : dataSourceProperties.determinePassword()
+            );
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        log.info("Read-only transactions are run on the read replicas {}", replicas.keySet());
+        return new ReplicaRoutingDataSource(
+            primary,
+            replicas,
+            readReplicas.getLagQuery() != null ? readReplicas.getLagQuery() : ReplicaRoutingDataSource.POSTGRESQL_LAG_QUERY,
+            readReplicas.getMaxLagMs(),
+            readReplicas.getLagCheckIntervalMs(),
+            readReplicas.getReadYourWritesMs()
+        );
+    }
+
+    /**
+     * Metrics of the read replica pools ({@code hikaricp.connections.*}, tagged with their pool name), bound by Spring
+     * Boot for the primary pool only, and their replication lag ({@code jdbc.replica.lag}).
+     *
+     * @param dataSource the data source, wrapping the routing data source.
+     * @return the binder of the metrics.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.read-replicas", name = "enabled", havingValue = "true")
+    public MeterBinder readReplicaMetrics(DataSource dataSource) {
+        return registry -> {
+            ReplicaRoutingDataSource routingDataSource;
+            try {
+                routingDataSource = dataSource.unwrap(ReplicaRoutingDataSource.class);
+            } catch (SQLException e) {
+                log.warn("Read replica metrics are not available: {}", e.getMessage());
+                return;
+            }
+            routingDataSource
+                .getReplicas()
+                .forEach((name, replica) -> {
+                    HikariDataSource hikari = (HikariDataSource) replica;
+                    if (hikari.getMetricRegistry() == null && hikari.getMetricsTrackerFactory() == null) {
+                        hikari.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+                    }
+                    TimeGauge
+                        .builder("jdbc.replica.lag", routingDataSource, TimeUnit.MILLISECONDS, ds -> lag(ds.getLagMillis(name)))
+                        .description("Replication lag of the read replica, NaN while unavailable")
+                        .tag("pool", name)
+                        .register(registry);
+                });
+        };
+    }
+
+    private static double lag(long lagMillis) {
+        return lagMillis >= 0 ? lagMillis : Double.NaN;
+    }
+
+    /**
+     * The filter keeping the sessions reading from the primary database after their writes, before the security
+     * filters so that the writes they make are read too.
+     *
+     * @return the registration of the filter.
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "application.read-replicas", name = "enabled", havingValue = "true")
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter() {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(new ReadYourWritesFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    /**
+     * Full-text search over the posts and pages: from an embedded Lucene index when configured, otherwise native on
+     * PostgreSQL and in memory on the other databases (H2).
+     *
+     * @param dataSource the data source, used to find out the database.
+     * @param jdbcTemplate the JDBC template running the searches.
+     * @param applicationProperties the application properties, selecting the search engine.
+     * @return the content search repository.
+     * @throws MetaDataAccessException if the database could not be found out.
+     * @throws IOException if the Lucene index could not be opened.
+     */
+    @Bean
+    public ContentSearchRepository contentSearchRepository(
+        DataSource dataSource,
+        JdbcTemplate jdbcTemplate,
+        ApplicationProperties applicationProperties
+    ) throws MetaDataAccessException, IOException {
+        ApplicationProperties.Search search = applicationProperties.getSearch();
+        if (search.getEngine() == ApplicationProperties.Search.Engine.LUCENE) {
+            Path indexDirectory = Files.createDirectories(Paths.get(search.getLucene().getIndexDirectory()));
+            log.debug("Full-text search is served from the Lucene index in {}", indexDirectory);
+            return new LuceneContentSearchRepository(indexDirectory, search.getLucene().getMaxStalenessMs());
+        }
+        String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if (POSTGRESQL.equals(database)) {
+            return new PostgresContentSearchRepository(jdbcTemplate);
+        }
+        log.info("Full-text search is not supported by {}, using the in-memory search", database);
+        return new InMemoryContentSearchRepository(jdbcTemplate);
+    }
+
+    /**
+     * Broadcast of the cache evictions to the other nodes: over {@code LISTEN}/{@code NOTIFY} on PostgreSQL, none on the
+     * other databases (H2) or when disabled.
+     * <p>
+     * With the read replicas, the evictions are applied again once the replicas may have lagged behind for as long as
+     * allowed, the entries reloaded from a replica in between could be stale.
+     *
+     * @param dataSource the data source, used to find out the database.
+     * @param dataSourceProperties the data source properties, used to open the dedicated connection of the bus.
+     * @param entityManagerFactory the entity manager factory, owning the second-level cache.
+     * @param cacheManager the cache manager of the Spring caches.
+     * @param objectMapper the object mapper of the messages.
+     * @param applicationProperties the application properties, configuring the bus.
+     * @return the cache invalidation bus.
+     * @throws MetaDataAccessException if the database could not be found out.
+     */
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(
+        DataSource dataSource,
+        DataSourceProperties dataSourceProperties,
+        EntityManagerFactory entityManagerFactory,
+        CacheManager cacheManager,
+        ObjectMapper objectMapper,
+        ApplicationProperties applicationProperties
+    ) throws MetaDataAccessException {
+        ApplicationProperties.Cache.Invalidation invalidation = applicationProperties.getCache().getInvalidation();
+        String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        ApplicationProperties.ReadReplicas readReplicas = applicationProperties.getReadReplicas();
+        if (!invalidation.isEnabled() || !POSTGRESQL.equals(database)) {
+            if (readReplicas.isEnabled()) {
+                log.warn("Cache evictions are not replayed, entries reloaded from a lagging read replica may stay stale");
+            }
+            log.debug("Cache evictions are not broadcast to other nodes");
+            return new SingleNodeCacheInvalidationBus();
+        }
+        return new PostgresCacheInvalidationBus(
+            dataSourceProperties.determineUrl(),
+            dataSourceProperties.determineUsername(),
+            dataSourceProperties.determinePassword(),
+            invalidation.getChannel(),
+            invalidation.getPollIntervalMs(),
+            invalidation.getReconnectDelayMs(),
+            readReplicas.isEnabled() ? readReplicas.getMaxLagMs() + readReplicas.getLagCheckIntervalMs() : 0,
+            entityManagerFactory.unwrap(SessionFactoryImplementor.class),
+            cacheManager,
+            objectMapper
+        );
+    }
+
+    /**
+     * Estimates of the number of rows of the tables, for the estimated totals of the paginated lists: from the catalog
+     * on PostgreSQL, none on the other databases (H2), where the tables are always counted.
+     *
+     * @param dataSource the data source, used to find out the database.
+     * @param jdbcTemplate the JDBC template reading the estimates.
+     * @return the row count estimator.
+     * @throws MetaDataAccessException if the database could not be found out.
+     */
+    @Bean
+    public RowCountEstimator rowCountEstimator(DataSource dataSource, JdbcTemplate jdbcTemplate) throws MetaDataAccessException {
+        String database = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if (POSTGRESQL.equals(database)) {
+            return new PostgresRowCountEstimator(jdbcTemplate);
+        }
+        return table -> OptionalLong.empty();
+    }
+
+    /**
+     * Pass the configured block size of the id sequence to the {@link PooledLoSequenceGenerator}.
+     *
+     * @param applicationProperties the application properties, holding the block size.
+     * @return the customizer of the Hibernate properties.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer sequenceBlockSizeCustomizer(ApplicationProperties applicationProperties) {
+        int blockSize = applicationProperties.getSequence().getBlockSize();
+        return properties -> properties.put(PooledLoSequenceGenerator.BLOCK_SIZE_SETTING, blockSize);
+    }
+
     private String getValidPortForH2() {
         int port = Integer.parseInt(env.getProperty("server.port"));
         if (port < 10000) {
@@ -1,5 +1,7 @@
 package tech.lszita.gardonyi.config;
 
+import org.springframework.boot.autoconfigure.condition.AnyNestedCondition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.*;
 import org.springframework.core.env.Environment;
 import tech.jhipster.config.JHipsterConstants;
@@ -10,8 +12,25 @@ import tech.lszita.gardonyi.aop.logging.LoggingAspect;
 public class LoggingAspectConfiguration {
 
     @Bean
-    @Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
-    public LoggingAspect loggingAspect(Environment env) {
-        return new LoggingAspect(env);
+    @Conditional(LoggingAspectCondition.class)
+    public LoggingAspect loggingAspect(Environment env, ApplicationProperties applicationProperties) {
+        ApplicationProperties.Logging.Aspect aspect = applicationProperties.getLogging().getAspect();
+        return new LoggingAspect(env, aspect.getSamplingRate(), aspect.getMaxArgumentLength());
+    }
+
+    /**
+     * The logging aspect runs with the "dev" profile, or when enabled by {@code application.logging.aspect.enabled}.
+     */
+    static class LoggingAspectCondition extends AnyNestedCondition {
+
+        LoggingAspectCondition() {
+            super(ConfigurationPhase.REGISTER_BEAN);
+        }
+
+        @Profile(JHipsterConstants.SPRING_PROFILE_DEVELOPMENT)
+        static class Development {}
+
+        @ConditionalOnProperty(prefix = "application.logging.aspect", name = "enabled", havingValue = "true")
+        static class Enabled {}
     }
 }
@@ -2,10 +2,17 @@ package tech.lszita.gardonyi.config;
 
 import static tech.jhipster.config.logging.LoggingUtils.*;
 
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.AsyncAppenderBase;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,10 +25,13 @@ import tech.jhipster.config.JHipsterProperties;
 @Configuration
 public class LoggingConfiguration {
 
+    private static final String ASYNC_APPENDER_PREFIX = "ASYNC_";
+
     public LoggingConfiguration(
         @Value("${spring.application.name}") String appName,
         @Value("${server.port}") String serverPort,
         JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
         ObjectMapper mapper
     ) throws JsonProcessingException {
         LoggerContext context = (LoggerContext) LoggerFactory.getILoggerFactory();
@@ -43,5 +53,34 @@ public class LoggingConfiguration {
         if (loggingProperties.isUseJsonFormat() || logstashProperties.isEnabled()) {
             addContextListener(context, customFields, loggingProperties);
         }
+        ApplicationProperties.Logging.Async async = applicationProperties.getLogging().getAsync();
+        if (async.isEnabled()) {
+            addAsyncAppenders(context, async.getQueueSize());
+        }
+    }
+
+    /**
+     * Move the synchronous appenders of the root logger behind asynchronous appenders, that never block the calling
+     * threads. The messages are still formatted by the calling threads, but only those of the accepted events.
+     */
+    private static void addAsyncAppenders(LoggerContext context, int queueSize) {
+        Logger rootLogger = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        List<Appender<ILoggingEvent>> appenders = new ArrayList<>();
+        rootLogger.iteratorForAppenders().forEachRemaining(appenders::add);
+        for (Appender<ILoggingEvent> appender : appenders) {
+            if (appender instanceof AsyncAppenderBase) {
+                // The Logstash appender is already asynchronous
+                continue;
+            }
+            AsyncAppender asyncAppender = new AsyncAppender();
+            asyncAppender.setName(ASYNC_APPENDER_PREFIX + appender.getName());
+            asyncAppender.setContext(context);
+            asyncAppender.setQueueSize(queueSize);
+            asyncAppender.setNeverBlock(true);
+            asyncAppender.addAppender(appender);
+            asyncAppender.start();
+            rootLogger.addAppender(asyncAppender);
+            rootLogger.detachAppender(appender);
+        }
     }
 }
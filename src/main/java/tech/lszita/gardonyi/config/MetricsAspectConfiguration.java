@@ -0,0 +1,19 @@
+package tech.lszita.gardonyi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import tech.lszita.gardonyi.aop.metrics.MetricsAspect;
+
+@Configuration
+@EnableAspectJAutoProxy
+public class MetricsAspectConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "application.metrics.aspect", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public MetricsAspect metricsAspect(MeterRegistry meterRegistry) {
+        return new MetricsAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,70 @@
+package tech.lszita.gardonyi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.config.MeterFilter;
+import javax.sql.DataSource;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import tech.lszita.gardonyi.repository.QueryMetrics;
+import tech.lszita.gardonyi.repository.QueryMetricsDataSource;
+
+/**
+ * Latency of the SQL statements by normalized SQL, and log of the slow ones, enabled by
+ * {@code application.query-metrics.enabled}.
+ * <p>
+ * The metrics of the connection pool ({@code hikaricp.connections.*}) are bound by Spring Boot.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.query-metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryMetricsConfiguration {
+
+    @Bean
+    public QueryMetrics queryMetrics(MeterRegistry meterRegistry, ApplicationProperties applicationProperties) {
+        ApplicationProperties.QueryMetrics queryMetrics = applicationProperties.getQueryMetrics();
+        return new QueryMetrics(meterRegistry, queryMetrics.getSlowQueryThresholdMs(), queryMetrics.getMaxSqlTags());
+    }
+
+    /**
+     * Limit the number of distinct normalized SQL tags, the statements beyond are not timed.
+     *
+     * @param applicationProperties the application properties, holding the limit.
+     * @return the meter filter.
+     */
+    @Bean
+    public MeterFilter queryMetricsTagLimit(ApplicationProperties applicationProperties) {
+        int maxSqlTags = applicationProperties.getQueryMetrics().getMaxSqlTags();
+        return MeterFilter.maximumAllowableTags(QueryMetrics.TIMER_NAME, QueryMetrics.SQL_TAG, maxSqlTags, MeterFilter.deny());
+    }
+
+    /**
+     * Wrap the data sources in a {@link QueryMetricsDataSource}. Static, so that the data sources are post-processed.
+     *
+     * @return the bean post-processor.
+     */
+    @Bean
+    public static BeanPostProcessor queryMetricsDataSourcePostProcessor() {
+        return new QueryMetricsDataSourcePostProcessor();
+    }
+
+    /**
+     * Wraps the data sources, which record their statements once the {@link QueryMetrics} are created: the meter
+     * registry can't be created for the first statements, it depends on the entity manager factory, which waits for the
+     * database migrations.
+     */
+    static class QueryMetricsDataSourcePostProcessor implements BeanPostProcessor {
+
+        private volatile QueryMetrics queryMetrics;
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (bean instanceof QueryMetrics) {
+                queryMetrics = (QueryMetrics) bean;
+            } else if (bean instanceof DataSource && !(bean instanceof QueryMetricsDataSource)) {
+                return new QueryMetricsDataSource((DataSource) bean, () -> queryMetrics);
+            }
+            return bean;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package tech.lszita.gardonyi.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import tech.lszita.gardonyi.repository.QueryStatisticsCollector;
+import tech.lszita.gardonyi.web.filter.QueryStatisticsFilter;
+
+/**
+ * Statistics of the SQL statements of every HTTP request, enabled by {@code application.query-statistics.enabled}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.query-statistics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryStatisticsConfiguration {
+
+    @Bean
+    public HibernatePropertiesCustomizer queryStatisticsCustomizer() {
+        return new QueryStatisticsCollector()::register;
+    }
+
+    /**
+     * The filter counting the statements, first of all so that the queries of the security filters are counted too.
+     *
+     * @param applicationProperties the application properties, configuring the filter.
+     * @param meterRegistry the registry the statistics are recorded in.
+     * @return the registration of the filter.
+     */
+    @Bean
+    public FilterRegistrationBean<QueryStatisticsFilter> queryStatisticsFilter(
+        ApplicationProperties applicationProperties,
+        MeterRegistry meterRegistry
+    ) {
+        ApplicationProperties.QueryStatistics queryStatistics = applicationProperties.getQueryStatistics();
+        FilterRegistrationBean<QueryStatisticsFilter> registration = new FilterRegistrationBean<>(
+            new QueryStatisticsFilter(
+                queryStatistics.isHeaders(),
+                queryStatistics.isMetrics() ? meterRegistry : null,
+                queryStatistics.getRepeatedStatementThreshold()
+            )
+        );
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
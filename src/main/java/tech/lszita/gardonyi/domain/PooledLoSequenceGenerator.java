@@ -0,0 +1,45 @@
+package tech.lszita.gardonyi.domain;
+
+import java.util.Map;
+import java.util.Properties;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.id.enhanced.StandardOptimizerDescriptor;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Generates the ids of the entities from the {@code sequence_generator} sequence, in blocks.
+ * <p>
+ * Each call of the sequence reserves a block of ids, handed out from memory afterwards, so that inserting many
+ * entities does not call the sequence for each row. The value returned by the sequence is the first id of the block
+ * (pooled-lo), and the increment of the sequence must be the block size: it is checked by Hibernate at startup.
+ */
+public class PooledLoSequenceGenerator extends SequenceStyleGenerator {
+
+    /**
+     * Fully qualified name of the generator, the strategy of the {@link org.hibernate.annotations.GenericGenerator}s.
+     */
+    public static final String STRATEGY = "tech.lszita.gardonyi.domain.PooledLoSequenceGenerator";
+
+    /**
+     * Hibernate setting holding the number of ids reserved by each call of the sequence.
+     */
+    public static final String BLOCK_SIZE_SETTING = "gardonyi.id.sequence_block_size";
+
+    public static final int DEFAULT_BLOCK_SIZE = 50;
+
+    private static final String SEQUENCE_NAME = "sequence_generator";
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+        int blockSize = ConfigurationHelper.getInt(BLOCK_SIZE_SETTING, settings, DEFAULT_BLOCK_SIZE);
+        params.setProperty(SEQUENCE_PARAM, SEQUENCE_NAME);
+        params.setProperty(INCREMENT_PARAM, String.valueOf(blockSize));
+        params.setProperty(OPT_PARAM, StandardOptimizerDescriptor.POOLED_LO.getExternalName());
+        super.configure(type, params, serviceRegistry);
+    }
+}
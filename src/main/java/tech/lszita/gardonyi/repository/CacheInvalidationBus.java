@@ -0,0 +1,30 @@
+package tech.lszita.gardonyi.repository;
+
+/**
+ * Broadcasts the cache evictions of this node to the other nodes of the cluster, so that their node-local caches
+ * (the Hibernate second-level cache regions and the Spring caches) don't keep serving stale entries.
+ * <p>
+ * The changes of the cached entities and collections made through Hibernate are broadcast automatically. The other
+ * evictions must be published: entities changed without Hibernate, and entries of the Spring caches.
+ * <p>
+ * Evictions published in a transaction are broadcast once it has committed, and never if it is rolled back. The local
+ * caches are not evicted, that is still up to the caller.
+ */
+public interface CacheInvalidationBus {
+    /**
+     * Evict an entity from the second-level cache of the other nodes.
+     *
+     * @param entityClass the class of the entity.
+     * @param id the id of the entity.
+     */
+    void publishEntityEviction(Class<?> entityClass, Object id);
+
+    /**
+     * Evict an entry from a Spring cache of the other nodes.
+     *
+     * @param cacheName the name of the cache.
+     * @param key the key of the entry: a {@link String}, a {@link Long}, an {@link Integer} or a {@link java.util.UUID}.
+     * The whole cache is cleared on the other nodes for {@code null} and for the other types.
+     */
+    void publishCacheEviction(String cacheName, Object key);
+}
@@ -0,0 +1,150 @@
+package tech.lszita.gardonyi.repository;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Optional;
+import javax.persistence.EntityManagerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.lszita.gardonyi.repository.ContentSearchRepository.Content;
+
+/**
+ * Streams the {@code content} column of the posts and pages, without loading it in an entity.
+ * <p>
+ * The content is copied between the JDBC driver and the given reader or writer as it goes, so it is never held
+ * as a {@link String} by Hibernate or Jackson. Must be called in a transaction.
+ */
+@Repository
+public class ContentBodyRepository {
+
+    private static final String READ_SQL = "select version, content from %s where id = ?";
+
+    private static final String WRITE_SQL = "update %s set content = ?, version = version + 1, last_modified_date = ? where id = ?";
+
+    private static final String VERSION_CONDITION = " and version = ?";
+
+    private static final String VERSION_SQL = "select version from %s where id = ?";
+
+    /**
+     * Destination of a streamed content.
+     */
+    @FunctionalInterface
+    public interface ContentSink {
+        /**
+         * Open the writer of the content, once the entity has been found.
+         *
+         * @param version the version of the entity.
+         * @return the writer of the content, or {@code null} to skip it.
+         * @throws IOException if the writer could not be opened.
+         */
+        Writer open(long version) throws IOException;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    public ContentBodyRepository(
+        JdbcTemplate jdbcTemplate,
+        EntityManagerFactory entityManagerFactory,
+        CacheInvalidationBus cacheInvalidationBus
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    /**
+     * Copy the content of an entity to the given sink.
+     *
+     * @param content the content of the entity.
+     * @param id the id of the entity.
+     * @param sink the destination of the content.
+     * @return {@code false} if the entity was not found.
+     */
+    public boolean read(Content content, Long id, ContentSink sink) {
+        Boolean found = jdbcTemplate.query(
+            String.format(READ_SQL, content.getTable()),
+            rs -> {
+                if (!rs.next()) {
+                    return false;
+                }
+                try {
+                    Writer writer = sink.open(rs.getLong("version"));
+                    if (writer != null) {
+                        try (Reader reader = rs.getCharacterStream("content")) {
+                            if (reader != null) {
+                                reader.transferTo(writer);
+                            }
+                        }
+                        writer.flush();
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return true;
+            },
+            id
+        );
+        return Boolean.TRUE.equals(found);
+    }
+
+    /**
+     * Replace the content of an entity with the given reader, raising its version and last modified date.
+     * <p>
+     * The entity is evicted from the second-level cache, on all the nodes. It is evicted again from the local cache once
+     * the transaction has committed, as a concurrent reader may have reloaded the previous row in between.
+     *
+     * @param content the content of the entity.
+     * @param id the id of the entity.
+     * @param expectedVersion the version the entity must have, or {@code null} to update any version.
+     * @param body the new content.
+     * @return {@code false} if the entity was not found, or did not have the expected version.
+     */
+    public boolean write(Content content, Long id, Long expectedVersion, Reader body) {
+        String sql = String.format(WRITE_SQL, content.getTable()) + (expectedVersion != null ? VERSION_CONDITION : "");
+        int updated = jdbcTemplate.update(
+            sql,
+            ps -> {
+                ps.setCharacterStream(1, body);
+                ps.setTimestamp(2, Timestamp.from(Instant.now()));
+                ps.setLong(3, id);
+                if (expectedVersion != null) {
+                    ps.setLong(4, expectedVersion);
+                }
+            }
+        );
+        entityManagerFactory.getCache().evict(content.getEntityClass(), id);
+        cacheInvalidationBus.publishEntityEviction(content.getEntityClass(), id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        entityManagerFactory.getCache().evict(content.getEntityClass(), id);
+                    }
+                }
+            );
+        }
+        return updated > 0;
+    }
+
+    /**
+     * Get the version of an entity.
+     *
+     * @param content the content of the entity.
+     * @param id the id of the entity.
+     * @return the version of the entity, or empty if it was not found.
+     */
+    public Optional<Long> findVersion(Content content, Long id) {
+        return jdbcTemplate.queryForList(String.format(VERSION_SQL, content.getTable()), Long.class, id).stream().findFirst();
+    }
+}
@@ -0,0 +1,42 @@
+package tech.lszita.gardonyi.repository;
+
+/**
+ * A full-text index of the posts and pages, kept in sync by the application rather than by the database.
+ * <p>
+ * Implemented by the {@link ContentSearchRepository} implementations that search an index.
+ */
+public interface ContentIndex {
+    /**
+     * Add or replace the indexed title and text of an entity.
+     *
+     * @param content the content of the entity.
+     * @param id the id of the entity.
+     * @param title the title of the entity.
+     * @param text the text of the entity.
+     */
+    void index(ContentSearchRepository.Content content, Long id, String title, String text);
+
+    /**
+     * Remove an entity from the index.
+     *
+     * @param content the content of the entity.
+     * @param id the id of the entity.
+     */
+    void remove(ContentSearchRepository.Content content, Long id);
+
+    /**
+     * Start a full rebuild: the entities that are not indexed again before {@link #finishRebuild} will be removed.
+     * <p>
+     * Searches keep being served during the rebuild.
+     *
+     * @param content the content to rebuild.
+     */
+    void startRebuild(ContentSearchRepository.Content content);
+
+    /**
+     * Finish a full rebuild, removing the entities that were not indexed since {@link #startRebuild}.
+     *
+     * @param content the content to rebuild.
+     */
+    void finishRebuild(ContentSearchRepository.Content content);
+}
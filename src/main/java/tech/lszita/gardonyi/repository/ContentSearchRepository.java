@@ -0,0 +1,60 @@
+package tech.lszita.gardonyi.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import tech.lszita.gardonyi.domain.PageEntity;
+import tech.lszita.gardonyi.domain.Post;
+
+/**
+ * Full-text search over the title and content of the posts and pages.
+ * <p>
+ * The implementation depends on the database, see {@link tech.lszita.gardonyi.config.DatabaseConfiguration}.
+ */
+public interface ContentSearchRepository {
+    /**
+     * Tag marking the start of a matched term in the snippets.
+     */
+    String HIGHLIGHT_START = "<mark>";
+
+    /**
+     * Tag marking the end of a matched term in the snippets.
+     */
+    String HIGHLIGHT_END = "</mark>";
+
+    /**
+     * The searchable tables, and their entities.
+     */
+    enum Content {
+        POSTS("post", Post.class),
+        PAGES("page", PageEntity.class);
+
+        private final String table;
+
+        private final Class<?> entityClass;
+
+        Content(String table, Class<?> entityClass) {
+            this.table = table;
+            this.entityClass = entityClass;
+        }
+
+        public String getTable() {
+            return table;
+        }
+
+        public Class<?> getEntityClass() {
+            return entityClass;
+        }
+    }
+
+    /**
+     * Search the given content for all the words of the query, best matches first.
+     * <p>
+     * The sort of the pageable is ignored, results are always ordered by relevance.
+     *
+     * @param content the content to search.
+     * @param query the words to search for.
+     * @param pageable the pagination information.
+     * @return the page of matches.
+     */
+    Page<SearchHit> search(Content content, String query, Pageable pageable);
+}
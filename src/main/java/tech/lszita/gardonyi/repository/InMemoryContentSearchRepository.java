@@ -0,0 +1,136 @@
+package tech.lszita.gardonyi.repository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * Fallback full-text search for the databases without full-text support, like H2 in development and tests.
+ * <p>
+ * The rows containing all the words of the query are selected with {@code like}, then ranked and highlighted in
+ * memory. Every search reads all the matching rows, this is not meant for production volumes.
+ */
+public class InMemoryContentSearchRepository implements ContentSearchRepository {
+
+    private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    // Same weights as the default ones of PostgreSQL's ts_rank, titles are weighted "A" and contents "B"
+    private static final double TITLE_WEIGHT = 1.0;
+
+    private static final double CONTENT_WEIGHT = 0.4;
+
+    private static final int SNIPPET_LENGTH = 200;
+
+    private static final int SNIPPET_LEADING_CONTEXT = 60;
+
+    private static final String ELLIPSIS = "...";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public InMemoryContentSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Page<SearchHit> search(Content content, String query, Pageable pageable) {
+        List<String> terms = Arrays
+            .stream(WORD_SEPARATOR.split(query.toLowerCase(Locale.ROOT)))
+            .filter(term -> !term.isEmpty())
+            .distinct()
+            .collect(Collectors.toList());
+        if (terms.isEmpty()) {
+            return Page.empty(pageable);
+        }
+        Pattern termPattern = Pattern.compile(
+            terms.stream().map(Pattern::quote).collect(Collectors.joining("|")),
+            Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE
+        );
+
+        // Every term must be in the title or in the content
+        String where = String.join(
+            " and ",
+            Collections.nCopies(terms.size(), "(lower(c.title) like ? escape '\\' or lower(c.content) like ? escape '\\')")
+        );
+        List<Object> args = new ArrayList<>();
+        for (String term : terms) {
+            String like = likePattern(term);
+            args.add(like);
+            args.add(like);
+        }
+        List<SearchHit> hits = jdbcTemplate.query(
+            "select c.id, c.title, c.content from " + content.getTable() + " c where " + where,
+            (rs, rowNum) -> {
+                String title = rs.getString("title");
+                String text = rs.getString("content");
+                double score = TITLE_WEIGHT * count(termPattern, title) + CONTENT_WEIGHT * count(termPattern, text);
+                return new SearchHit(rs.getLong("id"), title, snippet(termPattern, text), score);
+            },
+            args.toArray()
+        );
+        hits.sort(Comparator.comparingDouble(SearchHit::getScore).thenComparing(SearchHit::getId).reversed());
+
+        int from = (int) Math.min(pageable.getOffset(), hits.size());
+        int to = Math.min(from + pageable.getPageSize(), hits.size());
+        return new PageImpl<>(new ArrayList<>(hits.subList(from, to)), pageable, hits.size());
+    }
+
+    private static String likePattern(String term) {
+        return "%" + term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+    }
+
+    private static int count(Pattern termPattern, String text) {
+        if (text == null) {
+            return 0;
+        }
+        int count = 0;
+        Matcher matcher = termPattern.matcher(text);
+        while (matcher.find()) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Cut the content around the first matched term, HTML-escape it and highlight the terms.
+     */
+    private static String snippet(Pattern termPattern, String text) {
+        if (text == null || text.isEmpty()) {
+            return "";
+        }
+        Matcher matcher = termPattern.matcher(text);
+        int start = matcher.find() ? Math.max(0, matcher.start() - SNIPPET_LEADING_CONTEXT) : 0;
+        int end = Math.min(text.length(), start + SNIPPET_LENGTH);
+        // Don't cut words
+        while (start > 0 && !Character.isWhitespace(text.charAt(start - 1))) {
+            start--;
+        }
+        while (end < text.length() && !Character.isWhitespace(text.charAt(end))) {
+            end++;
+        }
+        StringBuilder fragment = new StringBuilder();
+        matcher.region(start, end);
+        int position = start;
+        while (matcher.find()) {
+            fragment.append(escape(text.substring(position, matcher.start())));
+            fragment.append(HIGHLIGHT_START).append(escape(matcher.group())).append(HIGHLIGHT_END);
+            position = matcher.end();
+        }
+        fragment.append(escape(text.substring(position, end)));
+        return (start > 0 ? ELLIPSIS + " " : "") + fragment + (end < text.length() ? " " + ELLIPSIS : "");
+    }
+
+    private static String escape(String text) {
+        return HtmlUtils.htmlEscape(text, "UTF-8");
+    }
+}
@@ -0,0 +1,256 @@
+package tech.lszita.gardonyi.repository;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.LongPoint;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.IndexOptions;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ControlledRealTimeReopenThread;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.Sort;
+import org.apache.lucene.search.SortField;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.search.TopFieldDocs;
+import org.apache.lucene.search.TotalHits;
+import org.apache.lucene.search.uhighlight.DefaultPassageFormatter;
+import org.apache.lucene.search.uhighlight.UnifiedHighlighter;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.web.util.HtmlUtils;
+
+/**
+ * Full-text search served from an embedded, memory-mapped Lucene index, so that searches don't load the database.
+ * <p>
+ * The index is not maintained by the database: it is updated through {@link ContentIndex}, and changes become
+ * visible to searches within the configured staleness (near-real-time). Queries use the simple query syntax:
+ * quoted phrases, {@code |} for "or" and {@code -} for negation are supported, all the other words are required.
+ * <p>
+ * Changes are only committed to disk by {@link #finishRebuild} and {@link #close()}, the index is expected to be
+ * rebuilt at startup.
+ */
+public class LuceneContentSearchRepository implements ContentSearchRepository, ContentIndex, Closeable {
+
+    private static final String KEY_FIELD = "key";
+
+    private static final String CONTENT_FIELD = "content";
+
+    private static final String ID_FIELD = "id";
+
+    private static final String TITLE_FIELD = "title";
+
+    private static final String TEXT_FIELD = "text";
+
+    private static final String GENERATION_FIELD = "generation";
+
+    // Same weights as the "A" (title) and "B" (content) weights of the PostgreSQL search
+    private static final Map<String, Float> FIELD_WEIGHTS = Map.of(TITLE_FIELD, 1.0f, TEXT_FIELD, 0.4f);
+
+    private static final Sort RELEVANCE_THEN_ID = new Sort(SortField.FIELD_SCORE, new SortField(ID_FIELD, SortField.Type.LONG, true));
+
+    private static final int SNIPPET_PASSAGES = 2;
+
+    // Offsets are indexed, so that long texts are highlighted without being analyzed again
+    private static final FieldType TEXT_TYPE = new FieldType();
+
+    static {
+        TEXT_TYPE.setStored(true);
+        TEXT_TYPE.setTokenized(true);
+        TEXT_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        TEXT_TYPE.freeze();
+    }
+
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final Directory directory;
+
+    private final IndexWriter indexWriter;
+
+    private final SearcherManager searcherManager;
+
+    private final ControlledRealTimeReopenThread<IndexSearcher> reopenThread;
+
+    private final Map<Content, Long> generations = new ConcurrentHashMap<>();
+
+    /**
+     * Open the index, creating it if needed.
+     *
+     * @param indexDirectory the directory of the index.
+     * @param maxStalenessMs the maximum delay before an indexed change is visible to searches, in milliseconds.
+     * @throws IOException if the index could not be opened.
+     */
+    public LuceneContentSearchRepository(Path indexDirectory, long maxStalenessMs) throws IOException {
+        this.directory = new MMapDirectory(indexDirectory);
+        this.indexWriter =
+            new IndexWriter(directory, new IndexWriterConfig(analyzer).setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+        this.searcherManager = new SearcherManager(indexWriter, null);
+        this.reopenThread = new ControlledRealTimeReopenThread<>(indexWriter, searcherManager, maxStalenessMs / 1000.0, 0);
+        this.reopenThread.setName("lucene-nrt-reopen");
+        this.reopenThread.setDaemon(true);
+        this.reopenThread.start();
+        long generation = System.currentTimeMillis();
+        for (Content content : Content.values()) {
+            generations.put(content, generation);
+        }
+    }
+
+    @Override
+    public Page<SearchHit> search(Content content, String query, Pageable pageable) {
+        SimpleQueryParser parser = new SimpleQueryParser(analyzer, FIELD_WEIGHTS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        Query textQuery = parser.parse(query);
+        if (textQuery == null) {
+            return Page.empty(pageable);
+        }
+        Query contentQuery = new BooleanQuery.Builder()
+            .add(textQuery, BooleanClause.Occur.MUST)
+            .add(new TermQuery(new Term(CONTENT_FIELD, content.name())), BooleanClause.Occur.FILTER)
+            .build();
+        try {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                int topN = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+                TopFieldDocs topDocs = searcher.search(contentQuery, topN, RELEVANCE_THEN_ID, true);
+                int from = (int) Math.min(pageable.getOffset(), topDocs.scoreDocs.length);
+                ScoreDoc[] pageDocs = Arrays.copyOfRange(topDocs.scoreDocs, from, topDocs.scoreDocs.length);
+                String[] snippets = UnifiedHighlighter
+                    .builder(searcher, analyzer)
+                    .withFormatter(new HtmlPassageFormatter())
+                    .build()
+                    .highlight(TEXT_FIELD, contentQuery, new TopDocs(topDocs.totalHits, pageDocs), SNIPPET_PASSAGES);
+                List<SearchHit> hits = new ArrayList<>(pageDocs.length);
+                for (int i = 0; i < pageDocs.length; i++) {
+                    Document document = searcher.doc(pageDocs[i].doc);
+                    hits.add(
+                        new SearchHit(
+                            document.getField(ID_FIELD).numericValue().longValue(),
+                            document.get(TITLE_FIELD),
+                            snippets[i] != null ? snippets[i] : "",
+                            pageDocs[i].score
+                        )
+                    );
+                }
+                long total = topDocs.totalHits.relation == TotalHits.Relation.EQUAL_TO
+                    ? topDocs.totalHits.value
+                    : searcher.count(contentQuery);
+                return new PageImpl<>(hits, pageable, total);
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void index(Content content, Long id, String title, String text) {
+        Document document = new Document();
+        document.add(new StringField(KEY_FIELD, key(content, id), Field.Store.NO));
+        document.add(new StringField(CONTENT_FIELD, content.name(), Field.Store.NO));
+        document.add(new StoredField(ID_FIELD, id));
+        document.add(new NumericDocValuesField(ID_FIELD, id));
+        document.add(new Field(TITLE_FIELD, title != null ? title : "", TEXT_TYPE));
+        document.add(new Field(TEXT_FIELD, text != null ? text : "", TEXT_TYPE));
+        document.add(new LongPoint(GENERATION_FIELD, generations.get(content)));
+        try {
+            indexWriter.updateDocument(new Term(KEY_FIELD, key(content, id)), document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void remove(Content content, Long id) {
+        try {
+            indexWriter.deleteDocuments(new Term(KEY_FIELD, key(content, id)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void startRebuild(Content content) {
+        generations.merge(content, System.currentTimeMillis(), (previous, now) -> Math.max(previous + 1, now));
+    }
+
+    @Override
+    public void finishRebuild(Content content) {
+        Query stale = new BooleanQuery.Builder()
+            .add(new TermQuery(new Term(CONTENT_FIELD, content.name())), BooleanClause.Occur.FILTER)
+            .add(LongPoint.newRangeQuery(GENERATION_FIELD, Long.MIN_VALUE, generations.get(content) - 1), BooleanClause.Occur.FILTER)
+            .build();
+        try {
+            indexWriter.deleteDocuments(stale);
+            indexWriter.commit();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        refresh();
+    }
+
+    /**
+     * Make all the indexed changes visible to searches now, instead of within the maximum staleness.
+     */
+    public void refresh() {
+        try {
+            searcherManager.maybeRefreshBlocking();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reopenThread.close();
+        searcherManager.close();
+        indexWriter.close();
+        directory.close();
+        analyzer.close();
+    }
+
+    private static String key(Content content, Long id) {
+        return content.name() + ":" + id;
+    }
+
+    /**
+     * Formats the passages as HTML: the content is escaped, but unlike the escaping of the
+     * {@link DefaultPassageFormatter} only the HTML special characters are.
+     */
+    private static final class HtmlPassageFormatter extends DefaultPassageFormatter {
+
+        private HtmlPassageFormatter() {
+            super(HIGHLIGHT_START, HIGHLIGHT_END, " ... ", false);
+        }
+
+        @Override
+        protected void append(StringBuilder dest, String content, int start, int end) {
+            dest.append(HtmlUtils.htmlEscape(content.substring(start, end), "UTF-8"));
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package tech.lszita.gardonyi.repository;
+
+import java.time.Instant;
+
+/**
+ * The columns of the page table shown in lists, leaving out the content.
+ */
+public interface PageListing {
+    Long getId();
+
+    String getTitle();
+
+    Long getVersion();
+
+    Instant getLastModifiedDate();
+}
@@ -1,6 +1,17 @@
 package tech.lszita.gardonyi.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tech.lszita.gardonyi.domain.PageEntity;
 
@@ -9,4 +20,88 @@ import tech.lszita.gardonyi.domain.PageEntity;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface PageRepository extends JpaRepository<PageEntity, Long> {}
+public interface PageRepository extends JpaRepository<PageEntity, Long> {
+    /**
+     * Selection of the {@link PageListing} columns.
+     */
+    String LISTING_SELECT =
+        "select page.id as id, page.title as title," +
+        " page.version as version, page.lastModifiedDate as lastModifiedDate from PageEntity page";
+
+    /**
+     * Number of rows fetched at once by {@link #streamAll()}.
+     */
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Keyset (seek) query: returns the pages following the given id, ordered by id.
+     * <p>
+     * The offset of {@code pageable} is expected to be 0, and no count query is issued.
+     *
+     * @param id the id of the last page already seen.
+     * @param pageable the slice size.
+     * @return the next slice of pages.
+     */
+    Slice<PageEntity> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Get a page of pages, without their content, and without counting the pages: one more page is read to tell
+     * whether there is a next page.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of pages.
+     */
+    @Query(LISTING_SELECT)
+    Slice<PageListing> findListings(Pageable pageable);
+
+    /**
+     * Keyset (seek) query: returns the pages following the given id, ordered by id, without their content.
+     * <p>
+     * The offset of {@code pageable} is expected to be 0, and no count query is issued.
+     *
+     * @param id the id of the last page already seen.
+     * @param pageable the slice size.
+     * @return the next slice of pages.
+     */
+    @Query(LISTING_SELECT + " where page.id > :id order by page.id asc")
+    Slice<PageListing> findListingsByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Get a page of page summaries, without loading the pages.
+     *
+     * @param pageable the pagination information.
+     * @return the page of summaries.
+     */
+    @Query(
+        value = "select page.id as id, page.title as title, page.excerpt as excerpt from PageEntity page",
+        countQuery = "select count(page.id) from PageEntity page"
+    )
+    Page<PageSummary> findAllSummaries(Pageable pageable);
+
+    /**
+     * Stream all the pages ordered by id, from a single query so that they are a consistent snapshot of the table.
+     * <p>
+     * The rows are fetched {@link #STREAM_FETCH_SIZE} at a time, the pages are loaded read-only and bypass the
+     * second-level cache. Must be called in a transaction, and the stream closed.
+     *
+     * @return the stream of pages.
+     */
+    @QueryHints(
+        {
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"),
+        }
+    )
+    @Query("select page from PageEntity page order by page.id")
+    Stream<PageEntity> streamAll();
+
+    /**
+     * Get the ids of the most recently modified pages, warmed into the second-level cache at startup.
+     *
+     * @param pageable the number of ids.
+     * @return the ids, most recently modified first.
+     */
+    @Query("select page.id from PageEntity page order by page.lastModifiedDate desc nulls last, page.id desc")
+    List<Long> findMostRecentlyModifiedIds(Pageable pageable);
+}
@@ -0,0 +1,12 @@
+package tech.lszita.gardonyi.repository;
+
+/**
+ * The summary of a page, for the compact list views: its title and the excerpt of its content.
+ */
+public interface PageSummary {
+    Long getId();
+
+    String getTitle();
+
+    String getExcerpt();
+}
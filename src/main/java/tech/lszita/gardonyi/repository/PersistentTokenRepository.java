@@ -3,6 +3,10 @@ package tech.lszita.gardonyi.repository;
 import java.time.LocalDate;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import tech.lszita.gardonyi.domain.PersistentToken;
 import tech.lszita.gardonyi.domain.User;
 
@@ -13,4 +17,18 @@ public interface PersistentTokenRepository extends JpaRepository<PersistentToken
     List<PersistentToken> findByUser(User user);
 
     List<PersistentToken> findByTokenDateBefore(LocalDate localDate);
+
+    /**
+     * Replace the value of a token, without writing its other columns.
+     * <p>
+     * The update bypasses the persistence context: the token is evicted from the local second-level cache only.
+     *
+     * @param series the series of the token.
+     * @param tokenValue the new value of the token.
+     * @return the number of tokens updated, 0 if the token was removed.
+     */
+    @Modifying
+    @Transactional
+    @Query("update PersistentToken token set token.tokenValue = :tokenValue where token.series = :series")
+    int updateTokenValue(@Param("series") String series, @Param("tokenValue") String tokenValue);
 }
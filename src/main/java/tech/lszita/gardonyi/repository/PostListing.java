@@ -0,0 +1,18 @@
+package tech.lszita.gardonyi.repository;
+
+import java.time.Instant;
+
+/**
+ * The columns of the post table shown in lists, leaving out the content.
+ */
+public interface PostListing {
+    Long getId();
+
+    String getTitle();
+
+    String getAuthor();
+
+    Long getVersion();
+
+    Instant getLastModifiedDate();
+}
@@ -1,6 +1,17 @@
 package tech.lszita.gardonyi.repository;
 
+import static org.hibernate.jpa.QueryHints.HINT_CACHE_MODE;
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+import java.util.List;
+import java.util.stream.Stream;
+import javax.persistence.QueryHint;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.*;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import tech.lszita.gardonyi.domain.Post;
 
@@ -9,4 +20,88 @@ import tech.lszita.gardonyi.domain.Post;
  */
 @SuppressWarnings("unused")
 @Repository
-public interface PostRepository extends JpaRepository<Post, Long> {}
+public interface PostRepository extends JpaRepository<Post, Long> {
+    /**
+     * Selection of the {@link PostListing} columns.
+     */
+    String LISTING_SELECT =
+        "select post.id as id, post.title as title, post.author as author," +
+        " post.version as version, post.lastModifiedDate as lastModifiedDate from Post post";
+
+    /**
+     * Number of rows fetched at once by {@link #streamAll()}.
+     */
+    int STREAM_FETCH_SIZE = 500;
+
+    /**
+     * Keyset (seek) query: returns the posts following the given id, ordered by id.
+     * <p>
+     * The offset of {@code pageable} is expected to be 0, and no count query is issued.
+     *
+     * @param id the id of the last post already seen by the client.
+     * @param pageable the slice size.
+     * @return the next slice of posts.
+     */
+    Slice<Post> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    /**
+     * Get a page of posts, without their content, and without counting the posts: one more post is read to tell
+     * whether there is a next page.
+     *
+     * @param pageable the pagination information.
+     * @return the slice of posts.
+     */
+    @Query(LISTING_SELECT)
+    Slice<PostListing> findListings(Pageable pageable);
+
+    /**
+     * Keyset (seek) query: returns the posts following the given id, ordered by id, without their content.
+     * <p>
+     * The offset of {@code pageable} is expected to be 0, and no count query is issued.
+     *
+     * @param id the id of the last post already seen.
+     * @param pageable the slice size.
+     * @return the next slice of posts.
+     */
+    @Query(LISTING_SELECT + " where post.id > :id order by post.id asc")
+    Slice<PostListing> findListingsByIdGreaterThan(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Get a page of post summaries, without loading the posts.
+     *
+     * @param pageable the pagination information.
+     * @return the page of summaries.
+     */
+    @Query(
+        value = "select post.id as id, post.title as title, post.author as author, post.excerpt as excerpt from Post post",
+        countQuery = "select count(post.id) from Post post"
+    )
+    Page<PostSummary> findAllSummaries(Pageable pageable);
+
+    /**
+     * Stream all the posts ordered by id, from a single query so that they are a consistent snapshot of the table.
+     * <p>
+     * The rows are fetched {@link #STREAM_FETCH_SIZE} at a time, the posts are loaded read-only and bypass the
+     * second-level cache. Must be called in a transaction, and the stream closed.
+     *
+     * @return the stream of posts.
+     */
+    @QueryHints(
+        {
+            @QueryHint(name = HINT_FETCH_SIZE, value = "" + STREAM_FETCH_SIZE),
+            @QueryHint(name = HINT_READONLY, value = "true"),
+            @QueryHint(name = HINT_CACHE_MODE, value = "IGNORE"),
+        }
+    )
+    @Query("select post from Post post order by post.id")
+    Stream<Post> streamAll();
+
+    /**
+     * Get the ids of the most recently modified posts, warmed into the second-level cache at startup.
+     *
+     * @param pageable the number of ids.
+     * @return the ids, most recently modified first.
+     */
+    @Query("select post.id from Post post order by post.lastModifiedDate desc nulls last, post.id desc")
+    List<Long> findMostRecentlyModifiedIds(Pageable pageable);
+}
@@ -0,0 +1,14 @@
+package tech.lszita.gardonyi.repository;
+
+/**
+ * The summary of a post, for the compact list views: its title and the excerpt of its content.
+ */
+public interface PostSummary {
+    Long getId();
+
+    String getTitle();
+
+    String getAuthor();
+
+    String getExcerpt();
+}
@@ -0,0 +1,532 @@
+package tech.lszita.gardonyi.repository;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.Closeable;
+import java.io.Serializable;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.regex.Pattern;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.AbstractCollectionEvent;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCollectionRecreateEvent;
+import org.hibernate.event.spi.PostCollectionRecreateEventListener;
+import org.hibernate.event.spi.PostCollectionRemoveEvent;
+import org.hibernate.event.spi.PostCollectionRemoveEventListener;
+import org.hibernate.event.spi.PostCollectionUpdateEvent;
+import org.hibernate.event.spi.PostCollectionUpdateEventListener;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.collection.CollectionPersister;
+import org.hibernate.persister.entity.EntityPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Cache invalidation bus over the PostgreSQL {@code LISTEN}/{@code NOTIFY} notifications, so that no other service
+ * is needed to keep the nodes in sync.
+ * <p>
+ * A background thread holds a dedicated connection, outside of the connection pool: it listens to the channel, and
+ * sends the evictions of this node with {@code pg_notify}, in JSON messages of up to 8000 bytes. Evictions are sent
+ * after the commit, in the order of the commits, and are retried after a reconnection. If the connection is lost,
+ * all the caches are cleared once it is back, as notifications may have been missed in between.
+ * <p>
+ * When the reads go to read replicas, every eviction, this node's own included, is applied again after the replay
+ * delay: an entry reloaded from a replica that had not caught up with the change yet would otherwise stay stale.
+ * <p>
+ * The PostgreSQL driver is only on the classpath of the {@code prod} profile, its notification API is called by
+ * reflection.
+ */
+public class PostgresCacheInvalidationBus implements CacheInvalidationBus, Closeable {
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+
+    // pg_notify payloads must be shorter than 8000 bytes, with room for the envelope of the message
+    private static final int MAX_PAYLOAD_BYTES = 7900;
+
+    // Beyond this, the evictions are replaced by clearing all the caches of the other nodes
+    private static final int MAX_PENDING_EVICTIONS = 10_000;
+
+    private static final Set<Class<?>> KEY_TYPES = Set.of(String.class, Long.class, Integer.class, UUID.class);
+
+    private enum Type {
+        ENTITY,
+        COLLECTION,
+        CACHE,
+        ALL,
+    }
+
+    private final Logger log = LoggerFactory.getLogger(PostgresCacheInvalidationBus.class);
+
+    private final String url;
+
+    private final String username;
+
+    private final String password;
+
+    private final String channel;
+
+    private final long pollIntervalMs;
+
+    private final long reconnectDelayMs;
+
+    private final long replayDelayMs;
+
+    private final SessionFactoryImplementor sessionFactory;
+
+    private final CacheManager cacheManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final String node = UUID.randomUUID().toString();
+
+    private final BlockingQueue<ObjectNode> pending = new LinkedBlockingQueue<>(MAX_PENDING_EVICTIONS);
+
+    // Only used by the bus thread
+    private final List<String> unsent = new ArrayList<>();
+
+    // Only used by the bus thread, in the order they are due
+    private final Queue<Replay> replays = new ArrayDeque<>();
+
+    private final Class<?> pgConnectionClass;
+
+    private final Method getNotifications;
+
+    private final Method getParameter;
+
+    private final Thread thread;
+
+    private volatile boolean overflowed;
+
+    private volatile boolean listening;
+
+    private volatile boolean running = true;
+
+    /**
+     * Start listening to the channel, and broadcasting the changes of the cached entities and collections.
+     *
+     * @param url the JDBC URL of the database.
+     * @param username the user of the database.
+     * @param password the password of the user.
+     * @param channel the notification channel, shared by all the nodes.
+     * @param pollIntervalMs the maximum delay before the evictions of this node are sent, in milliseconds.
+     * @param reconnectDelayMs the delay between two connection attempts, in milliseconds.
+     * @param replayDelayMs the delay after which the evictions are applied again, in milliseconds, 0 for never.
+     * @param sessionFactory the Hibernate session factory, owning the second-level cache.
+     * @param cacheManager the cache manager of the Spring caches.
+     * @param objectMapper the object mapper of the messages.
+     */
+    public PostgresCacheInvalidationBus(
+        String url,
+        String username,
+        String password,
+        String channel,
+        long pollIntervalMs,
+        long reconnectDelayMs,
+        long replayDelayMs,
+        SessionFactoryImplementor sessionFactory,
+        CacheManager cacheManager,
+        ObjectMapper objectMapper
+    ) {
+        if (!CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalArgumentException("Invalid notification channel: " + channel);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+        this.pollIntervalMs = Math.max(pollIntervalMs, 1);
+        this.reconnectDelayMs = reconnectDelayMs;
+        this.replayDelayMs = replayDelayMs;
+        this.sessionFactory = sessionFactory;
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        try {
+            this.pgConnectionClass = Class.forName("org.postgresql.PGConnection");
+            this.getNotifications = pgConnectionClass.getMethod("getNotifications", int.class);
+            this.getParameter = Class.forName("org.postgresql.PGNotification").getMethod("getParameter");
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("The PostgreSQL driver is not available", e);
+        }
+
+        HibernateListener listener = new HibernateListener();
+        EventListenerRegistry listenerRegistry = sessionFactory.getServiceRegistry().getService(EventListenerRegistry.class);
+        listenerRegistry.appendListeners(EventType.POST_COMMIT_UPDATE, listener);
+        listenerRegistry.appendListeners(EventType.POST_COMMIT_DELETE, listener);
+        listenerRegistry.appendListeners(EventType.POST_COLLECTION_UPDATE, listener);
+        listenerRegistry.appendListeners(EventType.POST_COLLECTION_REMOVE, listener);
+        listenerRegistry.appendListeners(EventType.POST_COLLECTION_RECREATE, listener);
+
+        this.thread = new Thread(this::run, "cache-invalidation-bus");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    @Override
+    public void publishEntityEviction(Class<?> entityClass, Object id) {
+        afterCommit(eviction(Type.ENTITY, entityClass.getName(), id));
+    }
+
+    @Override
+    public void publishCacheEviction(String cacheName, Object key) {
+        afterCommit(eviction(Type.CACHE, cacheName, key));
+    }
+
+    /**
+     * Whether the notifications of the other nodes are being received.
+     *
+     * @return {@code false} until connected, and while reconnecting.
+     */
+    boolean isListening() {
+        return listening;
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        thread.interrupt();
+        try {
+            thread.join(pollIntervalMs + 5000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        boolean reconnected = false;
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("listen " + channel);
+                }
+                Object pgConnection = connection.unwrap(pgConnectionClass);
+                if (reconnected) {
+                    log.info("Cache invalidation bus reconnected, clearing all the caches");
+                    evictAll();
+                }
+                listening = true;
+                log.debug("Listening to the cache invalidations of the other nodes on channel {}", channel);
+                while (running) {
+                    send(connection);
+                    receive(pgConnection);
+                    replay();
+                }
+            } catch (SQLException | ReflectiveOperationException e) {
+                Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+                if (running) {
+                    log.warn("Cache invalidation bus disconnected, reconnecting in {} ms: {}", reconnectDelayMs, cause.getMessage());
+                }
+            }
+            listening = false;
+            reconnected = true;
+            try {
+                Thread.sleep(reconnectDelayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(Connection connection) throws SQLException {
+        if (overflowed) {
+            overflowed = false;
+            pending.clear();
+            unsent.clear();
+            log.warn("Too many pending cache evictions, clearing all the caches of the other nodes");
+            unsent.addAll(messages(List.of(eviction(Type.ALL, "", null))));
+        }
+        List<ObjectNode> evictions = new ArrayList<>();
+        pending.drainTo(evictions);
+        unsent.addAll(messages(evictions));
+        if (unsent.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("select pg_notify(?, ?)")) {
+            for (Iterator<String> messages = unsent.iterator(); messages.hasNext();) {
+                statement.setString(1, channel);
+                statement.setString(2, messages.next());
+                statement.execute();
+                messages.remove();
+            }
+        }
+    }
+
+    private void receive(Object pgConnection) throws ReflectiveOperationException {
+        Object[] notifications = (Object[]) getNotifications.invoke(pgConnection, (int) pollIntervalMs);
+        if (notifications != null) {
+            for (Object notification : notifications) {
+                onMessage((String) getParameter.invoke(notification));
+            }
+        }
+    }
+
+    private List<String> messages(List<ObjectNode> evictions) {
+        List<String> messages = new ArrayList<>();
+        ArrayNode batch = objectMapper.createArrayNode();
+        int batchBytes = 0;
+        for (ObjectNode eviction : evictions) {
+            int bytes = eviction.toString().getBytes(StandardCharsets.UTF_8).length + 1;
+            if (bytes > MAX_PAYLOAD_BYTES) {
+                // Key too long to be sent, the whole cache is cleared instead
+                eviction.remove("key");
+                eviction.remove("keyType");
+                bytes = eviction.toString().getBytes(StandardCharsets.UTF_8).length + 1;
+            }
+            if (batchBytes + bytes > MAX_PAYLOAD_BYTES) {
+                messages.add(message(batch));
+                batch = objectMapper.createArrayNode();
+                batchBytes = 0;
+            }
+            batch.add(eviction);
+            batchBytes += bytes;
+        }
+        if (!batch.isEmpty()) {
+            messages.add(message(batch));
+        }
+        return messages;
+    }
+
+    private String message(ArrayNode evictions) {
+        ObjectNode message = objectMapper.createObjectNode().put("node", node);
+        message.set("evictions", evictions);
+        return message.toString();
+    }
+
+    private void onMessage(String payload) {
+        try {
+            JsonNode message = objectMapper.readTree(payload);
+            if (replayDelayMs > 0) {
+                replays.add(new Replay(System.currentTimeMillis() + replayDelayMs, message.path("evictions")));
+            }
+            if (node.equals(message.path("node").asText())) {
+                return;
+            }
+            for (JsonNode eviction : message.path("evictions")) {
+                evict(eviction);
+            }
+        } catch (JsonProcessingException | RuntimeException e) {
+            log.warn("Ignoring the invalid cache invalidation {}: {}", payload, e.getMessage());
+        }
+    }
+
+    private void replay() {
+        long now = System.currentTimeMillis();
+        while (!replays.isEmpty() && replays.peek().dueMillis <= now) {
+            for (JsonNode eviction : replays.remove().evictions) {
+                try {
+                    evict(eviction);
+                } catch (RuntimeException e) {
+                    log.warn("Ignoring the invalid cache invalidation {}: {}", eviction, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void evict(JsonNode eviction) {
+        String name = eviction.path("name").asText();
+        Object key = key(eviction);
+        switch (Type.valueOf(eviction.path("type").asText())) {
+            case ENTITY:
+                if (key == null) {
+                    sessionFactory.getCache().evictEntityData(name);
+                } else {
+                    sessionFactory.getCache().evictEntityData(name, (Serializable) key);
+                }
+                break;
+            case COLLECTION:
+                if (key == null) {
+                    sessionFactory.getCache().evictCollectionData(name);
+                } else {
+                    sessionFactory.getCache().evictCollectionData(name, (Serializable) key);
+                }
+                break;
+            case CACHE:
+                Cache cache = cacheManager.getCache(name);
+                if (cache != null && key == null) {
+                    cache.clear();
+                } else if (cache != null) {
+                    cache.evict(key);
+                }
+                break;
+            default:
+                evictAll();
+        }
+    }
+
+    private void evictAll() {
+        sessionFactory.getCache().evictAllRegions();
+        for (String cacheName : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+
+    private ObjectNode eviction(Type type, String name, Object key) {
+        ObjectNode eviction = objectMapper.createObjectNode().put("type", type.name()).put("name", name);
+        if (key != null && KEY_TYPES.contains(key.getClass())) {
+            eviction.put("keyType", key.getClass().getSimpleName()).put("key", key.toString());
+        }
+        return eviction;
+    }
+
+    private static Object key(JsonNode eviction) {
+        String key = eviction.path("key").asText(null);
+        if (key == null) {
+            return null;
+        }
+        switch (eviction.path("keyType").asText()) {
+            case "String":
+                return key;
+            case "Long":
+                return Long.valueOf(key);
+            case "Integer":
+                return Integer.valueOf(key);
+            case "UUID":
+                return UUID.fromString(key);
+            default:
+                return null;
+        }
+    }
+
+    private void afterCommit(ObjectNode eviction) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        enqueue(eviction);
+                    }
+                }
+            );
+        } else {
+            enqueue(eviction);
+        }
+    }
+
+    private void enqueue(ObjectNode eviction) {
+        if (!pending.offer(eviction)) {
+            overflowed = true;
+        }
+    }
+
+    /**
+     * Evictions to apply again once due.
+     */
+    private static final class Replay {
+
+        private final long dueMillis;
+
+        private final JsonNode evictions;
+
+        private Replay(long dueMillis, JsonNode evictions) {
+            this.dueMillis = dueMillis;
+            this.evictions = evictions;
+        }
+    }
+
+    /**
+     * Publishes the changes of the cached entities and collections made through Hibernate, once committed.
+     */
+    private class HibernateListener
+        implements
+            PostCommitUpdateEventListener,
+            PostCommitDeleteEventListener,
+            PostCollectionUpdateEventListener,
+            PostCollectionRemoveEventListener,
+            PostCollectionRecreateEventListener {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public void onPostUpdate(PostUpdateEvent event) {
+            enqueue(eviction(Type.ENTITY, event.getPersister().getEntityName(), event.getId()));
+        }
+
+        @Override
+        public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+            // Nothing changed
+        }
+
+        @Override
+        public void onPostDelete(PostDeleteEvent event) {
+            enqueue(eviction(Type.ENTITY, event.getPersister().getEntityName(), event.getId()));
+        }
+
+        @Override
+        public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+            // Nothing changed
+        }
+
+        @Override
+        public boolean requiresPostCommitHandling(EntityPersister persister) {
+            return persister.canWriteToCache();
+        }
+
+        @Override
+        @SuppressWarnings("deprecation")
+        public boolean requiresPostCommitHanding(EntityPersister persister) {
+            return requiresPostCommitHandling(persister);
+        }
+
+        @Override
+        public void onPostUpdateCollection(PostCollectionUpdateEvent event) {
+            onCollectionChange(event);
+        }
+
+        @Override
+        public void onPostRemoveCollection(PostCollectionRemoveEvent event) {
+            onCollectionChange(event);
+        }
+
+        @Override
+        public void onPostRecreateCollection(PostCollectionRecreateEvent event) {
+            onCollectionChange(event);
+        }
+
+        // The collection events are not post-commit ones, the eviction is sent once the transaction has committed
+        private void onCollectionChange(AbstractCollectionEvent event) {
+            CollectionPersister persister = sessionFactory.getMetamodel().collectionPersister(event.getCollection().getRole());
+            if (persister.hasCache()) {
+                ObjectNode eviction = eviction(Type.COLLECTION, persister.getRole(), event.getAffectedOwnerIdOrNull());
+                event
+                    .getSession()
+                    .getActionQueue()
+                    .registerProcess((success, session) -> {
+                        if (success) {
+                            enqueue(eviction);
+                        }
+                    });
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package tech.lszita.gardonyi.repository;
+
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * PostgreSQL full-text search, using the generated {@code search_vector} column and its GIN index.
+ * <p>
+ * Queries use the web search syntax: quoted phrases, {@code or} and {@code -} for negation are supported.
+ * Titles are weighted over contents by the {@code search_vector} column.
+ */
+public class PostgresContentSearchRepository implements ContentSearchRepository {
+
+    private static final String TEXT_SEARCH_CONFIG = "simple";
+
+    private static final String HEADLINE_OPTIONS =
+        "StartSel=" +
+        HIGHLIGHT_START +
+        ", StopSel=" +
+        HIGHLIGHT_END +
+        ", MinWords=10, MaxWords=30, MaxFragments=2, FragmentDelimiter=\" ... \"";
+
+    // The content is HTML-escaped before the matched terms are highlighted, ts_headline keeps the entities whole
+    private static final String ESCAPED_CONTENT =
+        "replace(replace(replace(replace(replace(coalesce(r.content, ''), '&', '&amp;'), '<', '&lt;'), '>', '&gt;')," +
+        " '\"', '&quot;'), '''', '&#39;')";
+
+    // The headlines are only computed for the rows of the requested page
+    private static final String SEARCH_SQL =
+        "select r.id, r.title, ts_headline('%1$s', " +
+        ESCAPED_CONTENT +
+        ", r.query, ?) as snippet, r.score from (" +
+        " select c.id, c.title, c.content, q.query, ts_rank(c.search_vector, q.query) as score" +
+        " from %2$s c, websearch_to_tsquery('%1$s', ?) q(query)" +
+        " where c.search_vector @@ q.query" +
+        " order by score desc, c.id desc" +
+        " limit ? offset ?" +
+        ") r order by r.score desc, r.id desc";
+
+    private static final String COUNT_SQL = "select count(*) from %2$s c where c.search_vector @@ websearch_to_tsquery('%1$s', ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostgresContentSearchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Page<SearchHit> search(Content content, String query, Pageable pageable) {
+        List<SearchHit> hits = jdbcTemplate.query(
+            String.format(SEARCH_SQL, TEXT_SEARCH_CONFIG, content.getTable()),
+            (rs, rowNum) -> new SearchHit(rs.getLong("id"), rs.getString("title"), rs.getString("snippet"), rs.getDouble("score")),
+            HEADLINE_OPTIONS,
+            query,
+            pageable.getPageSize(),
+            pageable.getOffset()
+        );
+        return PageableExecutionUtils.getPage(
+            hits,
+            pageable,
+            () -> jdbcTemplate.queryForObject(String.format(COUNT_SQL, TEXT_SEARCH_CONFIG, content.getTable()), Long.class, query)
+        );
+    }
+}
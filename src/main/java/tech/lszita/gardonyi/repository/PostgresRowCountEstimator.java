@@ -0,0 +1,26 @@
+package tech.lszita.gardonyi.repository;
+
+import java.util.OptionalLong;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Estimates the number of rows of a table from the {@code reltuples} of the PostgreSQL catalog, as last updated by
+ * {@code VACUUM}, {@code ANALYZE} or autovacuum.
+ */
+public class PostgresRowCountEstimator implements RowCountEstimator {
+
+    private static final String ESTIMATE_SQL = "select reltuples::bigint from pg_class where oid = to_regclass(?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PostgresRowCountEstimator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public OptionalLong estimateRowCount(String table) {
+        Long estimate = jdbcTemplate.query(ESTIMATE_SQL, rs -> rs.next() ? rs.getLong(1) : null, table);
+        // -1 until the table is first vacuumed or analyzed
+        return estimate != null && estimate >= 0 ? OptionalLong.of(estimate) : OptionalLong.empty();
+    }
+}
@@ -0,0 +1,136 @@
+package tech.lszita.gardonyi.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Latency of the SQL statements run through the {@link QueryMetricsDataSource}, in the {@code jdbc.query} timer tagged
+ * with the normalized {@code sql}: literals and {@code in} lists replaced by a single {@code ?}, select lists by
+ * {@code ...}, whitespace collapsed.
+ * <p>
+ * The timers are resolved once per SQL string, up to a maximum number of strings, the others are normalized on every
+ * execution. The statements slower than the threshold are logged, with the application methods they are run from.
+ */
+public class QueryMetrics {
+
+    public static final String TIMER_NAME = "jdbc.query";
+
+    public static final String SQL_TAG = "sql";
+
+    private static final String APPLICATION_PACKAGE = "tech.lszita.gardonyi.";
+
+    private static final int MAX_CALLERS = 4;
+
+    private static final int MAX_SQL_LENGTH = 300;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+
+    private static final Pattern IN_LIST = Pattern.compile("(?i)\\bin \\(\\?(?:, ?\\?)*\\)");
+
+    private static final Pattern SELECT_LIST = Pattern.compile("(?i)\\bselect (?:distinct )?.+? from ");
+
+    private final Logger log = LoggerFactory.getLogger(QueryMetrics.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final long slowQueryThresholdNanos;
+
+    private final int maxCachedStatements;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    /**
+     * @param meterRegistry the registry of the timers.
+     * @param slowQueryThresholdMs the duration from which a statement is logged, 0 to never log.
+     * @param maxCachedStatements the maximum number of SQL strings whose timer is kept.
+     */
+    public QueryMetrics(MeterRegistry meterRegistry, long slowQueryThresholdMs, int maxCachedStatements) {
+        this.meterRegistry = meterRegistry;
+        this.slowQueryThresholdNanos = slowQueryThresholdMs > 0 ? TimeUnit.MILLISECONDS.toNanos(slowQueryThresholdMs) : Long.MAX_VALUE;
+        this.maxCachedStatements = maxCachedStatements;
+    }
+
+    /**
+     * Record the execution of a statement.
+     *
+     * @param sql the SQL of the statement, or {@code null} if unknown.
+     * @param nanos the duration of the execution, in nanoseconds.
+     */
+    public void record(String sql, long nanos) {
+        String statement = Objects.requireNonNullElse(sql, "");
+        timer(statement).record(nanos, TimeUnit.NANOSECONDS);
+        if (nanos >= slowQueryThresholdNanos) {
+            log.warn("Slow query ({} ms) from {}: {}", TimeUnit.NANOSECONDS.toMillis(nanos), callers(), statement);
+        }
+    }
+
+    private Timer timer(String sql) {
+        Timer timer = timers.get(sql);
+        if (timer != null) {
+            return timer;
+        }
+        timer =
+            Timer
+                .builder(TIMER_NAME)
+                .description("Execution time of the SQL statements")
+                .tag(SQL_TAG, normalize(sql))
+                .register(meterRegistry);
+        if (timers.size() < maxCachedStatements) {
+            timers.put(sql, timer);
+        }
+        return timer;
+    }
+
+    /**
+     * Normalize a SQL statement, so that the executions of the same query with other literals share their timer.
+     *
+     * @param sql the SQL of the statement.
+     * @return the normalized SQL.
+     */
+    public static String normalize(String sql) {
+        String normalized = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        normalized = STRING_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = NUMERIC_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("in (?)");
+        normalized = SELECT_LIST.matcher(normalized).replaceAll("select ... from ");
+        return normalized.length() <= MAX_SQL_LENGTH ? normalized : normalized.substring(0, MAX_SQL_LENGTH);
+    }
+
+    /**
+     * The innermost application methods on the stack, the query being run from the first.
+     */
+    private static String callers() {
+        String callers = StackWalker
+            .getInstance()
+            .walk(frames ->
+                frames
+                    .filter(frame -> isApplicationMethod(frame.getClassName(), frame.getMethodName()))
+                    .map(frame -> frame.getClassName().substring(frame.getClassName().lastIndexOf('.') + 1) + "." + frame.getMethodName())
+                    .distinct()
+                    .limit(MAX_CALLERS)
+                    .collect(Collectors.joining(" < "))
+            );
+        return callers.isEmpty() ? "unknown" : callers;
+    }
+
+    private static boolean isApplicationMethod(String className, String methodName) {
+        return (
+            className.startsWith(APPLICATION_PACKAGE) &&
+            !className.startsWith(QueryMetrics.class.getName()) &&
+            !className.contains("$$") &&
+            !methodName.startsWith("lambda$")
+        );
+    }
+}
@@ -0,0 +1,138 @@
+package tech.lszita.gardonyi.repository;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * Data source recording the latency of every statement in the {@link QueryMetrics}, by proxying the connections of the
+ * target data source and their statements.
+ * <p>
+ * {@link #unwrap(Class)} reaches the target data source, so that the connection pool metrics are still bound.
+ */
+public class QueryMetricsDataSource extends DelegatingDataSource {
+
+    private final Supplier<QueryMetrics> queryMetrics;
+
+    /**
+     * @param targetDataSource the data source whose statements are timed.
+     * @param queryMetrics the metrics the statements are recorded in, {@code null} until available: the statements run
+     * before are not recorded.
+     */
+    public QueryMetricsDataSource(DataSource targetDataSource, Supplier<QueryMetrics> queryMetrics) {
+        super(targetDataSource);
+        this.queryMetrics = queryMetrics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+    }
+
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(QueryMetricsDataSource.class.getClassLoader(), new Class<?>[] { type }, handler));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    /**
+     * Proxies the statements created by a connection, knowing the SQL of the prepared ones.
+     */
+    private final class ConnectionHandler implements InvocationHandler {
+
+        private final Connection connection;
+
+        private ConnectionHandler(Connection connection) {
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                default:
+                    break;
+            }
+            Object result = QueryMetricsDataSource.invoke(connection, method, args);
+            if (result instanceof Statement) {
+                // prepareStatement(sql, ...) and prepareCall(sql, ...), createStatement(...) has no SQL yet
+                String sql = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : null;
+                return proxy(method.getReturnType(), new StatementHandler((Statement) result, (Connection) proxy, sql));
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Times the executions of a statement.
+     */
+    private final class StatementHandler implements InvocationHandler {
+
+        private final Statement statement;
+
+        private final Connection connection;
+
+        private String sql;
+
+        private StatementHandler(Statement statement, Connection connection, String sql) {
+            this.statement = statement;
+            this.connection = connection;
+            this.sql = sql;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "getConnection":
+                    return connection;
+                case "addBatch":
+                    if (args != null && args.length == 1 && args[0] instanceof String) {
+                        // Batch of a plain statement, timed with its last SQL
+                        sql = (String) args[0];
+                    }
+                    return QueryMetricsDataSource.invoke(statement, method, args);
+                default:
+                    break;
+            }
+            if (!name.startsWith("execute")) {
+                return QueryMetricsDataSource.invoke(statement, method, args);
+            }
+            String executed = args != null && args.length > 0 && args[0] instanceof String ? (String) args[0] : sql;
+            long start = System.nanoTime();
+            try {
+                return QueryMetricsDataSource.invoke(statement, method, args);
+            } finally {
+                QueryMetrics metrics = queryMetrics.get();
+                if (metrics != null) {
+                    metrics.record(executed, System.nanoTime() - start);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package tech.lszita.gardonyi.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Number of SQL statements, JDBC time and entity loads of a unit of work, typically an HTTP request, counted by the
+ * {@link QueryStatisticsCollector} on the thread the statistics are started on.
+ * <p>
+ * The statements are also counted by SQL string, to find the one executed most often: a statement executed once per
+ * entity of a list is the mark of an N+1 select.
+ */
+public final class QueryStatistics {
+
+    private static final ThreadLocal<QueryStatistics> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> statementCounts = new HashMap<>();
+
+    private int statementCount;
+
+    private long jdbcTimeNanos;
+
+    private int entityLoadCount;
+
+    private String mostRepeatedStatement;
+
+    private int mostRepeatedStatementCount;
+
+    private QueryStatistics() {}
+
+    /**
+     * Start counting on the current thread, until {@link #stop()}.
+     *
+     * @return the statistics of the current thread.
+     */
+    public static QueryStatistics start() {
+        QueryStatistics statistics = new QueryStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    /**
+     * The statistics of the current thread.
+     *
+     * @return the statistics, or {@code null} if none were started on the current thread.
+     */
+    static QueryStatistics current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stop counting on the current thread, the statistics keep their values.
+     */
+    public void stop() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    void statement(String sql) {
+        statementCount++;
+        int count = statementCounts.merge(sql, 1, Integer::sum);
+        if (count > mostRepeatedStatementCount) {
+            mostRepeatedStatement = sql;
+            mostRepeatedStatementCount = count;
+        }
+    }
+
+    void jdbcTime(long nanos) {
+        jdbcTimeNanos += nanos;
+    }
+
+    void entityLoad() {
+        entityLoadCount++;
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public long getJdbcTimeNanos() {
+        return jdbcTimeNanos;
+    }
+
+    public int getEntityLoadCount() {
+        return entityLoadCount;
+    }
+
+    /**
+     * @return the SQL of the statement executed the most times, or {@code null} if none was executed.
+     */
+    public String getMostRepeatedStatement() {
+        return mostRepeatedStatement;
+    }
+
+    public int getMostRepeatedStatementCount() {
+        return mostRepeatedStatementCount;
+    }
+}
@@ -0,0 +1,100 @@
+package tech.lszita.gardonyi.repository;
+
+import java.util.List;
+import java.util.Map;
+import org.hibernate.BaseSessionEventListener;
+import org.hibernate.boot.Metadata;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+
+/**
+ * Counts the SQL statements, JDBC time and entity loads of Hibernate into the {@link QueryStatistics} of the current
+ * thread, if any were started: as {@link StatementInspector} of the session factory, as listener of the post-load
+ * events, and with a {@link JdbcTimer} listening to the JDBC executions of every session.
+ * <p>
+ * Only the statements of Hibernate are counted, not those run with a {@code JdbcTemplate}.
+ */
+public class QueryStatisticsCollector implements StatementInspector, PostLoadEventListener, Integrator {
+
+    /**
+     * Register the collector with the Hibernate properties of the entity manager factory.
+     *
+     * @param properties the Hibernate properties.
+     */
+    public void register(Map<String, Object> properties) {
+        properties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+        properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, JdbcTimer.class.getName());
+        properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> List.of(this));
+    }
+
+    @Override
+    public String inspect(String sql) {
+        QueryStatistics statistics = QueryStatistics.current();
+        if (statistics != null) {
+            statistics.statement(sql);
+        }
+        return sql;
+    }
+
+    @Override
+    public void onPostLoad(PostLoadEvent event) {
+        QueryStatistics statistics = QueryStatistics.current();
+        if (statistics != null) {
+            statistics.entityLoad();
+        }
+    }
+
+    @Override
+    public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        serviceRegistry.getService(EventListenerRegistry.class).appendListeners(EventType.POST_LOAD, this);
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        // Nothing to release
+    }
+
+    /**
+     * Times the JDBC executions of a session, instantiated by Hibernate for every session.
+     */
+    public static class JdbcTimer extends BaseSessionEventListener {
+
+        private long start;
+
+        @Override
+        public void jdbcExecuteStatementStart() {
+            start = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteStatementEnd() {
+            record();
+        }
+
+        @Override
+        public void jdbcExecuteBatchStart() {
+            start = System.nanoTime();
+        }
+
+        @Override
+        public void jdbcExecuteBatchEnd() {
+            record();
+        }
+
+        private void record() {
+            QueryStatistics statistics = QueryStatistics.current();
+            if (statistics != null) {
+                statistics.jdbcTime(System.nanoTime() - start);
+            }
+        }
+    }
+}
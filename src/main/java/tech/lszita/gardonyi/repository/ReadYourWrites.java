@@ -0,0 +1,64 @@
+package tech.lszita.gardonyi.repository;
+
+/**
+ * Time until which the read-only transactions of a session keep reading from the primary database after a write, so
+ * that the session reads its own writes while the read replicas catch up. Bound to the thread handling a request of
+ * the session, and moved forward by the {@link ReplicaRoutingDataSource} when a transaction writing to the primary
+ * database commits.
+ */
+public final class ReadYourWrites {
+
+    private static final ThreadLocal<ReadYourWrites> CURRENT = new ThreadLocal<>();
+
+    private long primaryUntilMillis;
+
+    private ReadYourWrites(long primaryUntilMillis) {
+        this.primaryUntilMillis = primaryUntilMillis;
+    }
+
+    /**
+     * Bind the time until which the session reads from the primary database to the current thread, until
+     * {@link #stop()}.
+     *
+     * @param primaryUntilMillis the time, in milliseconds since the epoch, 0 if the session hasn't written.
+     * @return the read-your-writes state of the current thread.
+     */
+    public static ReadYourWrites start(long primaryUntilMillis) {
+        ReadYourWrites readYourWrites = new ReadYourWrites(primaryUntilMillis);
+        CURRENT.set(readYourWrites);
+        return readYourWrites;
+    }
+
+    /**
+     * The read-your-writes state of the current thread.
+     *
+     * @return the state, or {@code null} if none was started on the current thread.
+     */
+    static ReadYourWrites current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Unbind the state from the current thread, it keeps its value.
+     */
+    public void stop() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * @return the time until which the session reads from the primary database, in milliseconds since the epoch.
+     */
+    public long getPrimaryUntilMillis() {
+        return primaryUntilMillis;
+    }
+
+    boolean isPrimaryRequired() {
+        return System.currentTimeMillis() < primaryUntilMillis;
+    }
+
+    void written(long primaryUntilMillis) {
+        this.primaryUntilMillis = Math.max(this.primaryUntilMillis, primaryUntilMillis);
+    }
+}
@@ -0,0 +1,316 @@
+package tech.lszita.gardonyi.repository;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Data source sending the connections of the read-only transactions to the read replicas, in turn, and all the others
+ * to the primary database.
+ * <p>
+ * The replicas are only used while their replication lag, checked in the background, is within the maximum lag: the
+ * reads fall back to the primary database when no replica is available, or if a replica can't be connected to. After a
+ * transaction writing to the primary database commits, the {@link ReadYourWrites} of the thread keep its session
+ * reading from the primary database for a while. The reads that must never be stale, such as those authenticating the
+ * users, are run on the primary database with {@link #readFromPrimary(Supplier)}.
+ * <p>
+ * The connections are lazy, only routed on their first statement: the transaction managers get their connection before
+ * the transaction is marked read-only. {@link #unwrap(Class)} reaches the primary data source, so that its connection
+ * pool metrics are still bound.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    /**
+     * Replication lag of a PostgreSQL standby, in seconds: none when it has replayed all the changes it received.
+     */
+    public static final String POSTGRESQL_LAG_QUERY =
+        "select case when pg_is_in_recovery() and pg_last_wal_receive_lsn() is distinct from pg_last_wal_replay_lsn()" +
+        " then extract(epoch from now() - pg_last_xact_replay_timestamp()) else 0 end";
+
+    private static final String WRITE_RESOURCE = ReplicaRoutingDataSource.class.getName() + ".write";
+
+    private static final ThreadLocal<Boolean> PRIMARY_READS = new ThreadLocal<>();
+
+    private final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas = new ArrayList<>();
+
+    private final String lagQuery;
+
+    private final long maxLagMs;
+
+    private final long readYourWritesMs;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private final ScheduledExecutorService lagChecker;
+
+    private final DataSource lazyConnections;
+
+    /**
+     * Start checking the lag of the replicas, they are only read from once checked.
+     *
+     * @param primary the primary data source.
+     * @param replicas the data sources of the replicas, by name.
+     * @param lagQuery the query of the replication lag of a replica, in seconds.
+     * @param maxLagMs the maximum replication lag of the replicas read from, in milliseconds.
+     * @param lagCheckIntervalMs the delay between two checks of the replication lag, in milliseconds.
+     * @param readYourWritesMs how long a session keeps reading from the primary database after a write, in milliseconds.
+     */
+    public ReplicaRoutingDataSource(
+        DataSource primary,
+        Map<String, DataSource> replicas,
+        String lagQuery,
+        long maxLagMs,
+        long lagCheckIntervalMs,
+        long readYourWritesMs
+    ) {
+        this.primary = primary;
+        replicas.forEach((name, dataSource) -> this.replicas.add(new Replica(name, dataSource)));
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        this.readYourWritesMs = readYourWritesMs;
+        // Reads the default auto-commit and isolation of the connections from the primary data source
+        this.lazyConnections = new LazyConnectionDataSourceProxy(new Router());
+        this.lagChecker =
+            Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "replica-lag-checker");
+                thread.setDaemon(true);
+                return thread;
+            });
+        this.lagChecker.scheduleWithFixedDelay(this::checkReplicas, 0, lagCheckIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return lazyConnections.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return lazyConnections.getConnection(username, password);
+    }
+
+    private Connection routedConnection() throws SQLException {
+        if (isReplicaRead()) {
+            int size = replicas.size();
+            int first = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((first + i) % size);
+                if (replica.available) {
+                    try {
+                        return replica.dataSource.getConnection();
+                    } catch (SQLException e) {
+                        replica.available = false;
+                        log.warn("Read replica {} can't be connected to, not read from until checked: {}", replica.name, e.getMessage());
+                    }
+                }
+            }
+        } else if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            readYourWrites();
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Run the read-only transactions of the given reads on the primary database, whether or not the read replicas are
+     * enabled: for the reads that must not see a replica lagging behind, such as the credentials and remember-me tokens
+     * checked on authentication. The session doesn't keep reading from the primary database afterwards.
+     * <p>
+     * The connection of a transaction is routed on its first statement: a transaction that started reading before
+     * keeps its replica.
+     *
+     * @param reads the reads.
+     * @param <T> the type of the result.
+     * @return the result of the reads.
+     */
+    public static <T> T readFromPrimary(Supplier<T> reads) {
+        if (PRIMARY_READS.get() != null) {
+            return reads.get();
+        }
+        PRIMARY_READS.set(Boolean.TRUE);
+        try {
+            return reads.get();
+        } finally {
+            PRIMARY_READS.remove();
+        }
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) {
+            return iface.cast(this);
+        }
+        return primary.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || primary.isWrapperFor(iface);
+    }
+
+    /**
+     * @return the data sources of the replicas, by name.
+     */
+    public Map<String, DataSource> getReplicas() {
+        Map<String, DataSource> dataSources = new LinkedHashMap<>();
+        replicas.forEach(replica -> dataSources.put(replica.name, replica.dataSource));
+        return Collections.unmodifiableMap(dataSources);
+    }
+
+    /**
+     * The last checked replication lag of a replica.
+     *
+     * @param name the name of the replica.
+     * @return the lag in milliseconds, or -1 if it is unknown: not checked yet, or the replica can't be connected to.
+     */
+    public long getLagMillis(String name) {
+        return replicas
+            .stream()
+            .filter(replica -> replica.name.equals(name))
+            .mapToLong(replica -> replica.lagMillis)
+            .findFirst()
+            .orElse(-1);
+    }
+
+    /**
+     * Stop checking the lag of the replicas, and close the primary and replica data sources.
+     */
+    @Override
+    public void close() {
+        lagChecker.shutdownNow();
+        close(primary);
+        replicas.forEach(replica -> close(replica.dataSource));
+    }
+
+    private void close(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable) {
+            try {
+                ((AutoCloseable) dataSource).close();
+            } catch (Exception e) {
+                log.warn("Could not close the data source {}: {}", dataSource, e.getMessage());
+            }
+        }
+    }
+
+    private boolean isReplicaRead() {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly() || PRIMARY_READS.get() != null) {
+            return false;
+        }
+        ReadYourWrites readYourWrites = ReadYourWrites.current();
+        return readYourWrites == null || !readYourWrites.isPrimaryRequired();
+    }
+
+    /**
+     * Once the current transaction has committed, keep the session reading from the primary database.
+     */
+    private void readYourWrites() {
+        if (
+            ReadYourWrites.current() == null ||
+            !TransactionSynchronizationManager.isSynchronizationActive() ||
+            TransactionSynchronizationManager.hasResource(WRITE_RESOURCE)
+        ) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(WRITE_RESOURCE, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    ReadYourWrites readYourWrites = ReadYourWrites.current();
+                    if (readYourWrites != null) {
+                        readYourWrites.written(System.currentTimeMillis() + readYourWritesMs);
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResource(WRITE_RESOURCE);
+                }
+            }
+        );
+    }
+
+    /**
+     * Check the replication lag of every replica, only the replicas within the maximum lag are read from.
+     */
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (
+                Connection connection = replica.dataSource.getConnection();
+                Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(lagQuery)
+            ) {
+                resultSet.next();
+                replica.lagMillis = Math.round(resultSet.getDouble(1) * 1000);
+                boolean available = replica.lagMillis <= maxLagMs;
+                if (available != replica.available) {
+                    log.info("Read replica {} is {} ({} ms behind)", replica.name, available ? "read from" : "lagging", replica.lagMillis);
+                }
+                replica.available = available;
+            } catch (SQLException | RuntimeException e) {
+                if (replica.available || !replica.checked) {
+                    log.warn("Read replica {} is unavailable: {}", replica.name, e.getMessage());
+                }
+                replica.available = false;
+                replica.lagMillis = -1;
+            }
+            replica.checked = true;
+        }
+    }
+
+    /**
+     * Target of the lazy connections, asked for a connection on their first statement.
+     */
+    private final class Router extends AbstractDataSource {
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return routedConnection();
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return primary.getConnection(username, password);
+        }
+    }
+
+    private static final class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean checked;
+
+        private volatile boolean available;
+
+        private volatile long lagMillis = -1;
+
+        private Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package tech.lszita.gardonyi.repository;
+
+import java.util.OptionalLong;
+
+/**
+ * Estimates the number of rows of a table from the statistics of the database, without counting them.
+ */
+@FunctionalInterface
+public interface RowCountEstimator {
+    /**
+     * Estimate the number of rows of a table.
+     *
+     * @param table the name of the table.
+     * @return the estimated number of rows, or empty if the database has no estimate.
+     */
+    OptionalLong estimateRowCount(String table);
+}
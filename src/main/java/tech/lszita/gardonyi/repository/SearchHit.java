@@ -0,0 +1,45 @@
+package tech.lszita.gardonyi.repository;
+
+/**
+ * A full-text search match, see {@link ContentSearchRepository}.
+ */
+public class SearchHit {
+
+    private final Long id;
+
+    private final String title;
+
+    private final String snippet;
+
+    private final double score;
+
+    public SearchHit(Long id, String title, String snippet, double score) {
+        this.id = id;
+        this.title = title;
+        this.snippet = snippet;
+        this.score = score;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    /**
+     * @return the best matching fragments of the content, with the matched terms between
+     * {@link ContentSearchRepository#HIGHLIGHT_START} and {@link ContentSearchRepository#HIGHLIGHT_END}.
+     */
+    public String getSnippet() {
+        return snippet;
+    }
+
+    /**
+     * @return the relevance of the match, higher is better. Only comparable within the same search.
+     */
+    public double getScore() {
+        return score;
+    }
+}
@@ -0,0 +1,18 @@
+package tech.lszita.gardonyi.repository;
+
+/**
+ * Cache invalidation bus of the databases without notifications, like H2 in development and tests: the application
+ * is expected to run on a single node, there is nobody to notify.
+ */
+public class SingleNodeCacheInvalidationBus implements CacheInvalidationBus {
+
+    @Override
+    public void publishEntityEviction(Class<?> entityClass, Object id) {
+        // Single node
+    }
+
+    @Override
+    public void publishCacheEviction(String cacheName, Object key) {
+        // Single node
+    }
+}
@@ -14,6 +14,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
 import tech.lszita.gardonyi.domain.Authority;
 import tech.lszita.gardonyi.domain.User;
+import tech.lszita.gardonyi.repository.ReplicaRoutingDataSource;
 import tech.lszita.gardonyi.repository.UserRepository;
 
 /**
@@ -30,11 +31,18 @@ public class DomainUserDetailsService implements UserDetailsService {
         this.userRepository = userRepository;
     }
 
+    /**
+     * Load a user by login or email, from the primary database: a read replica lagging behind could still accept a
+     * changed password, or a deactivated user.
+     */
     @Override
     @Transactional(readOnly = true)
     public UserDetails loadUserByUsername(final String login) {
         log.debug("Authenticating {}", login);
+        return ReplicaRoutingDataSource.readFromPrimary(() -> loadUser(login));
+    }
 
+    private UserDetails loadUser(String login) {
         if (new EmailValidator().isValid(login, null)) {
             return userRepository
                 .findOneWithAuthoritiesByEmailIgnoreCase(login)
@@ -0,0 +1,120 @@
+package tech.lszita.gardonyi.security;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.lszita.gardonyi.domain.PersistentToken;
+import tech.lszita.gardonyi.repository.CacheInvalidationBus;
+
+/**
+ * Write-behind buffer for the audit fields of refreshed remember-me tokens.
+ * <p>
+ * The token date, IP address and user agent of a {@link PersistentToken} are only informative (they are shown in
+ * the list of the user's sessions), so they don't need to be written in the request thread. Updates are coalesced
+ * per series, only the latest one is kept, and periodically written in JDBC batches. Only the audit columns are
+ * updated, so a concurrent rotation of the token value can never be overwritten. The written tokens are evicted from
+ * the second-level cache, on all the nodes.
+ */
+@Component
+public class PersistentTokenAuditWriter {
+
+    private static final String UPDATE_AUDIT_SQL =
+        "update jhi_persistent_token set token_date = ?, ip_address = ?, user_agent = ? where series = ?";
+
+    private final Logger log = LoggerFactory.getLogger(PersistentTokenAuditWriter.class);
+
+    private final Map<String, PersistentToken> pendingAudits = new ConcurrentHashMap<>();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final int batchSize;
+
+    public PersistentTokenAuditWriter(
+        JdbcTemplate jdbcTemplate,
+        PlatformTransactionManager transactionManager,
+        EntityManagerFactory entityManagerFactory,
+        CacheInvalidationBus cacheInvalidationBus,
+        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:25}") int batchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Buffer the audit fields of the given token, replacing any pending update of the same series.
+     * <p>
+     * The token is kept as is until it is written, so it must not be modified afterwards.
+     *
+     * @param token the token holding the series and the new audit fields.
+     */
+    public void enqueue(PersistentToken token) {
+        pendingAudits.put(token.getSeries(), token);
+    }
+
+    /**
+     * Write all the buffered audit fields.
+     *
+     * @return the number of tokens written.
+     */
+    @Scheduled(fixedDelayString = "${application.remember-me.audit-flush-delay-ms:5000}")
+    @PreDestroy
+    public int flush() {
+        List<PersistentToken> audits = new ArrayList<>(pendingAudits.size());
+        for (String series : pendingAudits.keySet()) {
+            // remove one by one, so that an update buffered meanwhile is either written now or kept for later
+            PersistentToken audit = pendingAudits.remove(series);
+            if (audit != null) {
+                audits.add(audit);
+            }
+        }
+        if (audits.isEmpty()) {
+            return 0;
+        }
+        log.debug("Writing the audit fields of {} persistent tokens", audits.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                jdbcTemplate.batchUpdate(
+                    UPDATE_AUDIT_SQL,
+                    audits,
+                    batchSize,
+                    (ps, audit) -> {
+                        ps.setDate(1, audit.getTokenDate() != null ? Date.valueOf(audit.getTokenDate()) : null);
+                        ps.setString(2, audit.getIpAddress());
+                        ps.setString(3, audit.getUserAgent());
+                        ps.setString(4, audit.getSeries());
+                    }
+                );
+                // Not seen by Hibernate, so not broadcast by it
+                audits.forEach(audit -> cacheInvalidationBus.publishEntityEviction(PersistentToken.class, audit.getSeries()));
+            });
+        } catch (DataAccessException e) {
+            // Audit fields are informative only, they are not worth retrying
+            log.warn("Failed to write the audit fields of {} persistent tokens", audits.size(), e);
+        }
+        // The second-level cache holds the previous values of these tokens
+        audits.forEach(audit -> entityManagerFactory.getCache().evict(PersistentToken.class, audit.getSeries()));
+        return audits.size();
+    }
+}
@@ -3,6 +3,11 @@ package tech.lszita.gardonyi.security;
 import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
@@ -14,10 +19,12 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.rememberme.*;
 import org.springframework.stereotype.Service;
 import tech.jhipster.config.JHipsterProperties;
-import tech.jhipster.security.PersistentTokenCache;
 import tech.jhipster.security.RandomUtil;
+import tech.lszita.gardonyi.config.ApplicationProperties;
 import tech.lszita.gardonyi.domain.PersistentToken;
+import tech.lszita.gardonyi.repository.CacheInvalidationBus;
 import tech.lszita.gardonyi.repository.PersistentTokenRepository;
+import tech.lszita.gardonyi.repository.ReplicaRoutingDataSource;
 import tech.lszita.gardonyi.repository.UserRepository;
 
 /**
@@ -37,6 +44,12 @@ import tech.lszita.gardonyi.repository.UserRepository;
  * cache during that period. This is to allow concurrent requests from the same user: otherwise, two
  * requests being sent at the same time could invalidate each other's token.
  * <p>
+ * Token upgrades are serialized per cookie series, using a fixed set of striped locks: two requests presenting
+ * the same series are processed one after the other, while logins of different series run in parallel.
+ * <p>
+ * When {@code application.remember-me.audit-write-behind} is enabled, only the {@code token_value} column is updated in
+ * the request thread: the audit fields are handed to the {@link PersistentTokenAuditWriter}.
+ * <p>
  * This is inspired by:
  * <ul>
  * <li><a href="https://github.com/blog/1661-modeling-your-app-s-user-session">GitHub's "Modeling your App's User Session"</a></li>
@@ -57,55 +70,121 @@ public class PersistentTokenRememberMeServices extends AbstractRememberMeService
 
     private static final long UPGRADED_TOKEN_VALIDITY_MILLIS = 5000l;
 
-    private final PersistentTokenCache<UpgradedRememberMeToken> upgradedTokenCache;
+    // Number of locks the cookie series are spread over, must be a power of 2
+    private static final int SERIES_LOCK_STRIPES = 256;
+
+    private final ConcurrentMap<String, UpgradedRememberMeToken> upgradedTokenCache = new ConcurrentHashMap<>();
+
+    private final AtomicLong upgradedTokenCachePurgeTime = new AtomicLong();
+
+    private final Lock[] seriesLocks = new Lock[SERIES_LOCK_STRIPES];
 
     private final PersistentTokenRepository persistentTokenRepository;
 
     private final UserRepository userRepository;
 
+    private final PersistentTokenAuditWriter persistentTokenAuditWriter;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final boolean auditWriteBehind;
+
     public PersistentTokenRememberMeServices(
         JHipsterProperties jHipsterProperties,
+        ApplicationProperties applicationProperties,
         org.springframework.security.core.userdetails.UserDetailsService userDetailsService,
         PersistentTokenRepository persistentTokenRepository,
-        UserRepository userRepository
+        UserRepository userRepository,
+        PersistentTokenAuditWriter persistentTokenAuditWriter,
+        CacheInvalidationBus cacheInvalidationBus
     ) {
         super(jHipsterProperties.getSecurity().getRememberMe().getKey(), userDetailsService);
         this.persistentTokenRepository = persistentTokenRepository;
         this.userRepository = userRepository;
-        upgradedTokenCache = new PersistentTokenCache<>(UPGRADED_TOKEN_VALIDITY_MILLIS);
+        this.persistentTokenAuditWriter = persistentTokenAuditWriter;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.auditWriteBehind = applicationProperties.getRememberMe().isAuditWriteBehind();
+        for (int i = 0; i < SERIES_LOCK_STRIPES; i++) {
+            seriesLocks[i] = new ReentrantLock();
+        }
     }
 
     @Override
     protected UserDetails processAutoLoginCookie(String[] cookieTokens, HttpServletRequest request, HttpServletResponse response) {
-        synchronized (this) { // prevent 2 authentication requests from the same user in parallel
-            String login = null;
-            UpgradedRememberMeToken upgradedToken = upgradedTokenCache.get(cookieTokens[0]);
-            if (upgradedToken != null) {
-                login = upgradedToken.getUserLoginIfValid(cookieTokens);
-                log.debug("Detected previously upgraded login token for user '{}'", login);
-            }
+        String login;
+        // prevent 2 authentication requests with the same series in parallel
+        Lock lock = getSeriesLock(cookieTokens[0]);
+        lock.lock();
+        try {
+            login = upgradeToken(cookieTokens, request, response);
+        } finally {
+            lock.unlock();
+        }
+        return getUserDetailsService().loadUserByUsername(login);
+    }
 
-            if (login == null) {
-                PersistentToken token = getPersistentToken(cookieTokens);
-                login = token.getUser().getLogin();
-
-                // Token also matches, so login is valid. Update the token value, keeping the *same* series number.
-                log.debug("Refreshing persistent login token for user '{}', series '{}'", login, token.getSeries());
-                token.setTokenDate(LocalDate.now());
-                token.setTokenValue(RandomUtil.generateRandomAlphanumericString());
-                token.setIpAddress(request.getRemoteAddr());
-                token.setUserAgent(request.getHeader("User-Agent"));
-                try {
+    /**
+     * Refresh the token of the presented series, unless it was already refreshed in the last 5 seconds.
+     * Must be called holding the lock of the series.
+     *
+     * @return the login of the token owner.
+     */
+    private String upgradeToken(String[] cookieTokens, HttpServletRequest request, HttpServletResponse response) {
+        String login = null;
+        UpgradedRememberMeToken upgradedToken = upgradedTokenCache.get(cookieTokens[0]);
+        if (upgradedToken != null) {
+            login = upgradedToken.getUserLoginIfValid(cookieTokens);
+            log.debug("Detected previously upgraded login token for user '{}'", login);
+        }
+
+        if (login == null) {
+            PersistentToken token = getPersistentToken(cookieTokens);
+            login = token.getUser().getLogin();
+
+            // Token also matches, so login is valid. Update the token value, keeping the *same* series number.
+            log.debug("Refreshing persistent login token for user '{}', series '{}'", login, token.getSeries());
+            token.setTokenValue(RandomUtil.generateRandomAlphanumericString());
+            PersistentToken audit = auditWriteBehind ? new PersistentToken() : token;
+            audit.setSeries(token.getSeries());
+            audit.setTokenDate(LocalDate.now());
+            audit.setIpAddress(request.getRemoteAddr());
+            audit.setUserAgent(request.getHeader("User-Agent"));
+            try {
+                if (auditWriteBehind) {
+                    // Only the token value is written synchronously, the audit fields are coalesced and written later
+                    if (persistentTokenRepository.updateTokenValue(token.getSeries(), token.getTokenValue()) == 0) {
+                        throw new RememberMeAuthenticationException("Autologin failed, the token was removed");
+                    }
+                } else {
                     persistentTokenRepository.saveAndFlush(token);
-                } catch (DataAccessException e) {
-                    log.error("Failed to update token: ", e);
-                    throw new RememberMeAuthenticationException("Autologin failed due to data access problem", e);
                 }
-                addCookie(token, request, response);
-                upgradedTokenCache.put(cookieTokens[0], new UpgradedRememberMeToken(cookieTokens, login));
+            } catch (DataAccessException e) {
+                log.error("Failed to update token: ", e);
+                throw new RememberMeAuthenticationException("Autologin failed due to data access problem", e);
+            }
+            if (auditWriteBehind) {
+                // The update bypasses the Hibernate listeners that broadcast the evictions
+                cacheInvalidationBus.publishEntityEviction(PersistentToken.class, token.getSeries());
+                persistentTokenAuditWriter.enqueue(audit);
             }
-            return getUserDetailsService().loadUserByUsername(login);
+            addCookie(token, request, response);
+            putUpgradedToken(cookieTokens[0], new UpgradedRememberMeToken(cookieTokens, login));
         }
+        return login;
+    }
+
+    private Lock getSeriesLock(String series) {
+        return seriesLocks[series.hashCode() & (SERIES_LOCK_STRIPES - 1)];
+    }
+
+    private void putUpgradedToken(String series, UpgradedRememberMeToken upgradedToken) {
+        long now = System.currentTimeMillis();
+        long purgeTime = upgradedTokenCachePurgeTime.get();
+        // Expired entries are purged at most once per validity period, by a single thread
+        if (now - purgeTime > UPGRADED_TOKEN_VALIDITY_MILLIS && upgradedTokenCachePurgeTime.compareAndSet(purgeTime, now)) {
+            upgradedTokenCache.values().removeIf(token -> token.isExpired(now));
+        }
+        upgradedTokenCache.put(series, upgradedToken);
     }
 
     @Override
@@ -113,8 +192,8 @@ public class PersistentTokenRememberMeServices extends AbstractRememberMeService
         String login = successfulAuthentication.getName();
 
         log.debug("Creating new persistent login for user {}", login);
-        PersistentToken token = userRepository
-            .findOneByLogin(login)
+        PersistentToken token = ReplicaRoutingDataSource
+            .readFromPrimary(() -> userRepository.findOneByLogin(login))
             .map(u -> {
                 PersistentToken t = new PersistentToken();
                 t.setSeries(RandomUtil.generateRandomAlphanumericString());
@@ -172,7 +251,10 @@ public class PersistentTokenRememberMeServices extends AbstractRememberMeService
         }
         String presentedSeries = cookieTokens[0];
         String presentedToken = cookieTokens[1];
-        Optional<PersistentToken> optionalToken = persistentTokenRepository.findById(presentedSeries);
+        // A read replica lagging behind would still have the previous value of a rotated token, taken for a theft
+        Optional<PersistentToken> optionalToken = ReplicaRoutingDataSource.readFromPrimary(() ->
+            persistentTokenRepository.findById(presentedSeries)
+        );
         if (!optionalToken.isPresent()) {
             // No series match, so we can't authenticate using this cookie
             throw new RememberMeAuthenticationException("No persistent token found for series id: " + presentedSeries);
@@ -204,16 +286,27 @@ public class PersistentTokenRememberMeServices extends AbstractRememberMeService
 
         private final String userLogin;
 
+        private final long expireTime;
+
         UpgradedRememberMeToken(String[] upgradedToken, String userLogin) {
             this.upgradedToken = upgradedToken;
             this.userLogin = userLogin;
+            this.expireTime = System.currentTimeMillis() + UPGRADED_TOKEN_VALIDITY_MILLIS;
         }
 
         String getUserLoginIfValid(String[] currentToken) {
-            if (currentToken[0].equals(this.upgradedToken[0]) && currentToken[1].equals(this.upgradedToken[1])) {
+            if (
+                !isExpired(System.currentTimeMillis()) &&
+                currentToken[0].equals(this.upgradedToken[0]) &&
+                currentToken[1].equals(this.upgradedToken[1])
+            ) {
                 return this.userLogin;
             }
             return null;
         }
+
+        boolean isExpired(long now) {
+            return now > expireTime;
+        }
     }
 }
@@ -0,0 +1,264 @@
+package tech.lszita.gardonyi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.lszita.gardonyi.domain.Authority;
+import tech.lszita.gardonyi.domain.PageEntity;
+import tech.lszita.gardonyi.domain.Post;
+import tech.lszita.gardonyi.domain.User;
+import tech.lszita.gardonyi.repository.AuthorityRepository;
+import tech.lszita.gardonyi.repository.PageRepository;
+import tech.lszita.gardonyi.repository.PostRepository;
+import tech.lszita.gardonyi.repository.UserRepository;
+
+/**
+ * Warms the second-level cache regions up at startup, so that the first requests after a deploy don't all go to the
+ * database: the most recently modified posts, pages and users, and all the authorities, are loaded in parallel batches.
+ * <p>
+ * Also the {@code cacheWarmUp} health indicator of the readiness group: the application is only ready once the
+ * warm-up is finished, or has timed out. A failed batch is logged and skipped, the warm-up is only an optimization.
+ */
+@Service
+public class CacheWarmUp implements HealthIndicator {
+
+    private final Logger log = LoggerFactory.getLogger(CacheWarmUp.class);
+
+    private enum State {
+        PENDING,
+        RUNNING,
+        FINISHED,
+        TIMED_OUT,
+    }
+
+    private final PostRepository postRepository;
+
+    private final PageRepository pageRepository;
+
+    private final UserRepository userRepository;
+
+    private final AuthorityRepository authorityRepository;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int posts;
+
+    private final int pages;
+
+    private final int users;
+
+    private final int batchSize;
+
+    private final int parallelism;
+
+    private final long timeoutSeconds;
+
+    private final AtomicInteger totalBatches = new AtomicInteger();
+
+    private final AtomicInteger finishedBatches = new AtomicInteger();
+
+    private volatile State state;
+
+    private volatile long durationMs;
+
+    private ExecutorService executor;
+
+    private CompletableFuture<Void> completion = CompletableFuture.completedFuture(null);
+
+    public CacheWarmUp(
+        PostRepository postRepository,
+        PageRepository pageRepository,
+        UserRepository userRepository,
+        AuthorityRepository authorityRepository,
+        PlatformTransactionManager transactionManager,
+        MeterRegistry meterRegistry,
+        @Value("${application.cache.warm-up.enabled:true}") boolean enabled,
+        @Value("${application.cache.warm-up.posts:500}") int posts,
+        @Value("${application.cache.warm-up.pages:200}") int pages,
+        @Value("${application.cache.warm-up.users:100}") int users,
+        @Value("${application.cache.warm-up.batch-size:100}") int batchSize,
+        @Value("${application.cache.warm-up.parallelism:4}") int parallelism,
+        @Value("${application.cache.warm-up.timeout-seconds:60}") long timeoutSeconds
+    ) {
+        this.postRepository = postRepository;
+        this.pageRepository = pageRepository;
+        this.userRepository = userRepository;
+        this.authorityRepository = authorityRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.meterRegistry = meterRegistry;
+        this.posts = posts;
+        this.pages = pages;
+        this.users = users;
+        this.batchSize = batchSize;
+        this.parallelism = parallelism;
+        this.timeoutSeconds = timeoutSeconds;
+        this.state = enabled ? State.PENDING : State.FINISHED;
+        Gauge
+            .builder("cache.warmup.progress", this, warmUp -> warmUp.progress())
+            .description("Share of the cache warm-up batches finished")
+            .register(meterRegistry);
+    }
+
+    /**
+     * Start the warm-up in the background, once the application is started.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        start();
+    }
+
+    /**
+     * Start the warm-up in the background, if not already started.
+     *
+     * @return the completion of the warm-up, also completed normally when it times out.
+     */
+    synchronized CompletableFuture<Void> start() {
+        if (state != State.PENDING) {
+            return completion;
+        }
+        state = State.RUNNING;
+        log.info("Warming the caches up");
+        long start = System.nanoTime();
+        executor = Executors.newFixedThreadPool(parallelism, new CustomizableThreadFactory("cache-warm-up-"));
+
+        List<CompletableFuture<Void>> batches = new ArrayList<>();
+        submit(batches, Authority.class.getName(), authorityRepository::findAll);
+        submit(batches, Post.class.getName(), postRepository::findMostRecentlyModifiedIds, posts, postRepository::findAllById);
+        submit(batches, PageEntity.class.getName(), pageRepository::findMostRecentlyModifiedIds, pages, pageRepository::findAllById);
+        submit(
+            batches,
+            User.class.getName(),
+            userRepository::findMostRecentlyModifiedIds,
+            users,
+            userRepository::findAllWithAuthoritiesByIdIn
+        );
+
+        completion =
+            CompletableFuture
+                .allOf(batches.toArray(CompletableFuture[]::new))
+                .orTimeout(timeoutSeconds, TimeUnit.SECONDS)
+                .handle((result, e) -> {
+                    finish(start, e instanceof TimeoutException);
+                    return null;
+                });
+        return completion;
+    }
+
+    @Override
+    public Health health() {
+        Health.Builder health = state == State.FINISHED || state == State.TIMED_OUT ? Health.up() : Health.outOfService();
+        return health
+            .withDetail("state", state)
+            .withDetail("progress", progress())
+            .withDetail("durationMs", durationMs)
+            .build();
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Submit the loading of the given number of entities, the most recently modified first, in batches. None if 0.
+     */
+    private void submit(
+        List<CompletableFuture<Void>> batches,
+        String region,
+        Function<Pageable, List<Long>> mostRecentlyModifiedIds,
+        int count,
+        Function<Collection<Long>, List<?>> load
+    ) {
+        if (count <= 0) {
+            return;
+        }
+        List<Long> ids;
+        try {
+            // The ids are read up front, so that the number of batches is known before any of them is loaded
+            ids = readOnlyTransactionTemplate.execute(status -> mostRecentlyModifiedIds.apply(PageRequest.ofSize(count)));
+        } catch (RuntimeException e) {
+            log.warn("Failed to warm the {} cache up: {}", region, e.getMessage());
+            return;
+        }
+        for (int i = 0; i < ids.size(); i += batchSize) {
+            List<Long> batch = ids.subList(i, Math.min(i + batchSize, ids.size()));
+            submit(batches, region, () -> load.apply(batch));
+        }
+    }
+
+    private void submit(List<CompletableFuture<Void>> batches, String region, Supplier<List<?>> load) {
+        Counter entities = Counter
+            .builder("cache.warmup.entities")
+            .description("Entities loaded into the cache regions by the warm-up")
+            .tag("cache", region)
+            .register(meterRegistry);
+        totalBatches.incrementAndGet();
+        batches.add(
+            CompletableFuture
+                .runAsync(() -> entities.increment(readOnlyTransactionTemplate.execute(status -> load.get().size())), executor)
+                .handle((result, e) -> {
+                    if (e != null) {
+                        log.warn("Failed to warm the {} cache up: {}", region, e.getMessage());
+                    }
+                    finishedBatches.incrementAndGet();
+                    return null;
+                })
+        );
+    }
+
+    private synchronized void finish(long start, boolean timedOut) {
+        durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        state = timedOut ? State.TIMED_OUT : State.FINISHED;
+        Timer
+            .builder("cache.warmup")
+            .description("Duration of the cache warm-up")
+            .tag("result", timedOut ? "timeout" : "finished")
+            .register(meterRegistry)
+            .record(durationMs, TimeUnit.MILLISECONDS);
+        executor.shutdownNow();
+        if (timedOut) {
+            log.warn("Cache warm-up timed out after {} ms, {} of {} batches finished", durationMs, finishedBatches, totalBatches);
+        } else {
+            log.info("Warmed the caches up in {} ms", durationMs);
+        }
+    }
+
+    private double progress() {
+        int total = totalBatches.get();
+        if (total == 0) {
+            return state == State.FINISHED || state == State.TIMED_OUT ? 1 : 0;
+        }
+        return (double) finishedBatches.get() / total;
+    }
+}
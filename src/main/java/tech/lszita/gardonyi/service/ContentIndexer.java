@@ -0,0 +1,215 @@
+package tech.lszita.gardonyi.service;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.lszita.gardonyi.domain.PageEntity;
+import tech.lszita.gardonyi.domain.Post;
+import tech.lszita.gardonyi.repository.ContentIndex;
+import tech.lszita.gardonyi.repository.ContentSearchRepository;
+import tech.lszita.gardonyi.repository.ContentSearchRepository.Content;
+import tech.lszita.gardonyi.repository.PageRepository;
+import tech.lszita.gardonyi.repository.PostRepository;
+
+/**
+ * Keeps the full-text index of the posts and pages in sync, when the search is served from a {@link ContentIndex}.
+ * <p>
+ * Changes are indexed in a single background thread once their transaction has committed, so that a rolled back
+ * change is never indexed and the request thread doesn't wait for the index. The index is fully rebuilt at startup,
+ * in keyset batches, which also restores the changes not committed to the index before a crash.
+ * <p>
+ * Does nothing when the search is served by the database.
+ */
+@Service
+public class ContentIndexer {
+
+    private final Logger log = LoggerFactory.getLogger(ContentIndexer.class);
+
+    private final ContentIndex contentIndex;
+
+    private final PostRepository postRepository;
+
+    private final PageRepository pageRepository;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final int rebuildBatchSize;
+
+    private final ExecutorService executor;
+
+    public ContentIndexer(
+        ContentSearchRepository contentSearchRepository,
+        PostRepository postRepository,
+        PageRepository pageRepository,
+        PlatformTransactionManager transactionManager,
+        @Value("${application.search.lucene.rebuild-batch-size:500}") int rebuildBatchSize
+    ) {
+        this.contentIndex = contentSearchRepository instanceof ContentIndex ? (ContentIndex) contentSearchRepository : null;
+        this.postRepository = postRepository;
+        this.pageRepository = pageRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.rebuildBatchSize = rebuildBatchSize;
+        this.executor = contentIndex != null ? Executors.newSingleThreadExecutor(new CustomizableThreadFactory("content-indexer-")) : null;
+    }
+
+    /**
+     * Index the given entity once the current transaction has committed.
+     *
+     * @param content the content of the entity.
+     * @param id the id of the entity.
+     * @param title the title of the entity.
+     * @param text the text of the entity.
+     */
+    public void indexAfterCommit(Content content, Long id, String title, String text) {
+        if (contentIndex != null) {
+            afterCommit(() -> contentIndex.index(content, id, title, text));
+        }
+    }
+
+    /**
+     * Remove the given entity from the index once the current transaction has committed.
+     *
+     * @param content the content of the entity.
+     * @param id the id of the entity.
+     */
+    public void removeAfterCommit(Content content, Long id) {
+        if (contentIndex != null) {
+            afterCommit(() -> contentIndex.remove(content, id));
+        }
+    }
+
+    /**
+     * Index the given entity again once the current transaction has committed, reading it from the database.
+     * <p>
+     * Used when the entity was changed without being loaded, the request doesn't wait for it to be read.
+     *
+     * @param content the content of the entity.
+     * @param id the id of the entity.
+     */
+    public void reindexAfterCommit(Content content, Long id) {
+        if (contentIndex != null) {
+            afterCommit(() -> readOnlyTransactionTemplate.executeWithoutResult(status -> reindex(content, id)));
+        }
+    }
+
+    /**
+     * Rebuild the index from the database, in the background.
+     * <p>
+     * Searches are served from the previous index until the rebuild is finished.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (contentIndex != null) {
+            submit(() -> {
+                rebuild(Content.POSTS, postRepository::findByIdGreaterThanOrderByIdAsc, Post::getId, Post::getTitle, Post::getContent);
+                rebuild(
+                    Content.PAGES,
+                    pageRepository::findByIdGreaterThanOrderByIdAsc,
+                    PageEntity::getId,
+                    PageEntity::getTitle,
+                    PageEntity::getContent
+                );
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("Content indexer did not finish in time, the index will be rebuilt at the next startup");
+            }
+        }
+    }
+
+    private void reindex(Content content, Long id) {
+        if (content == Content.POSTS) {
+            postRepository
+                .findById(id)
+                .ifPresentOrElse(
+                    post -> contentIndex.index(content, id, post.getTitle(), post.getContent()),
+                    () -> contentIndex.remove(content, id)
+                );
+        } else {
+            pageRepository
+                .findById(id)
+                .ifPresentOrElse(
+                    page -> contentIndex.index(content, id, page.getTitle(), page.getContent()),
+                    () -> contentIndex.remove(content, id)
+                );
+        }
+    }
+
+    private <T> void rebuild(
+        Content content,
+        BiFunction<Long, Pageable, Slice<T>> nextBatch,
+        Function<T, Long> id,
+        Function<T, String> title,
+        Function<T, String> text
+    ) {
+        log.info("Rebuilding the full-text index of the {} table", content.getTable());
+        long start = System.currentTimeMillis();
+        contentIndex.startRebuild(content);
+        long lastId = Long.MIN_VALUE;
+        int count = 0;
+        List<T> batch;
+        do {
+            long after = lastId;
+            // Each batch is read in its own short transaction, so the whole tables are never held in the persistence context
+            batch =
+                readOnlyTransactionTemplate.execute(status -> nextBatch.apply(after, PageRequest.ofSize(rebuildBatchSize)).getContent());
+            for (T entity : batch) {
+                contentIndex.index(content, id.apply(entity), title.apply(entity), text.apply(entity));
+                lastId = id.apply(entity);
+            }
+            count += batch.size();
+        } while (batch.size() == rebuildBatchSize);
+        contentIndex.finishRebuild(content);
+        log.info("Indexed {} rows of the {} table in {} ms", count, content.getTable(), System.currentTimeMillis() - start);
+    }
+
+    private void afterCommit(Runnable task) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        submit(task);
+                    }
+                }
+            );
+        } else {
+            submit(task);
+        }
+    }
+
+    private void submit(Runnable task) {
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                log.error("Failed to update the full-text index", e);
+            }
+        });
+    }
+}
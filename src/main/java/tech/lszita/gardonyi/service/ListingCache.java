@@ -0,0 +1,206 @@
+package tech.lszita.gardonyi.service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.lszita.gardonyi.repository.CacheInvalidationBus;
+import tech.lszita.gardonyi.repository.RowCountEstimator;
+
+/**
+ * Cache of the pages of the entity lists in their default sort orders, and of the number of entities, one cache per
+ * table.
+ * <p>
+ * Pages in the other sort orders are read from the database, but still use the cached count. Writes through the
+ * services must call {@link #evict(String)}: the whole cache of the table is cleared immediately, once again when
+ * the surrounding transaction completes, and on the other nodes. Nothing is cached by a transaction that has written
+ * the table, it could see uncommitted rows, nor by a read during which the cache was cleared: it could have loaded the
+ * rows from before the commit.
+ * <p>
+ * The totals are only counted when they can't be told from the page (the last page tells it), or estimated from the
+ * statistics of the database for the tables larger than {@code application.pagination.estimate-threshold} rows.
+ */
+@Component
+public class ListingCache {
+
+    public static final String POST_LISTINGS_CACHE = "postListings";
+
+    public static final String PAGE_LISTINGS_CACHE = "pageListings";
+
+    public static final String USER_LISTINGS_CACHE = "userListings";
+
+    private static final String COUNT_KEY = "count";
+
+    private static final Set<String> CACHED_SORT_PROPERTIES = Set.of("id", "lastModifiedDate");
+
+    private final CacheManager cacheManager;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final RowCountEstimator rowCountEstimator;
+
+    private final long estimateThreshold;
+
+    private final Map<String, AtomicLong> evictions = new ConcurrentHashMap<>();
+
+    public ListingCache(
+        CacheManager cacheManager,
+        CacheInvalidationBus cacheInvalidationBus,
+        RowCountEstimator rowCountEstimator,
+        @Value("${application.pagination.estimate-threshold:100000}") long estimateThreshold
+    ) {
+        this.cacheManager = cacheManager;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.rowCountEstimator = rowCountEstimator;
+        this.estimateThreshold = estimateThreshold;
+    }
+
+    /**
+     * Get a page of a list, loading and caching it on a miss if it is in a default sort order.
+     *
+     * @param cacheName the name of the cache of the table.
+     * @param table the name of the table, for the estimated totals.
+     * @param pageable the pagination information.
+     * @param totalCount how the total is found.
+     * @param loader loads a slice of the list, without counting the entities.
+     * @param counter counts the entities.
+     * @param <T> the type of the entities of the list.
+     * @return the page, a {@link Page} unless the total count is {@link TotalCount#NONE}.
+     */
+    public <T> Slice<T> getPage(
+        String cacheName,
+        String table,
+        Pageable pageable,
+        TotalCount totalCount,
+        Function<Pageable, Slice<T>> loader,
+        LongSupplier counter
+    ) {
+        if (TransactionSynchronizationManager.hasResource(writeResource(cacheName))) {
+            return toPage(loader.apply(pageable), totalCount, () -> count(table, totalCount, counter));
+        }
+        Cache cache = getCache(cacheName);
+        AtomicLong cacheEvictions = evictions(cacheName);
+        Slice<T> slice;
+        if (isCached(pageable)) {
+            String key = pageable.getPageNumber() + ":" + pageable.getPageSize() + ":" + pageable.getSort();
+            slice = get(cache, cacheEvictions, key, () -> loader.apply(pageable));
+        } else {
+            slice = loader.apply(pageable);
+        }
+        return toPage(slice, totalCount, () -> count(table, totalCount, () -> get(cache, cacheEvictions, COUNT_KEY, counter::getAsLong)));
+    }
+
+    /**
+     * Clear the cache of a table, now and when the current transaction completes, and on the other nodes.
+     *
+     * @param cacheName the name of the cache of the table.
+     */
+    public void evict(String cacheName) {
+        Cache cache = getCache(cacheName);
+        AtomicLong cacheEvictions = evictions(cacheName);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cacheEvictions.incrementAndGet();
+            cache.clear();
+            cacheInvalidationBus.publishCacheEviction(cacheName, null);
+            return;
+        }
+        // Once per transaction, however many entities it writes
+        String resource = writeResource(cacheName);
+        if (TransactionSynchronizationManager.hasResource(resource)) {
+            return;
+        }
+        cacheEvictions.incrementAndGet();
+        cache.clear();
+        cacheInvalidationBus.publishCacheEviction(cacheName, null);
+        TransactionSynchronizationManager.bindResource(resource, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(
+            new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    // Also on rollback, in case a read of the other threads cached rows still locked by the transaction
+                    cacheEvictions.incrementAndGet();
+                    cache.clear();
+                    TransactionSynchronizationManager.unbindResource(resource);
+                }
+            }
+        );
+    }
+
+    /**
+     * Get a cached value, loading it on a miss, only caching it if the cache wasn't cleared while it was loaded.
+     */
+    @SuppressWarnings("unchecked")
+    private static <V> V get(Cache cache, AtomicLong cacheEvictions, Object key, Supplier<V> loader) {
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null) {
+            return (V) cached.get();
+        }
+        long evictionsBefore = cacheEvictions.get();
+        V value = loader.get();
+        if (cacheEvictions.get() == evictionsBefore) {
+            cache.put(key, value);
+            // Cleared between the check and the put
+            if (cacheEvictions.get() != evictionsBefore) {
+                cache.evict(key);
+            }
+        }
+        return value;
+    }
+
+    private static <T> Slice<T> toPage(Slice<T> slice, TotalCount totalCount, LongSupplier total) {
+        if (totalCount == TotalCount.NONE) {
+            return slice;
+        }
+        Pageable pageable = slice.getPageable();
+        if (!slice.hasNext() && (slice.hasContent() || pageable.isUnpaged() || pageable.getOffset() == 0)) {
+            // The last page
+            long offset = pageable.isPaged() ? pageable.getOffset() : 0;
+            return new PageImpl<>(slice.getContent(), pageable, offset + slice.getNumberOfElements());
+        }
+        return new PageImpl<>(slice.getContent(), pageable, total.getAsLong());
+    }
+
+    private long count(String table, TotalCount totalCount, LongSupplier counter) {
+        if (totalCount == TotalCount.ESTIMATED) {
+            OptionalLong estimate = rowCountEstimator.estimateRowCount(table);
+            if (estimate.isPresent() && estimate.getAsLong() >= estimateThreshold) {
+                return estimate.getAsLong();
+            }
+        }
+        return counter.getAsLong();
+    }
+
+    private static boolean isCached(Pageable pageable) {
+        return pageable.isPaged() && pageable.getSort().stream().allMatch(order -> CACHED_SORT_PROPERTIES.contains(order.getProperty()));
+    }
+
+    /**
+     * The transaction resource marking that the current transaction has written the table of the cache.
+     */
+    private static String writeResource(String cacheName) {
+        return ListingCache.class.getName() + "." + cacheName;
+    }
+
+    private AtomicLong evictions(String cacheName) {
+        return evictions.computeIfAbsent(cacheName, name -> new AtomicLong());
+    }
+
+    private Cache getCache(String cacheName) {
+        return Objects.requireNonNull(cacheManager.getCache(cacheName), cacheName);
+    }
+}
@@ -1,9 +1,18 @@
 package tech.lszita.gardonyi.service;
 
+import java.io.Reader;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import tech.lszita.gardonyi.repository.ContentBodyRepository;
+import tech.lszita.gardonyi.service.dto.BulkOperationDTO;
+import tech.lszita.gardonyi.service.dto.BulkResultDTO;
 import tech.lszita.gardonyi.service.dto.PostDTO;
+import tech.lszita.gardonyi.service.dto.PostSummaryDTO;
+import tech.lszita.gardonyi.service.dto.SearchHitDTO;
 
 /**
  * Service Interface for managing {@link tech.lszita.gardonyi.domain.Post}.
@@ -34,12 +43,40 @@ public interface PostService {
     Optional<PostDTO> partialUpdate(PostDTO postDTO);
 
     /**
-     * Get all the posts.
+     * Get all the posts, without their content.
      *
      * @param pageable the pagination information.
-     * @return the list of entities.
+     * @param totalCount how the total number of posts is found.
+     * @return the list of entities, a {@link Page} unless the total count is {@link TotalCount#NONE}.
      */
-    Page<PostDTO> findAll(Pageable pageable);
+    Slice<PostDTO> findAll(Pageable pageable, TotalCount totalCount);
+
+    /**
+     * Get the summaries of all the posts, without loading the posts.
+     *
+     * @param pageable the pagination information.
+     * @return the list of summaries.
+     */
+    Page<PostSummaryDTO> findAllSummaries(Pageable pageable);
+
+    /**
+     * Export all the posts ordered by id, as a consistent snapshot.
+     * <p>
+     * The posts are streamed from the database and handed to the consumer one by one, so the memory used does not
+     * depend on the number of posts.
+     *
+     * @param consumer the consumer of the exported posts.
+     */
+    void exportAll(Consumer<PostDTO> consumer);
+
+    /**
+     * Get the posts following the "after" post, ordered by id, without counting them nor loading their content.
+     *
+     * @param after the id of the last post already seen, or {@code null} to start from the first post.
+     * @param size the maximum number of posts to return.
+     * @return the slice of entities.
+     */
+    Slice<PostDTO> findAllAfter(Long after, int size);
 
     /**
      * Get the "id" post.
@@ -49,6 +86,54 @@ public interface PostService {
      */
     Optional<PostDTO> findOne(Long id);
 
+    /**
+     * Get the serialized JSON of the "id" post, served from the rendered response cache when possible.
+     *
+     * @param id the id of the entity.
+     * @return the JSON bytes of the entity, with its version and last modification date.
+     */
+    Optional<RenderedResponseCache.Rendered> findOneRendered(Long id);
+
+    /**
+     * Stream the content of the "id" post, without loading the post.
+     *
+     * @param id the id of the entity.
+     * @param sink the destination of the content, opened with the version of the entity.
+     * @return {@code false} if the entity was not found.
+     */
+    boolean readContent(Long id, ContentBodyRepository.ContentSink sink);
+
+    /**
+     * Replace the content of the "id" post, streaming it to the database.
+     *
+     * @param id the id of the entity.
+     * @param expectedVersion the version of the entity known by the client, or {@code null} to overwrite any version.
+     * @param content the new content.
+     * @return the new version of the entity, or empty if the entity was not found.
+     * @throws org.springframework.dao.OptimisticLockingFailureException if the entity does not have the expected version.
+     */
+    Optional<Long> updateContent(Long id, Long expectedVersion, Reader content);
+
+    /**
+     * Search the posts for the words of the query, best matches first.
+     *
+     * @param query the words to search for.
+     * @param pageable the pagination information, the sort is ignored.
+     * @return the page of matches, with highlighted snippets of the content.
+     */
+    Page<SearchHitDTO> search(String query, Pageable pageable);
+
+    /**
+     * Run a chunk of bulk operations on posts, in a single transaction.
+     * <p>
+     * Invalid operations only get an error result. Database failures (such as a constraint violation at flush) are
+     * thrown, and roll back the whole chunk.
+     *
+     * @param operations the operations to run.
+     * @return the results of the operations, in the same order.
+     */
+    List<BulkResultDTO> bulk(List<BulkOperationDTO<PostDTO>> operations);
+
     /**
      * Delete the "id" post.
      *
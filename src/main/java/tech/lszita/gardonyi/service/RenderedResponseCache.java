@@ -0,0 +1,160 @@
+package tech.lszita.gardonyi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.lszita.gardonyi.repository.CacheInvalidationBus;
+import tech.lszita.gardonyi.service.dto.VersionedDTO;
+
+/**
+ * Cache of the serialized JSON representation of single entities, keyed by entity id so that the writes can evict
+ * them without knowing their version.
+ * <p>
+ * Each entry keeps the version and last modification date of the entity it was rendered from, so that
+ * conditional requests can be answered from the cache as well.
+ * <p>
+ * Reads served from this cache skip the transaction, the mapper and Jackson altogether. Writes must call
+ * {@link #evict(String, Long)}: the entry is evicted immediately, and once again after the surrounding transaction
+ * commits. The evictions of each id are counted, and a read only caches what it loaded if the id was not evicted in
+ * the meantime: a concurrent read that loaded the state from before the commit cannot put it back.
+ */
+@Component
+public class RenderedResponseCache {
+
+    public static final String RENDERED_POSTS_CACHE = "renderedPosts";
+
+    public static final String RENDERED_PAGES_CACHE = "renderedPages";
+
+    // Number of counters the evictions are spread over, must be a power of 2
+    private static final int EVICTION_STRIPES = 1024;
+
+    private final CacheManager cacheManager;
+
+    private final ObjectMapper objectMapper;
+
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    /**
+     * Evictions by cache and id, sharing counters: the eviction of another entity only skips a put.
+     */
+    private final AtomicLongArray evictions = new AtomicLongArray(EVICTION_STRIPES);
+
+    public RenderedResponseCache(CacheManager cacheManager, ObjectMapper objectMapper, CacheInvalidationBus cacheInvalidationBus) {
+        this.cacheManager = cacheManager;
+        this.objectMapper = objectMapper;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+    }
+
+    /**
+     * Get the serialized JSON of the "id" entity, rendering and caching it on a miss.
+     *
+     * @param cacheName the name of the cache.
+     * @param id the id of the entity.
+     * @param loader loads the DTO to render on a cache miss.
+     * @return the rendered entity, or empty if the loader found nothing.
+     */
+    public Optional<Rendered> get(String cacheName, Long id, Supplier<? extends Optional<? extends VersionedDTO>> loader) {
+        Cache cache = getCache(cacheName);
+        Rendered cached = cache.get(id, Rendered.class);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        int stripe = stripe(cacheName, id);
+        long evictionsBefore = evictions.get(stripe);
+        Optional<Rendered> rendered = loader.get().map(dto -> new Rendered(render(dto), dto.getVersion(), dto.getLastModifiedDate()));
+        if (rendered.isPresent() && evictions.get(stripe) == evictionsBefore) {
+            cache.put(id, rendered.get());
+            // Evicted between the check and the put
+            if (evictions.get(stripe) != evictionsBefore) {
+                cache.evict(id);
+            }
+        }
+        return rendered;
+    }
+
+    /**
+     * Evict the "id" entity, now and after the current transaction commits, and from the other nodes.
+     *
+     * @param cacheName the name of the cache.
+     * @param id the id of the entity.
+     */
+    public void evict(String cacheName, Long id) {
+        if (id == null) {
+            return;
+        }
+        Cache cache = getCache(cacheName);
+        int stripe = stripe(cacheName, id);
+        evictions.incrementAndGet(stripe);
+        cache.evict(id);
+        cacheInvalidationBus.publishCacheEviction(cacheName, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        evictions.incrementAndGet(stripe);
+                        cache.evict(id);
+                    }
+                }
+            );
+        }
+    }
+
+    private byte[] render(Object dto) {
+        try {
+            return objectMapper.writeValueAsBytes(dto);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + dto.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static int stripe(String cacheName, Long id) {
+        return (31 * cacheName.hashCode() + id.hashCode()) & (EVICTION_STRIPES - 1);
+    }
+
+    private Cache getCache(String cacheName) {
+        return Objects.requireNonNull(cacheManager.getCache(cacheName), cacheName);
+    }
+
+    /**
+     * The serialized JSON of an entity, with the validators of the state it was rendered from.
+     */
+    public static class Rendered implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] body;
+
+        private final Long version;
+
+        private final Instant lastModifiedDate;
+
+        public Rendered(byte[] body, Long version, Instant lastModifiedDate) {
+            this.body = body;
+            this.version = version;
+            this.lastModifiedDate = lastModifiedDate;
+        }
+
+        public byte[] getBody() {
+            return body;
+        }
+
+        public Long getVersion() {
+            return version;
+        }
+
+        public Instant getLastModifiedDate() {
+            return lastModifiedDate;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package tech.lszita.gardonyi.service;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * How the total number of elements of a paginated list is found, for the {@code X-Total-Count} header.
+ */
+public enum TotalCount {
+    /**
+     * Counted, the count being cached until the next write of the table.
+     */
+    EXACT,
+
+    /**
+     * Estimated from the statistics of the database (PostgreSQL), for the tables too large to be counted. Counted as
+     * {@link #EXACT} when the table is small or no estimate is available.
+     */
+    ESTIMATED,
+
+    /**
+     * Not counted, the list is a slice only telling whether there is a next page.
+     */
+    NONE;
+
+    /**
+     * Find a total count from its name, as given in a request parameter.
+     *
+     * @param name the name of the total count, case insensitive.
+     * @return the total count, or empty if unknown.
+     */
+    public static Optional<TotalCount> of(String name) {
+        return Arrays.stream(values()).filter(totalCount -> totalCount.name().equals(name.toUpperCase(Locale.ROOT))).findFirst();
+    }
+}
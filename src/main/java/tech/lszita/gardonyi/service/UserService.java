@@ -10,6 +10,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -19,6 +20,7 @@ import tech.lszita.gardonyi.config.Constants;
 import tech.lszita.gardonyi.domain.Authority;
 import tech.lszita.gardonyi.domain.User;
 import tech.lszita.gardonyi.repository.AuthorityRepository;
+import tech.lszita.gardonyi.repository.CacheInvalidationBus;
 import tech.lszita.gardonyi.repository.PersistentTokenRepository;
 import tech.lszita.gardonyi.repository.UserRepository;
 import tech.lszita.gardonyi.security.AuthoritiesConstants;
@@ -33,6 +35,8 @@ import tech.lszita.gardonyi.service.dto.UserDTO;
 @Transactional
 public class UserService {
 
+    private static final String USER_TABLE = "jhi_user";
+
     private final Logger log = LoggerFactory.getLogger(UserService.class);
 
     private final UserRepository userRepository;
@@ -45,18 +49,26 @@ public class UserService {
 
     private final CacheManager cacheManager;
 
+    private final CacheInvalidationBus cacheInvalidationBus;
+
+    private final ListingCache listingCache;
+
     public UserService(
         UserRepository userRepository,
         PasswordEncoder passwordEncoder,
         PersistentTokenRepository persistentTokenRepository,
         AuthorityRepository authorityRepository,
-        CacheManager cacheManager
+        CacheManager cacheManager,
+        CacheInvalidationBus cacheInvalidationBus,
+        ListingCache listingCache
     ) {
         this.userRepository = userRepository;
         this.passwordEncoder = passwordEncoder;
         this.persistentTokenRepository = persistentTokenRepository;
         this.authorityRepository = authorityRepository;
         this.cacheManager = cacheManager;
+        this.cacheInvalidationBus = cacheInvalidationBus;
+        this.listingCache = listingCache;
     }
 
     public Optional<User> activateRegistration(String key) {
@@ -278,8 +290,15 @@ public class UserService {
     }
 
     @Transactional(readOnly = true)
-    public Page<AdminUserDTO> getAllManagedUsers(Pageable pageable) {
-        return userRepository.findAll(pageable).map(AdminUserDTO::new);
+    public Slice<AdminUserDTO> getAllManagedUsers(Pageable pageable, TotalCount totalCount) {
+        return listingCache.getPage(
+            ListingCache.USER_LISTINGS_CACHE,
+            USER_TABLE,
+            pageable,
+            totalCount,
+            page -> userRepository.findAllByIdNotNull(page).map(AdminUserDTO::new),
+            userRepository::count
+        );
     }
 
     @Transactional(readOnly = true)
@@ -342,9 +361,12 @@ public class UserService {
     }
 
     private void clearUserCaches(User user) {
+        listingCache.evict(ListingCache.USER_LISTINGS_CACHE);
         Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE)).evict(user.getLogin());
+        cacheInvalidationBus.publishCacheEviction(UserRepository.USERS_BY_LOGIN_CACHE, user.getLogin());
         if (user.getEmail() != null) {
             Objects.requireNonNull(cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE)).evict(user.getEmail());
+            cacheInvalidationBus.publishCacheEviction(UserRepository.USERS_BY_EMAIL_CACHE, user.getEmail());
         }
     }
 }
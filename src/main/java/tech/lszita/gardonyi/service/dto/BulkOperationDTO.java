@@ -0,0 +1,79 @@
+package tech.lszita.gardonyi.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.io.Serializable;
+
+/**
+ * A DTO for one operation of a bulk request.
+ * <p>
+ * {@code create} and {@code update} operations carry the entity in {@code data}, {@code delete} operations only
+ * carry the {@code id} of the entity.
+ *
+ * @param <D> the type of the entity DTO.
+ */
+public class BulkOperationDTO<D> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The action of an operation.
+     */
+    public enum Action {
+        @JsonProperty("create")
+        CREATE,
+        @JsonProperty("update")
+        UPDATE,
+        @JsonProperty("delete")
+        DELETE,
+    }
+
+    private Action action;
+
+    private Long id;
+
+    private D data;
+
+    public BulkOperationDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BulkOperationDTO(Action action, Long id, D data) {
+        this.action = action;
+        this.id = id;
+        this.data = data;
+    }
+
+    public Action getAction() {
+        return action;
+    }
+
+    public void setAction(Action action) {
+        this.action = action;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public D getData() {
+        return data;
+    }
+
+    public void setData(D data) {
+        this.data = data;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkOperationDTO{" +
+            "action=" + getAction() +
+            ", id=" + getId() +
+            ", data=" + getData() +
+            "}";
+    }
+}
@@ -0,0 +1,88 @@
+package tech.lszita.gardonyi.service.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import java.io.Serializable;
+
+/**
+ * A DTO for the result of one operation of a bulk request.
+ * <p>
+ * The {@code status} is the HTTP status the operation would have had as a single request.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BulkResultDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private int index;
+
+    private BulkOperationDTO.Action action;
+
+    private Long id;
+
+    private int status;
+
+    private String error;
+
+    public BulkResultDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public BulkResultDTO(BulkOperationDTO.Action action, Long id, int status, String error) {
+        this.action = action;
+        this.id = id;
+        this.status = status;
+        this.error = error;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public BulkOperationDTO.Action getAction() {
+        return action;
+    }
+
+    public void setAction(BulkOperationDTO.Action action) {
+        this.action = action;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public void setStatus(int status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "BulkResultDTO{" +
+            "index=" + getIndex() +
+            ", action=" + getAction() +
+            ", id=" + getId() +
+            ", status=" + getStatus() +
+            ", error='" + getError() + "'" +
+            "}";
+    }
+}
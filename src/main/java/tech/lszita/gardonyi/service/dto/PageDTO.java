@@ -1,13 +1,14 @@
 package tech.lszita.gardonyi.service.dto;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Objects;
 
 /**
  * A DTO for the {@link tech.lszita.gardonyi.domain.PageEntity} entity.
  */
 @SuppressWarnings("common-java:DuplicatedBlocks")
-public class PageDTO implements Serializable {
+public class PageDTO implements VersionedDTO, Serializable {
 
     private Long id;
 
@@ -15,6 +16,10 @@ public class PageDTO implements Serializable {
 
     private String content;
 
+    private Long version;
+
+    private Instant lastModifiedDate;
+
     public Long getId() {
         return id;
     }
@@ -39,6 +44,24 @@ public class PageDTO implements Serializable {
         this.content = content;
     }
 
+    @Override
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -67,6 +90,8 @@ public class PageDTO implements Serializable {
             "id=" + getId() +
             ", title='" + getTitle() + "'" +
             ", content='" + getContent() + "'" +
+            ", version=" + getVersion() +
+            ", lastModifiedDate='" + getLastModifiedDate() + "'" +
             "}";
     }
 }
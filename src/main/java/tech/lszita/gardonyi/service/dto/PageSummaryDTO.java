@@ -0,0 +1,72 @@
+package tech.lszita.gardonyi.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A summary DTO for the {@link tech.lszita.gardonyi.domain.PageEntity} entity, used by the compact list views.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class PageSummaryDTO implements Serializable {
+
+    private Long id;
+
+    private String title;
+
+    private String excerpt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public void setExcerpt(String excerpt) {
+        this.excerpt = excerpt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PageSummaryDTO)) {
+            return false;
+        }
+
+        PageSummaryDTO pageSummaryDTO = (PageSummaryDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, pageSummaryDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PageSummaryDTO{" +
+            "id=" + getId() +
+            ", title='" + getTitle() + "'" +
+            ", excerpt='" + getExcerpt() + "'" +
+            "}";
+    }
+}
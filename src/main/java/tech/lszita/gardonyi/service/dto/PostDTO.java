@@ -1,13 +1,14 @@
 package tech.lszita.gardonyi.service.dto;
 
 import java.io.Serializable;
+import java.time.Instant;
 import java.util.Objects;
 
 /**
  * A DTO for the {@link tech.lszita.gardonyi.domain.Post} entity.
  */
 @SuppressWarnings("common-java:DuplicatedBlocks")
-public class PostDTO implements Serializable {
+public class PostDTO implements VersionedDTO, Serializable {
 
     private Long id;
 
@@ -17,6 +18,10 @@ public class PostDTO implements Serializable {
 
     private String author;
 
+    private Long version;
+
+    private Instant lastModifiedDate;
+
     public Long getId() {
         return id;
     }
@@ -49,6 +54,24 @@ public class PostDTO implements Serializable {
         this.author = author;
     }
 
+    @Override
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    @Override
+    public Instant getLastModifiedDate() {
+        return lastModifiedDate;
+    }
+
+    public void setLastModifiedDate(Instant lastModifiedDate) {
+        this.lastModifiedDate = lastModifiedDate;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
@@ -78,6 +101,8 @@ public class PostDTO implements Serializable {
             ", title='" + getTitle() + "'" +
             ", content='" + getContent() + "'" +
             ", author='" + getAuthor() + "'" +
+            ", version=" + getVersion() +
+            ", lastModifiedDate='" + getLastModifiedDate() + "'" +
             "}";
     }
 }
@@ -0,0 +1,83 @@
+package tech.lszita.gardonyi.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A summary DTO for the {@link tech.lszita.gardonyi.domain.Post} entity, used by the compact list views.
+ */
+@SuppressWarnings("common-java:DuplicatedBlocks")
+public class PostSummaryDTO implements Serializable {
+
+    private Long id;
+
+    private String title;
+
+    private String author;
+
+    private String excerpt;
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getAuthor() {
+        return author;
+    }
+
+    public void setAuthor(String author) {
+        this.author = author;
+    }
+
+    public String getExcerpt() {
+        return excerpt;
+    }
+
+    public void setExcerpt(String excerpt) {
+        this.excerpt = excerpt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof PostSummaryDTO)) {
+            return false;
+        }
+
+        PostSummaryDTO postSummaryDTO = (PostSummaryDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, postSummaryDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "PostSummaryDTO{" +
+            "id=" + getId() +
+            ", title='" + getTitle() + "'" +
+            ", author='" + getAuthor() + "'" +
+            ", excerpt='" + getExcerpt() + "'" +
+            "}";
+    }
+}
@@ -0,0 +1,96 @@
+package tech.lszita.gardonyi.service.dto;
+
+import java.io.Serializable;
+import java.util.Objects;
+import tech.lszita.gardonyi.repository.SearchHit;
+
+/**
+ * A DTO for the full-text search matches of posts and pages.
+ */
+public class SearchHitDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private Long id;
+
+    private String title;
+
+    private String snippet;
+
+    private double score;
+
+    public SearchHitDTO() {
+        // Empty constructor needed for Jackson.
+    }
+
+    public SearchHitDTO(SearchHit hit) {
+        this.id = hit.getId();
+        this.title = hit.getTitle();
+        this.snippet = hit.getSnippet();
+        this.score = hit.getScore();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public void setTitle(String title) {
+        this.title = title;
+    }
+
+    public String getSnippet() {
+        return snippet;
+    }
+
+    public void setSnippet(String snippet) {
+        this.snippet = snippet;
+    }
+
+    public double getScore() {
+        return score;
+    }
+
+    public void setScore(double score) {
+        this.score = score;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof SearchHitDTO)) {
+            return false;
+        }
+
+        SearchHitDTO searchHitDTO = (SearchHitDTO) o;
+        if (this.id == null) {
+            return false;
+        }
+        return Objects.equals(this.id, searchHitDTO.id);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.id);
+    }
+
+    // prettier-ignore
+    @Override
+    public String toString() {
+        return "SearchHitDTO{" +
+            "id=" + getId() +
+            ", title='" + getTitle() + "'" +
+            ", snippet='" + getSnippet() + "'" +
+            ", score=" + getScore() +
+            "}";
+    }
+}
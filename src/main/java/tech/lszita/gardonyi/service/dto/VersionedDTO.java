@@ -0,0 +1,15 @@
+package tech.lszita.gardonyi.service.dto;
+
+import java.time.Instant;
+
+/**
+ * A DTO of an entity carrying an optimistic lock version and a last modification date,
+ * used as validators for conditional requests.
+ */
+public interface VersionedDTO {
+    Long getId();
+
+    Long getVersion();
+
+    Instant getLastModifiedDate();
+}
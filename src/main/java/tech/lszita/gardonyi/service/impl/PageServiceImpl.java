@@ -1,16 +1,41 @@
 package tech.lszita.gardonyi.service.impl;
 
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import tech.lszita.gardonyi.domain.PageEntity;
+import tech.lszita.gardonyi.repository.ContentBodyRepository;
+import tech.lszita.gardonyi.repository.ContentSearchRepository;
 import tech.lszita.gardonyi.repository.PageRepository;
+import tech.lszita.gardonyi.service.ContentIndexer;
+import tech.lszita.gardonyi.service.ListingCache;
 import tech.lszita.gardonyi.service.PageService;
+import tech.lszita.gardonyi.service.RenderedResponseCache;
+import tech.lszita.gardonyi.service.TotalCount;
+import tech.lszita.gardonyi.service.dto.BulkOperationDTO;
+import tech.lszita.gardonyi.service.dto.BulkResultDTO;
 import tech.lszita.gardonyi.service.dto.PageDTO;
+import tech.lszita.gardonyi.service.dto.PageSummaryDTO;
+import tech.lszita.gardonyi.service.dto.SearchHitDTO;
 import tech.lszita.gardonyi.service.mapper.PageMapper;
 
 /**
@@ -26,16 +51,45 @@ public class PageServiceImpl implements PageService {
 
     private final PageMapper pageMapper;
 
-    public PageServiceImpl(PageRepository pageRepository, PageMapper pageMapper) {
+    private final RenderedResponseCache renderedResponseCache;
+
+    private final ListingCache listingCache;
+
+    private final ContentSearchRepository contentSearchRepository;
+
+    private final ContentIndexer contentIndexer;
+
+    private final ContentBodyRepository contentBodyRepository;
+
+    private final EntityManager entityManager;
+
+    public PageServiceImpl(
+        PageRepository pageRepository,
+        PageMapper pageMapper,
+        RenderedResponseCache renderedResponseCache,
+        ListingCache listingCache,
+        ContentSearchRepository contentSearchRepository,
+        ContentIndexer contentIndexer,
+        ContentBodyRepository contentBodyRepository,
+        EntityManager entityManager
+    ) {
         this.pageRepository = pageRepository;
         this.pageMapper = pageMapper;
+        this.renderedResponseCache = renderedResponseCache;
+        this.listingCache = listingCache;
+        this.contentSearchRepository = contentSearchRepository;
+        this.contentIndexer = contentIndexer;
+        this.contentBodyRepository = contentBodyRepository;
+        this.entityManager = entityManager;
     }
 
     @Override
     public PageDTO save(PageDTO pageDTO) {
         log.debug("Request to save Page : {}", pageDTO);
         PageEntity page = pageMapper.toEntity(pageDTO);
-        page = pageRepository.save(page);
+        page = index(pageRepository.save(page));
+        renderedResponseCache.evict(RenderedResponseCache.RENDERED_PAGES_CACHE, page.getId());
+        listingCache.evict(ListingCache.PAGE_LISTINGS_CACHE);
         return pageMapper.toDto(page);
     }
 
@@ -43,7 +97,13 @@ public class PageServiceImpl implements PageService {
     public PageDTO update(PageDTO pageDTO) {
         log.debug("Request to update Page : {}", pageDTO);
         PageEntity page = pageMapper.toEntity(pageDTO);
-        page = pageRepository.save(page);
+        if (page.getVersion() == null) {
+            // Clients not sending the version are not subject to the optimistic lock check
+            pageRepository.findById(page.getId()).map(PageEntity::getVersion).ifPresent(page::setVersion);
+        }
+        page = index(pageRepository.save(page));
+        renderedResponseCache.evict(RenderedResponseCache.RENDERED_PAGES_CACHE, page.getId());
+        listingCache.evict(ListingCache.PAGE_LISTINGS_CACHE);
         return pageMapper.toDto(page);
     }
 
@@ -51,6 +111,8 @@ public class PageServiceImpl implements PageService {
     public Optional<PageDTO> partialUpdate(PageDTO pageDTO) {
         log.debug("Request to partially update Page : {}", pageDTO);
 
+        renderedResponseCache.evict(RenderedResponseCache.RENDERED_PAGES_CACHE, pageDTO.getId());
+        listingCache.evict(ListingCache.PAGE_LISTINGS_CACHE);
         return pageRepository
             .findById(pageDTO.getId())
             .map(existingPage -> {
@@ -59,14 +121,45 @@ public class PageServiceImpl implements PageService {
                 return existingPage;
             })
             .map(pageRepository::save)
+            .map(this::index)
             .map(pageMapper::toDto);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public Page<PageDTO> findAll(Pageable pageable) {
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Slice<PageDTO> findAll(Pageable pageable, TotalCount totalCount) {
         log.debug("Request to get all Pages");
-        return pageRepository.findAll(pageable).map(pageMapper::toDto);
+        return listingCache.getPage(
+            ListingCache.PAGE_LISTINGS_CACHE,
+            ContentSearchRepository.Content.PAGES.getTable(),
+            pageable,
+            totalCount,
+            page -> pageRepository.findListings(page).map(pageMapper::toDto),
+            pageRepository::count
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PageSummaryDTO> findAllSummaries(Pageable pageable) {
+        log.debug("Request to get the summaries of all Pages");
+        return pageRepository.findAllSummaries(pageable).map(pageMapper::toSummaryDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<PageDTO> consumer) {
+        log.debug("Request to export all Pages");
+        try (Stream<PageEntity> pages = pageRepository.streamAll()) {
+            int count = 0;
+            for (Iterator<PageEntity> iterator = pages.iterator(); iterator.hasNext();) {
+                consumer.accept(pageMapper.toDto(iterator.next()));
+                // Detach the exported pages, so the persistence context doesn't grow with the table
+                if (++count % PageRepository.STREAM_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
     }
 
     @Override
@@ -76,9 +169,125 @@ public class PageServiceImpl implements PageService {
         return pageRepository.findById(id).map(pageMapper::toDto);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<RenderedResponseCache.Rendered> findOneRendered(Long id) {
+        log.debug("Request to get rendered Page : {}", id);
+        return renderedResponseCache.get(
+            RenderedResponseCache.RENDERED_PAGES_CACHE,
+            id,
+            () -> pageRepository.findById(id).map(pageMapper::toDto)
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean readContent(Long id, ContentBodyRepository.ContentSink sink) {
+        log.debug("Request to read the content of Page : {}", id);
+        return contentBodyRepository.read(ContentSearchRepository.Content.PAGES, id, sink);
+    }
+
+    @Override
+    public Optional<Long> updateContent(Long id, Long expectedVersion, Reader content) {
+        log.debug("Request to update the content of Page : {}", id);
+        if (!contentBodyRepository.write(ContentSearchRepository.Content.PAGES, id, expectedVersion, content)) {
+            if (expectedVersion != null && pageRepository.existsById(id)) {
+                throw new OptimisticLockingFailureException("Page " + id + " does not have the version " + expectedVersion);
+            }
+            return Optional.empty();
+        }
+        renderedResponseCache.evict(RenderedResponseCache.RENDERED_PAGES_CACHE, id);
+        listingCache.evict(ListingCache.PAGE_LISTINGS_CACHE);
+        contentIndexer.reindexAfterCommit(ContentSearchRepository.Content.PAGES, id);
+        return contentBodyRepository.findVersion(ContentSearchRepository.Content.PAGES, id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<SearchHitDTO> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Pages for query : {}", query);
+        return contentSearchRepository.search(ContentSearchRepository.Content.PAGES, query, pageable).map(SearchHitDTO::new);
+    }
+
+    @Override
+    public List<BulkResultDTO> bulk(List<BulkOperationDTO<PageDTO>> operations) {
+        log.debug("Request to run {} bulk operations on Pages", operations.size());
+        // The updated and deleted pages are loaded in one query, instead of one by one
+        Set<Long> ids = operations
+            .stream()
+            .map(operation -> operation.getData() != null ? operation.getData().getId() : operation.getId())
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Map<Long, Long> versions = pageRepository
+            .findAllById(ids)
+            .stream()
+            .collect(Collectors.toMap(PageEntity::getId, PageEntity::getVersion));
+        List<BulkResultDTO> results = new ArrayList<>(operations.size());
+        for (BulkOperationDTO<PageDTO> operation : operations) {
+            results.add(bulk(operation, versions));
+        }
+        // Constraint violations are raised here, and roll back the whole chunk
+        pageRepository.flush();
+        return results;
+    }
+
+    private BulkResultDTO bulk(BulkOperationDTO<PageDTO> operation, Map<Long, Long> versions) {
+        BulkOperationDTO.Action action = operation.getAction();
+        PageDTO pageDTO = operation.getData();
+        if (action == null) {
+            return new BulkResultDTO(null, operation.getId(), HttpStatus.BAD_REQUEST.value(), "Missing action");
+        }
+        switch (action) {
+            case CREATE:
+                if (pageDTO == null) {
+                    return new BulkResultDTO(action, null, HttpStatus.BAD_REQUEST.value(), "Missing data");
+                }
+                if (pageDTO.getId() != null) {
+                    return new BulkResultDTO(
+                        action,
+                        pageDTO.getId(),
+                        HttpStatus.BAD_REQUEST.value(),
+                        "A new page cannot already have an ID"
+                    );
+                }
+                return new BulkResultDTO(action, save(pageDTO).getId(), HttpStatus.CREATED.value(), null);
+            case UPDATE:
+                if (pageDTO == null || pageDTO.getId() == null) {
+                    return new BulkResultDTO(action, null, HttpStatus.BAD_REQUEST.value(), "Invalid id");
+                }
+                if (!versions.containsKey(pageDTO.getId())) {
+                    return new BulkResultDTO(action, pageDTO.getId(), HttpStatus.NOT_FOUND.value(), "Entity not found");
+                }
+                if (pageDTO.getVersion() != null && !pageDTO.getVersion().equals(versions.get(pageDTO.getId()))) {
+                    return new BulkResultDTO(action, pageDTO.getId(), HttpStatus.CONFLICT.value(), "Entity was updated concurrently");
+                }
+                pageDTO.setVersion(versions.get(pageDTO.getId()));
+                return new BulkResultDTO(action, update(pageDTO).getId(), HttpStatus.OK.value(), null);
+            case DELETE:
+                if (operation.getId() == null) {
+                    return new BulkResultDTO(action, null, HttpStatus.BAD_REQUEST.value(), "Invalid id");
+                }
+                if (versions.remove(operation.getId()) == null) {
+                    return new BulkResultDTO(action, operation.getId(), HttpStatus.NOT_FOUND.value(), "Entity not found");
+                }
+                delete(operation.getId());
+                return new BulkResultDTO(action, operation.getId(), HttpStatus.NO_CONTENT.value(), null);
+            default:
+                throw new IllegalStateException("Unknown bulk action " + action);
+        }
+    }
+
     @Override
     public void delete(Long id) {
         log.debug("Request to delete Page : {}", id);
         pageRepository.deleteById(id);
+        contentIndexer.removeAfterCommit(ContentSearchRepository.Content.PAGES, id);
+        renderedResponseCache.evict(RenderedResponseCache.RENDERED_PAGES_CACHE, id);
+        listingCache.evict(ListingCache.PAGE_LISTINGS_CACHE);
+    }
+
+    private PageEntity index(PageEntity page) {
+        contentIndexer.indexAfterCommit(ContentSearchRepository.Content.PAGES, page.getId(), page.getTitle(), page.getContent());
+        return page;
     }
 }
@@ -1,16 +1,42 @@
 package tech.lszita.gardonyi.service.impl;
 
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import javax.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import tech.lszita.gardonyi.domain.Post;
+import tech.lszita.gardonyi.repository.ContentBodyRepository;
+import tech.lszita.gardonyi.repository.ContentSearchRepository;
 import tech.lszita.gardonyi.repository.PostRepository;
+import tech.lszita.gardonyi.service.ContentIndexer;
+import tech.lszita.gardonyi.service.ListingCache;
 import tech.lszita.gardonyi.service.PostService;
+import tech.lszita.gardonyi.service.RenderedResponseCache;
+import tech.lszita.gardonyi.service.TotalCount;
+import tech.lszita.gardonyi.service.dto.BulkOperationDTO;
+import tech.lszita.gardonyi.service.dto.BulkResultDTO;
 import tech.lszita.gardonyi.service.dto.PostDTO;
+import tech.lszita.gardonyi.service.dto.PostSummaryDTO;
+import tech.lszita.gardonyi.service.dto.SearchHitDTO;
 import tech.lszita.gardonyi.service.mapper.PostMapper;
 
 /**
@@ -26,16 +52,45 @@ public class PostServiceImpl implements PostService {
 
     private final PostMapper postMapper;
 
-    public PostServiceImpl(PostRepository postRepository, PostMapper postMapper) {
+    private final RenderedResponseCache renderedResponseCache;
+
+    private final ListingCache listingCache;
+
+    private final ContentSearchRepository contentSearchRepository;
+
+    private final ContentIndexer contentIndexer;
+
+    private final ContentBodyRepository contentBodyRepository;
+
+    private final EntityManager entityManager;
+
+    public PostServiceImpl(
+        PostRepository postRepository,
+        PostMapper postMapper,
+        RenderedResponseCache renderedResponseCache,
+        ListingCache listingCache,
+        ContentSearchRepository contentSearchRepository,
+        ContentIndexer contentIndexer,
+        ContentBodyRepository contentBodyRepository,
+        EntityManager entityManager
+    ) {
         this.postRepository = postRepository;
         this.postMapper = postMapper;
+        this.renderedResponseCache = renderedResponseCache;
+        this.listingCache = listingCache;
+        this.contentSearchRepository = contentSearchRepository;
+        this.contentIndexer = contentIndexer;
+        this.contentBodyRepository = contentBodyRepository;
+        this.entityManager = entityManager;
     }
 
     @Override
     public PostDTO save(PostDTO postDTO) {
         log.debug("Request to save Post : {}", postDTO);
         Post post = postMapper.toEntity(postDTO);
-        post = postRepository.save(post);
+        post = index(postRepository.save(post));
+        renderedResponseCache.evict(RenderedResponseCache.RENDERED_POSTS_CACHE, post.getId());
+        listingCache.evict(ListingCache.POST_LISTINGS_CACHE);
         return postMapper.toDto(post);
     }
 
@@ -43,7 +98,13 @@ public class PostServiceImpl implements PostService {
     public PostDTO update(PostDTO postDTO) {
         log.debug("Request to update Post : {}", postDTO);
         Post post = postMapper.toEntity(postDTO);
-        post = postRepository.save(post);
+        if (post.getVersion() == null) {
+            // Clients not sending the version are not subject to the optimistic lock check
+            postRepository.findById(post.getId()).map(Post::getVersion).ifPresent(post::setVersion);
+        }
+        post = index(postRepository.save(post));
+        renderedResponseCache.evict(RenderedResponseCache.RENDERED_POSTS_CACHE, post.getId());
+        listingCache.evict(ListingCache.POST_LISTINGS_CACHE);
         return postMapper.toDto(post);
     }
 
@@ -51,6 +112,8 @@ public class PostServiceImpl implements PostService {
     public Optional<PostDTO> partialUpdate(PostDTO postDTO) {
         log.debug("Request to partially update Post : {}", postDTO);
 
+        renderedResponseCache.evict(RenderedResponseCache.RENDERED_POSTS_CACHE, postDTO.getId());
+        listingCache.evict(ListingCache.POST_LISTINGS_CACHE);
         return postRepository
             .findById(postDTO.getId())
             .map(existingPost -> {
@@ -59,14 +122,54 @@ public class PostServiceImpl implements PostService {
                 return existingPost;
             })
             .map(postRepository::save)
+            .map(this::index)
             .map(postMapper::toDto);
     }
 
     @Override
-    @Transactional(readOnly = true)
-    public Page<PostDTO> findAll(Pageable pageable) {
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Slice<PostDTO> findAll(Pageable pageable, TotalCount totalCount) {
         log.debug("Request to get all Posts");
-        return postRepository.findAll(pageable).map(postMapper::toDto);
+        return listingCache.getPage(
+            ListingCache.POST_LISTINGS_CACHE,
+            ContentSearchRepository.Content.POSTS.getTable(),
+            pageable,
+            totalCount,
+            page -> postRepository.findListings(page).map(postMapper::toDto),
+            postRepository::count
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<PostSummaryDTO> findAllSummaries(Pageable pageable) {
+        log.debug("Request to get the summaries of all Posts");
+        return postRepository.findAllSummaries(pageable).map(postMapper::toSummaryDto);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<PostDTO> consumer) {
+        log.debug("Request to export all Posts");
+        try (Stream<Post> posts = postRepository.streamAll()) {
+            int count = 0;
+            for (Iterator<Post> iterator = posts.iterator(); iterator.hasNext();) {
+                consumer.accept(postMapper.toDto(iterator.next()));
+                // Detach the exported posts, so the persistence context doesn't grow with the table
+                if (++count % PostRepository.STREAM_FETCH_SIZE == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Slice<PostDTO> findAllAfter(Long after, int size) {
+        log.debug("Request to get Posts after : {}", after);
+        return postRepository
+            .findListingsByIdGreaterThan(after != null ? after : Long.MIN_VALUE, PageRequest.ofSize(size))
+            .map(postMapper::toDto);
     }
 
     @Override
@@ -76,9 +179,122 @@ public class PostServiceImpl implements PostService {
         return postRepository.findById(id).map(postMapper::toDto);
     }
 
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public Optional<RenderedResponseCache.Rendered> findOneRendered(Long id) {
+        log.debug("Request to get rendered Post : {}", id);
+        return renderedResponseCache.get(
+            RenderedResponseCache.RENDERED_POSTS_CACHE,
+            id,
+            () -> postRepository.findById(id).map(postMapper::toDto)
+        );
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public boolean readContent(Long id, ContentBodyRepository.ContentSink sink) {
+        log.debug("Request to read the content of Post : {}", id);
+        return contentBodyRepository.read(ContentSearchRepository.Content.POSTS, id, sink);
+    }
+
+    @Override
+    public Optional<Long> updateContent(Long id, Long expectedVersion, Reader content) {
+        log.debug("Request to update the content of Post : {}", id);
+        if (!contentBodyRepository.write(ContentSearchRepository.Content.POSTS, id, expectedVersion, content)) {
+            if (expectedVersion != null && postRepository.existsById(id)) {
+                throw new OptimisticLockingFailureException("Post " + id + " does not have the version " + expectedVersion);
+            }
+            return Optional.empty();
+        }
+        renderedResponseCache.evict(RenderedResponseCache.RENDERED_POSTS_CACHE, id);
+        listingCache.evict(ListingCache.POST_LISTINGS_CACHE);
+        contentIndexer.reindexAfterCommit(ContentSearchRepository.Content.POSTS, id);
+        return contentBodyRepository.findVersion(ContentSearchRepository.Content.POSTS, id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<SearchHitDTO> search(String query, Pageable pageable) {
+        log.debug("Request to search for a page of Posts for query : {}", query);
+        return contentSearchRepository.search(ContentSearchRepository.Content.POSTS, query, pageable).map(SearchHitDTO::new);
+    }
+
+    @Override
+    public List<BulkResultDTO> bulk(List<BulkOperationDTO<PostDTO>> operations) {
+        log.debug("Request to run {} bulk operations on Posts", operations.size());
+        // The updated and deleted posts are loaded in one query, instead of one by one
+        Set<Long> ids = operations
+            .stream()
+            .map(operation -> operation.getData() != null ? operation.getData().getId() : operation.getId())
+            .filter(Objects::nonNull)
+            .collect(Collectors.toSet());
+        Map<Long, Long> versions = postRepository.findAllById(ids).stream().collect(Collectors.toMap(Post::getId, Post::getVersion));
+        List<BulkResultDTO> results = new ArrayList<>(operations.size());
+        for (BulkOperationDTO<PostDTO> operation : operations) {
+            results.add(bulk(operation, versions));
+        }
+        // Constraint violations are raised here, and roll back the whole chunk
+        postRepository.flush();
+        return results;
+    }
+
+    private BulkResultDTO bulk(BulkOperationDTO<PostDTO> operation, Map<Long, Long> versions) {
+        BulkOperationDTO.Action action = operation.getAction();
+        PostDTO postDTO = operation.getData();
+        if (action == null) {
+            return new BulkResultDTO(null, operation.getId(), HttpStatus.BAD_REQUEST.value(), "Missing action");
+        }
+        switch (action) {
+            case CREATE:
+                if (postDTO == null) {
+                    return new BulkResultDTO(action, null, HttpStatus.BAD_REQUEST.value(), "Missing data");
+                }
+                if (postDTO.getId() != null) {
+                    return new BulkResultDTO(
+                        action,
+                        postDTO.getId(),
+                        HttpStatus.BAD_REQUEST.value(),
+                        "A new post cannot already have an ID"
+                    );
+                }
+                return new BulkResultDTO(action, save(postDTO).getId(), HttpStatus.CREATED.value(), null);
+            case UPDATE:
+                if (postDTO == null || postDTO.getId() == null) {
+                    return new BulkResultDTO(action, null, HttpStatus.BAD_REQUEST.value(), "Invalid id");
+                }
+                if (!versions.containsKey(postDTO.getId())) {
+                    return new BulkResultDTO(action, postDTO.getId(), HttpStatus.NOT_FOUND.value(), "Entity not found");
+                }
+                if (postDTO.getVersion() != null && !postDTO.getVersion().equals(versions.get(postDTO.getId()))) {
+                    return new BulkResultDTO(action, postDTO.getId(), HttpStatus.CONFLICT.value(), "Entity was updated concurrently");
+                }
+                postDTO.setVersion(versions.get(postDTO.getId()));
+                return new BulkResultDTO(action, update(postDTO).getId(), HttpStatus.OK.value(), null);
+            case DELETE:
+                if (operation.getId() == null) {
+                    return new BulkResultDTO(action, null, HttpStatus.BAD_REQUEST.value(), "Invalid id");
+                }
+                if (versions.remove(operation.getId()) == null) {
+                    return new BulkResultDTO(action, operation.getId(), HttpStatus.NOT_FOUND.value(), "Entity not found");
+                }
+                delete(operation.getId());
+                return new BulkResultDTO(action, operation.getId(), HttpStatus.NO_CONTENT.value(), null);
+            default:
+                throw new IllegalStateException("Unknown bulk action " + action);
+        }
+    }
+
     @Override
     public void delete(Long id) {
         log.debug("Request to delete Post : {}", id);
         postRepository.deleteById(id);
+        contentIndexer.removeAfterCommit(ContentSearchRepository.Content.POSTS, id);
+        renderedResponseCache.evict(RenderedResponseCache.RENDERED_POSTS_CACHE, id);
+        listingCache.evict(ListingCache.POST_LISTINGS_CACHE);
+    }
+
+    private Post index(Post post) {
+        contentIndexer.indexAfterCommit(ContentSearchRepository.Content.POSTS, post.getId(), post.getTitle(), post.getContent());
+        return post;
     }
 }
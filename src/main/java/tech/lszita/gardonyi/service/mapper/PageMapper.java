@@ -2,10 +2,18 @@ package tech.lszita.gardonyi.service.mapper;
 
 import org.mapstruct.*;
 import tech.lszita.gardonyi.domain.PageEntity;
+import tech.lszita.gardonyi.repository.PageListing;
+import tech.lszita.gardonyi.repository.PageSummary;
 import tech.lszita.gardonyi.service.dto.PageDTO;
+import tech.lszita.gardonyi.service.dto.PageSummaryDTO;
 
 /**
  * Mapper for the entity {@link PageEntity} and its DTO {@link PageDTO}.
  */
 @Mapper(componentModel = "spring")
-public interface PageMapper extends EntityMapper<PageDTO, PageEntity> {}
+public interface PageMapper extends EntityMapper<PageDTO, PageEntity> {
+    @Mapping(target = "content", ignore = true)
+    PageDTO toDto(PageListing listing);
+
+    PageSummaryDTO toSummaryDto(PageSummary summary);
+}
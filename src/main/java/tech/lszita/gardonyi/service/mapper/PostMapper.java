@@ -2,10 +2,18 @@ package tech.lszita.gardonyi.service.mapper;
 
 import org.mapstruct.*;
 import tech.lszita.gardonyi.domain.Post;
+import tech.lszita.gardonyi.repository.PostListing;
+import tech.lszita.gardonyi.repository.PostSummary;
 import tech.lszita.gardonyi.service.dto.PostDTO;
+import tech.lszita.gardonyi.service.dto.PostSummaryDTO;
 
 /**
  * Mapper for the entity {@link Post} and its DTO {@link PostDTO}.
  */
 @Mapper(componentModel = "spring")
-public interface PostMapper extends EntityMapper<PostDTO, Post> {}
+public interface PostMapper extends EntityMapper<PostDTO, Post> {
+    @Mapping(target = "content", ignore = true)
+    PostDTO toDto(PostListing listing);
+
+    PostSummaryDTO toSummaryDto(PostSummary summary);
+}
@@ -0,0 +1,198 @@
+package tech.lszita.gardonyi.web.filter;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.ServletResponse;
+import javax.servlet.ServletResponseWrapper;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.web.servlet.WebMvcTags;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tech.lszita.gardonyi.repository.QueryStatistics;
+
+/**
+ * Counts the SQL statements, JDBC time and entity loads of every HTTP request with the {@link QueryStatistics}.
+ * <p>
+ * The statistics are sent in response headers, added when the response body starts being written (all the queries
+ * have run by then, the session is not kept open for the views). The responses written while their queries run, such
+ * as the exports, must be marked with {@link #streamed(HttpServletResponse)}: they only get the headers if they are
+ * still not committed once the request is handled, so the streamed responses larger than the buffer have none. The
+ * statistics of every request are recorded in the
+ * {@code http.server.requests.sql.statements}, {@code http.server.requests.sql.time} and
+ * {@code http.server.requests.entity.loads} meters, tagged with the {@code method} and {@code uri} of the request like
+ * the {@code http.server.requests} timer. A warning is logged when a request executes the same statement at least the
+ * repeated statement threshold times, most likely an N+1 select.
+ */
+public class QueryStatisticsFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-Sql-Statement-Count";
+
+    public static final String JDBC_TIME_HEADER = "X-Sql-Time-Micros";
+
+    public static final String ENTITY_LOAD_COUNT_HEADER = "X-Entity-Load-Count";
+
+    private final Logger log = LoggerFactory.getLogger(QueryStatisticsFilter.class);
+
+    private final boolean headers;
+
+    private final MeterRegistry meterRegistry;
+
+    private final int repeatedStatementThreshold;
+
+    /**
+     * @param headers whether the statistics are sent in response headers.
+     * @param meterRegistry the registry the statistics are recorded in, or {@code null} if they are not recorded.
+     * @param repeatedStatementThreshold the number of executions of a statement from which it is logged, 0 to never log.
+     */
+    public QueryStatisticsFilter(boolean headers, MeterRegistry meterRegistry, int repeatedStatementThreshold) {
+        this.headers = headers;
+        this.meterRegistry = meterRegistry;
+        this.repeatedStatementThreshold = repeatedStatementThreshold;
+    }
+
+    /**
+     * Mark a response as written while its queries run: the statistics headers are not added when its body starts
+     * being written, only once the request is handled if it is not committed yet.
+     *
+     * @param response the response, as given to the handler.
+     */
+    public static void streamed(HttpServletResponse response) {
+        ServletResponse current = response;
+        while (current instanceof ServletResponseWrapper) {
+            if (current instanceof StatisticsHeadersResponse) {
+                ((StatisticsHeadersResponse) current).streamed = true;
+                return;
+            }
+            current = ((ServletResponseWrapper) current).getResponse();
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        QueryStatistics statistics = QueryStatistics.start();
+        StatisticsHeadersResponse headersResponse = headers ? new StatisticsHeadersResponse(response, statistics) : null;
+        try {
+            filterChain.doFilter(request, headersResponse != null ? headersResponse : response);
+        } finally {
+            statistics.stop();
+            if (headersResponse != null) {
+                headersResponse.addStatisticsHeaders();
+            }
+            if (meterRegistry != null) {
+                record(request, response, statistics);
+            }
+            if (repeatedStatementThreshold > 0 && statistics.getMostRepeatedStatementCount() >= repeatedStatementThreshold) {
+                log.warn(
+                    "Possible N+1 select in {} {}: statement executed {} times: {}",
+                    request.getMethod(),
+                    request.getRequestURI(),
+                    statistics.getMostRepeatedStatementCount(),
+                    statistics.getMostRepeatedStatement()
+                );
+            }
+        }
+    }
+
+    private void record(HttpServletRequest request, HttpServletResponse response, QueryStatistics statistics) {
+        Tags tags = Tags.of(WebMvcTags.method(request), WebMvcTags.uri(request, response));
+        DistributionSummary
+            .builder("http.server.requests.sql.statements")
+            .description("SQL statements executed by the HTTP requests")
+            .tags(tags)
+            .register(meterRegistry)
+            .record(statistics.getStatementCount());
+        Timer
+            .builder("http.server.requests.sql.time")
+            .description("Time spent executing SQL statements by the HTTP requests")
+            .tags(tags)
+            .register(meterRegistry)
+            .record(statistics.getJdbcTimeNanos(), TimeUnit.NANOSECONDS);
+        DistributionSummary
+            .builder("http.server.requests.entity.loads")
+            .description("Entities loaded by the HTTP requests")
+            .tags(tags)
+            .register(meterRegistry)
+            .record(statistics.getEntityLoadCount());
+    }
+
+    /**
+     * Response adding the statistics headers before the body is written, or once the request is handled if it has none.
+     */
+    private static final class StatisticsHeadersResponse extends HttpServletResponseWrapper {
+
+        private final QueryStatistics statistics;
+
+        private boolean headersAdded;
+
+        private boolean streamed;
+
+        private StatisticsHeadersResponse(HttpServletResponse response, QueryStatistics statistics) {
+            super(response);
+            this.statistics = statistics;
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            addStatisticsHeadersUnlessStreamed();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            addStatisticsHeadersUnlessStreamed();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            addStatisticsHeadersUnlessStreamed();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            addStatisticsHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            addStatisticsHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            addStatisticsHeaders();
+            super.sendRedirect(location);
+        }
+
+        private void addStatisticsHeadersUnlessStreamed() {
+            if (!streamed) {
+                addStatisticsHeaders();
+            }
+        }
+
+        private void addStatisticsHeaders() {
+            if (headersAdded || isCommitted()) {
+                return;
+            }
+            headersAdded = true;
+            setHeader(STATEMENT_COUNT_HEADER, String.valueOf(statistics.getStatementCount()));
+            setHeader(JDBC_TIME_HEADER, String.valueOf(TimeUnit.NANOSECONDS.toMicros(statistics.getJdbcTimeNanos())));
+            setHeader(ENTITY_LOAD_COUNT_HEADER, String.valueOf(statistics.getEntityLoadCount()));
+        }
+    }
+}
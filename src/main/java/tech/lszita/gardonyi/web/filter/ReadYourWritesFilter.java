@@ -0,0 +1,50 @@
+package tech.lszita.gardonyi.web.filter;
+
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
+import org.springframework.web.filter.OncePerRequestFilter;
+import tech.lszita.gardonyi.repository.ReadYourWrites;
+
+/**
+ * Keeps the {@link ReadYourWrites} of every HTTP session, so that after a request writes to the primary database the
+ * next requests of the session read from it too, instead of from a read replica that may not have caught up yet.
+ * <p>
+ * The time until which the session reads from the primary database is kept in a session attribute, only moved forward:
+ * the requests without a session don't read their writes across requests.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    public static final String PRIMARY_UNTIL_ATTRIBUTE = ReadYourWritesFilter.class.getName() + ".primaryUntil";
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+        long primaryUntil = primaryUntil(request.getSession(false));
+        ReadYourWrites readYourWrites = ReadYourWrites.start(primaryUntil);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            readYourWrites.stop();
+            // The session may have been created or replaced by the request, on login
+            HttpSession session = request.getSession(false);
+            if (readYourWrites.getPrimaryUntilMillis() > primaryUntil && session != null) {
+                try {
+                    if (readYourWrites.getPrimaryUntilMillis() > primaryUntil(session)) {
+                        session.setAttribute(PRIMARY_UNTIL_ATTRIBUTE, readYourWrites.getPrimaryUntilMillis());
+                    }
+                } catch (IllegalStateException e) {
+                    // Invalidated on logout, nothing to read anymore
+                }
+            }
+        }
+    }
+
+    private static long primaryUntil(HttpSession session) {
+        Object primaryUntil = session != null ? session.getAttribute(PRIMARY_UNTIL_ATTRIBUTE) : null;
+        return primaryUntil instanceof Long ? (Long) primaryUntil : 0;
+    }
+}
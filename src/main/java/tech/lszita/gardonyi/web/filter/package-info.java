@@ -0,0 +1,4 @@
+/**
+ * Servlet filters.
+ */
+package tech.lszita.gardonyi.web.filter;
@@ -1,27 +1,45 @@
 package tech.lszita.gardonyi.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.Reader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 import tech.lszita.gardonyi.repository.PageRepository;
 import tech.lszita.gardonyi.service.PageService;
+import tech.lszita.gardonyi.service.TotalCount;
 import tech.lszita.gardonyi.service.dto.PageDTO;
+import tech.lszita.gardonyi.service.dto.PageSummaryDTO;
+import tech.lszita.gardonyi.service.dto.SearchHitDTO;
+import tech.lszita.gardonyi.web.filter.QueryStatisticsFilter;
 import tech.lszita.gardonyi.web.rest.errors.BadRequestAlertException;
+import tech.lszita.gardonyi.web.rest.util.BulkRequestUtil;
+import tech.lszita.gardonyi.web.rest.util.ConditionalRequestUtil;
+import tech.lszita.gardonyi.web.rest.util.ExportUtil;
+import tech.lszita.gardonyi.web.rest.util.SlicePaginationUtil;
 
 /**
  * REST controller for managing {@link tech.lszita.gardonyi.domain.PageEntity}.
@@ -34,16 +52,31 @@ public class PageResource {
 
     private static final String ENTITY_NAME = "page";
 
+    private static final String SUMMARY_VIEW_PARAM = "view=summary";
+
+    private static final String[] EXPORT_COLUMNS = { "id", "title", "version", "lastModifiedDate", "content" };
+
+    private static final MediaType CONTENT_MEDIA_TYPE = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    @Value("${application.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Value("${application.pagination.total-count.pages:exact}")
+    private TotalCount defaultTotalCount;
+
     private final PageService pageService;
 
     private final PageRepository pageRepository;
 
-    public PageResource(PageService pageService, PageRepository pageRepository) {
+    private final ObjectMapper objectMapper;
+
+    public PageResource(PageService pageService, PageRepository pageRepository, ObjectMapper objectMapper) {
         this.pageService = pageService;
         this.pageRepository = pageRepository;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -98,6 +131,24 @@ public class PageResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /pages/_bulk} : create, update and delete pages in bulk.
+     * <p>
+     * The body is either NDJSON (one operation per line) or a JSON array of operations, such as
+     * {@code {"action": "create", "data": {...}}}, {@code {"action": "update", "data": {"id": 1, ...}}} or
+     * {@code {"action": "delete", "id": 1}}. Operations are run in chunks of {@code application.bulk.chunk-size}, one
+     * transaction per chunk, and their results are streamed back in the same format as the request.
+     *
+     * @param request the bulk request.
+     * @param response the response, with status {@code 200 (OK)} and the result of each operation in body.
+     * @throws IOException if the request could not be read or the response could not be written.
+     */
+    @PostMapping(value = "/pages/_bulk", consumes = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public void bulkPages(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to run bulk operations on Pages");
+        BulkRequestUtil.process(request, response, objectMapper, PageDTO.class, bulkChunkSize, pageService::bulk);
+    }
+
     /**
      * {@code PATCH  /pages/:id} : Partial updates given fields of an existing page, field will ignore if it is null
      *
@@ -137,28 +188,169 @@ public class PageResource {
     /**
      * {@code GET  /pages} : get all the pages.
      *
+     * <p>
+     * The response carries an {@code ETag} derived from the ids and versions of the pages returned and the pagination
+     * headers: a matching {@code If-None-Match} gets a {@code 304 (Not Modified)} without a body.
+     *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of pages in body.
+     * @param count how the total number of pages is found: {@code exact}, {@code estimated} or {@code none} for a
+     * slice without {@code X-Total-Count}, defaults to {@code application.pagination.total-count.pages}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of pages in body,
+     * or with status {@code 304 (Not Modified)} if the client copy is up to date,
+     * or with status {@code 400 (Bad Request)} if the count is unknown.
      */
     @GetMapping("/pages")
-    public ResponseEntity<List<PageDTO>> getAllPages(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<PageDTO>> getAllPages(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = SlicePaginationUtil.COUNT_PARAM, required = false) String count,
+        WebRequest request
+    ) {
         log.debug("REST request to get a page of Pages");
-        Page<PageDTO> page = pageService.findAll(pageable);
+        TotalCount totalCount = count == null
+            ? defaultTotalCount
+            : TotalCount.of(count).orElseThrow(() -> new BadRequestAlertException("Unknown total count", ENTITY_NAME, "countinvalid"));
+        Slice<PageDTO> page = pageService.findAll(pageable, totalCount);
+        HttpHeaders headers = SlicePaginationUtil.generatePaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            page,
+            totalCount
+        );
+        if (request.checkNotModified(ConditionalRequestUtil.eTag(page.getContent(), PageResource::validator, headers))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /pages?view=summary} : get the summaries of all the pages, for the compact list views.
+     * <p>
+     * Only the summary columns are read (including a stored excerpt of the content), without loading the pages.
+     * The response carries an {@code ETag} derived from the summaries returned and the pagination headers.
+     *
+     * @param pageable the pagination information.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of page summaries in body,
+     * or with status {@code 304 (Not Modified)} if the client copy is up to date.
+     */
+    @GetMapping(value = "/pages", params = SUMMARY_VIEW_PARAM)
+    public ResponseEntity<List<PageSummaryDTO>> getAllPageSummaries(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        WebRequest request
+    ) {
+        log.debug("REST request to get a page of Page summaries");
+        Page<PageSummaryDTO> page = pageService.findAllSummaries(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        if (request.checkNotModified(ConditionalRequestUtil.eTag(page.getContent(), PageResource::validator, headers))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /pages/_export} : export all the pages, ordered by id.
+     * <p>
+     * The pages are read by a single query, so the export is a consistent snapshot of the table, and streamed to the
+     * response as they are read.
+     *
+     * @param format the format of the export: {@code ndjson} (one page per line, the default) or {@code csv}.
+     * @param response the response, with status {@code 200 (OK)} and the pages in body as an attachment,
+     * or with status {@code 400 (Bad Request)} if the format is unknown.
+     * @throws IOException if the response could not be written.
+     */
+    @GetMapping("/pages/_export")
+    public void exportPages(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+        log.debug("REST request to export all Pages as {}", format);
+        ExportUtil.Format exportFormat = ExportUtil.Format
+            .of(format)
+            .orElseThrow(() -> new BadRequestAlertException("Unknown export format", ENTITY_NAME, "formatinvalid"));
+        try (ExportUtil.ExportWriter<PageDTO> writer = ExportUtil.open(response, exportFormat, "pages", objectMapper, EXPORT_COLUMNS)) {
+            pageService.exportAll(writer);
+        }
+    }
+
     /**
      * {@code GET  /pages/:id} : get the "id" page.
+     * <p>
+     * The serialized pageDTO is served from the rendered response cache, and written out as is, with its
+     * {@code ETag} and {@code Last-Modified} headers: a matching conditional request gets a {@code 304 (Not Modified)}.
      *
      * @param id the id of the pageDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the pageDTO, or with status {@code 404 (Not Found)}.
      */
-    @GetMapping("/pages/{id}")
-    public ResponseEntity<PageDTO> getPage(@PathVariable Long id) {
+    @GetMapping(value = "/pages/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getPage(@PathVariable Long id) {
         log.debug("REST request to get Page : {}", id);
-        Optional<PageDTO> pageDTO = pageService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(pageDTO);
+        return pageService
+            .findOneRendered(id)
+            .map(ConditionalRequestUtil::renderedResponse)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * {@code GET  /pages/:id/content} : get the content of the "id" page, as plain text.
+     * <p>
+     * The content is copied from the database to the response as it is read, instead of being loaded in a pageDTO.
+     * The response carries the {@code ETag} of the page: a matching {@code If-None-Match} gets a {@code 304 (Not Modified)}.
+     *
+     * @param id the id of the page.
+     * @param request the current request.
+     * @param response the response, written directly.
+     * @throws ResponseStatusException with status {@code 404 (Not Found)} if the page is not found.
+     */
+    @GetMapping("/pages/{id}/content")
+    public void getPageContent(@PathVariable Long id, WebRequest request, HttpServletResponse response) {
+        log.debug("REST request to get the content of Page : {}", id);
+        boolean found = pageService.readContent(
+            id,
+            version -> {
+                if (request.checkNotModified(ConditionalRequestUtil.eTag(version))) {
+                    return null;
+                }
+                QueryStatisticsFilter.streamed(response);
+                response.setContentType(CONTENT_MEDIA_TYPE.toString());
+                return response.getWriter();
+            }
+        );
+        if (!found) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * {@code PUT  /pages/:id/content} : replace the content of the "id" page with the request body.
+     * <p>
+     * The body is copied to the database as it is read, its charset defaults to UTF-8. With an {@code If-Match} header,
+     * the content is only replaced if the page still has that {@code ETag}.
+     *
+     * @param id the id of the page.
+     * @param ifMatch the {@code ETag} of the page known by the client, optional.
+     * @param content the new content.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)} and the new {@code ETag} of the page,
+     * or with status {@code 404 (Not Found)} if the page is not found,
+     * or with status {@code 409 (Conflict)} if the page does not match the {@code If-Match} header.
+     */
+    @PutMapping(value = "/pages/{id}/content", consumes = "text/*")
+    public ResponseEntity<Void> updatePageContent(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        Reader content
+    ) {
+        log.debug("REST request to update the content of Page : {}", id);
+        Long expectedVersion;
+        try {
+            expectedVersion = ConditionalRequestUtil.version(ifMatch).orElse(null);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid If-Match header", ENTITY_NAME, "etaginvalid");
+        }
+        Long version = pageService
+            .updateContent(id, expectedVersion, content)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return ResponseEntity
+            .noContent()
+            .eTag(ConditionalRequestUtil.eTag(version))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, id.toString()))
+            .build();
     }
 
     /**
@@ -176,4 +368,33 @@ public class PageResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * {@code SEARCH  /_search/pages?q=:query} : search for the pages containing the words of the query.
+     * <p>
+     * Results are ordered by relevance, with a snippet of the content where the matched words are highlighted
+     * with {@code <mark>} tags.
+     *
+     * @param query the query of the page search.
+     * @param pageable the pagination information, the sort is ignored.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matches in body.
+     */
+    @GetMapping("/_search/pages")
+    public ResponseEntity<List<SearchHitDTO>> searchPages(
+        @RequestParam("q") String query,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Pages for query : {}", query);
+        Page<SearchHitDTO> page = pageService.search(query, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    private static String validator(PageDTO pageDTO) {
+        return pageDTO.getId() + ":" + pageDTO.getVersion();
+    }
+
+    private static String validator(PageSummaryDTO pageSummaryDTO) {
+        return String.join(":", String.valueOf(pageSummaryDTO.getId()), pageSummaryDTO.getTitle(), pageSummaryDTO.getExcerpt());
+    }
 }
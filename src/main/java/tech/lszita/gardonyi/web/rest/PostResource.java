@@ -1,27 +1,46 @@
 package tech.lszita.gardonyi.web.rest;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.Reader;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
 import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 import tech.lszita.gardonyi.repository.PostRepository;
 import tech.lszita.gardonyi.service.PostService;
+import tech.lszita.gardonyi.service.TotalCount;
 import tech.lszita.gardonyi.service.dto.PostDTO;
+import tech.lszita.gardonyi.service.dto.PostSummaryDTO;
+import tech.lszita.gardonyi.service.dto.SearchHitDTO;
+import tech.lszita.gardonyi.web.filter.QueryStatisticsFilter;
 import tech.lszita.gardonyi.web.rest.errors.BadRequestAlertException;
+import tech.lszita.gardonyi.web.rest.util.BulkRequestUtil;
+import tech.lszita.gardonyi.web.rest.util.ConditionalRequestUtil;
+import tech.lszita.gardonyi.web.rest.util.ExportUtil;
+import tech.lszita.gardonyi.web.rest.util.KeysetPaginationUtil;
+import tech.lszita.gardonyi.web.rest.util.SlicePaginationUtil;
 
 /**
  * REST controller for managing {@link tech.lszita.gardonyi.domain.Post}.
@@ -34,16 +53,31 @@ public class PostResource {
 
     private static final String ENTITY_NAME = "post";
 
+    private static final String SUMMARY_VIEW_PARAM = "view=summary";
+
+    private static final String[] EXPORT_COLUMNS = { "id", "title", "author", "version", "lastModifiedDate", "content" };
+
+    private static final MediaType CONTENT_MEDIA_TYPE = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    @Value("${application.bulk.chunk-size:500}")
+    private int bulkChunkSize;
+
+    @Value("${application.pagination.total-count.posts:exact}")
+    private TotalCount defaultTotalCount;
+
     private final PostService postService;
 
     private final PostRepository postRepository;
 
-    public PostResource(PostService postService, PostRepository postRepository) {
+    private final ObjectMapper objectMapper;
+
+    public PostResource(PostService postService, PostRepository postRepository, ObjectMapper objectMapper) {
         this.postService = postService;
         this.postRepository = postRepository;
+        this.objectMapper = objectMapper;
     }
 
     /**
@@ -98,6 +132,24 @@ public class PostResource {
             .body(result);
     }
 
+    /**
+     * {@code POST  /posts/_bulk} : create, update and delete posts in bulk.
+     * <p>
+     * The body is either NDJSON (one operation per line) or a JSON array of operations, such as
+     * {@code {"action": "create", "data": {...}}}, {@code {"action": "update", "data": {"id": 1, ...}}} or
+     * {@code {"action": "delete", "id": 1}}. Operations are run in chunks of {@code application.bulk.chunk-size}, one
+     * transaction per chunk, and their results are streamed back in the same format as the request.
+     *
+     * @param request the bulk request.
+     * @param response the response, with status {@code 200 (OK)} and the result of each operation in body.
+     * @throws IOException if the request could not be read or the response could not be written.
+     */
+    @PostMapping(value = "/posts/_bulk", consumes = { MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE })
+    public void bulkPosts(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        log.debug("REST request to run bulk operations on Posts");
+        BulkRequestUtil.process(request, response, objectMapper, PostDTO.class, bulkChunkSize, postService::bulk);
+    }
+
     /**
      * {@code PATCH  /posts/:id} : Partial updates given fields of an existing post, field will ignore if it is null
      *
@@ -137,28 +189,207 @@ public class PostResource {
     /**
      * {@code GET  /posts} : get all the posts.
      *
+     * <p>
+     * The response carries an {@code ETag} derived from the ids and versions of the posts returned and the pagination
+     * headers: a matching {@code If-None-Match} gets a {@code 304 (Not Modified)} without a body.
+     *
      * @param pageable the pagination information.
-     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of posts in body.
+     * @param count how the total number of posts is found: {@code exact}, {@code estimated} or {@code none} for a
+     * slice without {@code X-Total-Count}, defaults to {@code application.pagination.total-count.posts}.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of posts in body,
+     * or with status {@code 304 (Not Modified)} if the client copy is up to date,
+     * or with status {@code 400 (Bad Request)} if the count is unknown.
      */
     @GetMapping("/posts")
-    public ResponseEntity<List<PostDTO>> getAllPosts(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<PostDTO>> getAllPosts(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = SlicePaginationUtil.COUNT_PARAM, required = false) String count,
+        WebRequest request
+    ) {
         log.debug("REST request to get a page of Posts");
-        Page<PostDTO> page = postService.findAll(pageable);
+        TotalCount totalCount = count == null
+            ? defaultTotalCount
+            : TotalCount.of(count).orElseThrow(() -> new BadRequestAlertException("Unknown total count", ENTITY_NAME, "countinvalid"));
+        Slice<PostDTO> page = postService.findAll(pageable, totalCount);
+        HttpHeaders headers = SlicePaginationUtil.generatePaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            page,
+            totalCount
+        );
+        if (request.checkNotModified(ConditionalRequestUtil.eTag(page.getContent(), PostResource::validator, headers))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    /**
+     * {@code GET  /posts?view=summary} : get the summaries of all the posts, for the compact list views.
+     * <p>
+     * Only the summary columns are read (including a stored excerpt of the content), without loading the posts.
+     * The response carries an {@code ETag} derived from the summaries returned and the pagination headers.
+     *
+     * @param pageable the pagination information.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of post summaries in body,
+     * or with status {@code 304 (Not Modified)} if the client copy is up to date.
+     */
+    @GetMapping(value = "/posts", params = { SUMMARY_VIEW_PARAM, "!" + KeysetPaginationUtil.CURSOR_PARAM })
+    public ResponseEntity<List<PostSummaryDTO>> getAllPostSummaries(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        WebRequest request
+    ) {
+        log.debug("REST request to get a page of Post summaries");
+        Page<PostSummaryDTO> page = postService.findAllSummaries(pageable);
         HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        if (request.checkNotModified(ConditionalRequestUtil.eTag(page.getContent(), PostResource::validator, headers))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
         return ResponseEntity.ok().headers(headers).body(page.getContent());
     }
 
+    /**
+     * {@code GET  /posts?after=:cursor} : get the posts following the cursor, ordered by id.
+     * <p>
+     * Keyset pagination for infinite scroll: no count query is issued and the cost does not depend on the scroll depth.
+     * An empty cursor starts from the first post, the cursor of the next slice is returned in the {@code X-Next-Cursor}
+     * and {@code Link} headers.
+     *
+     * @param after the opaque cursor returned by the previous call.
+     * @param pageable the pagination information, only the page size is used.
+     * @param request the current request.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of posts in body,
+     * or with status {@code 304 (Not Modified)} if the client copy is up to date.
+     */
+    @GetMapping(value = "/posts", params = KeysetPaginationUtil.CURSOR_PARAM)
+    public ResponseEntity<List<PostDTO>> getAllPostsAfter(
+        @RequestParam(KeysetPaginationUtil.CURSOR_PARAM) String after,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        WebRequest request
+    ) {
+        log.debug("REST request to get a slice of Posts after : {}", after);
+        Long afterId;
+        try {
+            afterId = KeysetPaginationUtil.decodeCursor(after).orElse(null);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid cursor", ENTITY_NAME, "cursorinvalid");
+        }
+        Slice<PostDTO> slice = postService.findAllAfter(afterId, pageable.getPageSize());
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            slice,
+            PostDTO::getId
+        );
+        if (request.checkNotModified(ConditionalRequestUtil.eTag(slice.getContent(), PostResource::validator, headers))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+        return ResponseEntity.ok().headers(headers).body(slice.getContent());
+    }
+
+    /**
+     * {@code GET  /posts/_export} : export all the posts, ordered by id.
+     * <p>
+     * The posts are read by a single query, so the export is a consistent snapshot of the table, and streamed to the
+     * response as they are read.
+     *
+     * @param format the format of the export: {@code ndjson} (one post per line, the default) or {@code csv}.
+     * @param response the response, with status {@code 200 (OK)} and the posts in body as an attachment,
+     * or with status {@code 400 (Bad Request)} if the format is unknown.
+     * @throws IOException if the response could not be written.
+     */
+    @GetMapping("/posts/_export")
+    public void exportPosts(@RequestParam(defaultValue = "ndjson") String format, HttpServletResponse response) throws IOException {
+        log.debug("REST request to export all Posts as {}", format);
+        ExportUtil.Format exportFormat = ExportUtil.Format
+            .of(format)
+            .orElseThrow(() -> new BadRequestAlertException("Unknown export format", ENTITY_NAME, "formatinvalid"));
+        try (ExportUtil.ExportWriter<PostDTO> writer = ExportUtil.open(response, exportFormat, "posts", objectMapper, EXPORT_COLUMNS)) {
+            postService.exportAll(writer);
+        }
+    }
+
     /**
      * {@code GET  /posts/:id} : get the "id" post.
+     * <p>
+     * The serialized postDTO is served from the rendered response cache, and written out as is, with its
+     * {@code ETag} and {@code Last-Modified} headers: a matching conditional request gets a {@code 304 (Not Modified)}.
      *
      * @param id the id of the postDTO to retrieve.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body the postDTO, or with status {@code 404 (Not Found)}.
      */
-    @GetMapping("/posts/{id}")
-    public ResponseEntity<PostDTO> getPost(@PathVariable Long id) {
+    @GetMapping(value = "/posts/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getPost(@PathVariable Long id) {
         log.debug("REST request to get Post : {}", id);
-        Optional<PostDTO> postDTO = postService.findOne(id);
-        return ResponseUtil.wrapOrNotFound(postDTO);
+        return postService
+            .findOneRendered(id)
+            .map(ConditionalRequestUtil::renderedResponse)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+
+    /**
+     * {@code GET  /posts/:id/content} : get the content of the "id" post, as plain text.
+     * <p>
+     * The content is copied from the database to the response as it is read, instead of being loaded in a postDTO.
+     * The response carries the {@code ETag} of the post: a matching {@code If-None-Match} gets a {@code 304 (Not Modified)}.
+     *
+     * @param id the id of the post.
+     * @param request the current request.
+     * @param response the response, written directly.
+     * @throws ResponseStatusException with status {@code 404 (Not Found)} if the post is not found.
+     */
+    @GetMapping("/posts/{id}/content")
+    public void getPostContent(@PathVariable Long id, WebRequest request, HttpServletResponse response) {
+        log.debug("REST request to get the content of Post : {}", id);
+        boolean found = postService.readContent(
+            id,
+            version -> {
+                if (request.checkNotModified(ConditionalRequestUtil.eTag(version))) {
+                    return null;
+                }
+                QueryStatisticsFilter.streamed(response);
+                response.setContentType(CONTENT_MEDIA_TYPE.toString());
+                return response.getWriter();
+            }
+        );
+        if (!found) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        }
+    }
+
+    /**
+     * {@code PUT  /posts/:id/content} : replace the content of the "id" post with the request body.
+     * <p>
+     * The body is copied to the database as it is read, its charset defaults to UTF-8. With an {@code If-Match} header,
+     * the content is only replaced if the post still has that {@code ETag}.
+     *
+     * @param id the id of the post.
+     * @param ifMatch the {@code ETag} of the post known by the client, optional.
+     * @param content the new content.
+     * @return the {@link ResponseEntity} with status {@code 204 (NO_CONTENT)} and the new {@code ETag} of the post,
+     * or with status {@code 404 (Not Found)} if the post is not found,
+     * or with status {@code 409 (Conflict)} if the post does not match the {@code If-Match} header.
+     */
+    @PutMapping(value = "/posts/{id}/content", consumes = "text/*")
+    public ResponseEntity<Void> updatePostContent(
+        @PathVariable Long id,
+        @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+        Reader content
+    ) {
+        log.debug("REST request to update the content of Post : {}", id);
+        Long expectedVersion;
+        try {
+            expectedVersion = ConditionalRequestUtil.version(ifMatch).orElse(null);
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestAlertException("Invalid If-Match header", ENTITY_NAME, "etaginvalid");
+        }
+        Long version = postService
+            .updateContent(id, expectedVersion, content)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        return ResponseEntity
+            .noContent()
+            .eTag(ConditionalRequestUtil.eTag(version))
+            .headers(HeaderUtil.createEntityUpdateAlert(applicationName, true, ENTITY_NAME, id.toString()))
+            .build();
     }
 
     /**
@@ -176,4 +407,39 @@ public class PostResource {
             .headers(HeaderUtil.createEntityDeletionAlert(applicationName, true, ENTITY_NAME, id.toString()))
             .build();
     }
+
+    /**
+     * {@code SEARCH  /_search/posts?q=:query} : search for the posts containing the words of the query.
+     * <p>
+     * Results are ordered by relevance, with a snippet of the content where the matched words are highlighted
+     * with {@code <mark>} tags.
+     *
+     * @param query the query of the post search.
+     * @param pageable the pagination information, the sort is ignored.
+     * @return the {@link ResponseEntity} with status {@code 200 (OK)} and the list of matches in body.
+     */
+    @GetMapping("/_search/posts")
+    public ResponseEntity<List<SearchHitDTO>> searchPosts(
+        @RequestParam("q") String query,
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable
+    ) {
+        log.debug("REST request to search for a page of Posts for query : {}", query);
+        Page<SearchHitDTO> page = postService.search(query, pageable);
+        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        return ResponseEntity.ok().headers(headers).body(page.getContent());
+    }
+
+    private static String validator(PostDTO postDTO) {
+        return postDTO.getId() + ":" + postDTO.getVersion();
+    }
+
+    private static String validator(PostSummaryDTO postSummaryDTO) {
+        return String.join(
+            ":",
+            String.valueOf(postSummaryDTO.getId()),
+            postSummaryDTO.getTitle(),
+            String.valueOf(postSummaryDTO.getAuthor()),
+            postSummaryDTO.getExcerpt()
+        );
+    }
 }
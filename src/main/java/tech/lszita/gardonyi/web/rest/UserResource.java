@@ -9,8 +9,8 @@ import javax.validation.constraints.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
@@ -19,18 +19,19 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 import tech.jhipster.web.util.HeaderUtil;
-import tech.jhipster.web.util.PaginationUtil;
 import tech.jhipster.web.util.ResponseUtil;
 import tech.lszita.gardonyi.config.Constants;
 import tech.lszita.gardonyi.domain.User;
 import tech.lszita.gardonyi.repository.UserRepository;
 import tech.lszita.gardonyi.security.AuthoritiesConstants;
 import tech.lszita.gardonyi.service.MailService;
+import tech.lszita.gardonyi.service.TotalCount;
 import tech.lszita.gardonyi.service.UserService;
 import tech.lszita.gardonyi.service.dto.AdminUserDTO;
 import tech.lszita.gardonyi.web.rest.errors.BadRequestAlertException;
 import tech.lszita.gardonyi.web.rest.errors.EmailAlreadyUsedException;
 import tech.lszita.gardonyi.web.rest.errors.LoginAlreadyUsedException;
+import tech.lszita.gardonyi.web.rest.util.SlicePaginationUtil;
 
 /**
  * REST controller for managing users.
@@ -81,6 +82,9 @@ public class UserResource {
     @Value("${jhipster.clientApp.name}")
     private String applicationName;
 
+    @Value("${application.pagination.total-count.users:exact}")
+    private TotalCount defaultTotalCount;
+
     private final UserService userService;
 
     private final UserRepository userRepository;
@@ -159,18 +163,30 @@ public class UserResource {
      * {@code GET /admin/users} : get all users with all the details - calling this are only allowed for the administrators.
      *
      * @param pageable the pagination information.
+     * @param count how the total number of users is found: {@code exact}, {@code estimated} or {@code none} for a slice
+     * without {@code X-Total-Count}, defaults to {@code application.pagination.total-count.users}.
      * @return the {@link ResponseEntity} with status {@code 200 (OK)} and with body all users.
      */
     @GetMapping("/users")
     @PreAuthorize("hasAuthority(\"" + AuthoritiesConstants.ADMIN + "\")")
-    public ResponseEntity<List<AdminUserDTO>> getAllUsers(@org.springdoc.api.annotations.ParameterObject Pageable pageable) {
+    public ResponseEntity<List<AdminUserDTO>> getAllUsers(
+        @org.springdoc.api.annotations.ParameterObject Pageable pageable,
+        @RequestParam(name = SlicePaginationUtil.COUNT_PARAM, required = false) String count
+    ) {
         log.debug("REST request to get all User for an admin");
         if (!onlyContainsAllowedProperties(pageable)) {
             return ResponseEntity.badRequest().build();
         }
-
-        final Page<AdminUserDTO> page = userService.getAllManagedUsers(pageable);
-        HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(ServletUriComponentsBuilder.fromCurrentRequest(), page);
+        TotalCount totalCount = count == null
+            ? defaultTotalCount
+            : TotalCount.of(count).orElseThrow(() -> new BadRequestAlertException("Unknown total count", "userManagement", "countinvalid"));
+
+        final Slice<AdminUserDTO> page = userService.getAllManagedUsers(pageable, totalCount);
+        HttpHeaders headers = SlicePaginationUtil.generatePaginationHttpHeaders(
+            ServletUriComponentsBuilder.fromCurrentRequest(),
+            page,
+            totalCount
+        );
         return new ResponseEntity<>(page.getContent(), headers, HttpStatus.OK);
     }
 
@@ -0,0 +1,180 @@
+package tech.lszita.gardonyi.web.rest.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import tech.lszita.gardonyi.service.dto.BulkOperationDTO;
+import tech.lszita.gardonyi.service.dto.BulkResultDTO;
+import tech.lszita.gardonyi.service.dto.VersionedDTO;
+import tech.lszita.gardonyi.web.filter.QueryStatisticsFilter;
+
+/**
+ * Utility class for handling bulk requests.
+ * <p>
+ * Operations are read from the request body as they are run, so the whole request is never held in memory, and
+ * their results are written in the same format as the request: NDJSON (one result per line) or a JSON array.
+ */
+public final class BulkRequestUtil {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkRequestUtil.class);
+
+    private BulkRequestUtil() {}
+
+    /**
+     * Run the operations of a bulk request in chunks, and stream their results to the response.
+     * <p>
+     * Each chunk is run by a single call of the executor, expected to be transactional. If a chunk fails, its
+     * operations are run again one by one, so that only the failing operations get an error result. Reading stops
+     * at the first malformed operation, which gets a {@code 400 (Bad Request)} result.
+     *
+     * @param request the bulk request.
+     * @param response the response, written directly.
+     * @param objectMapper the object mapper.
+     * @param dataType the type of the entity DTO of the operations.
+     * @param chunkSize the maximum number of operations run by one call of the executor.
+     * @param executor the executor of a chunk of operations, returning their results in the same order.
+     * @param <D> the type of the entity DTO of the operations.
+     * @throws IOException if the request could not be read or the response could not be written.
+     */
+    public static <D> void process(
+        HttpServletRequest request,
+        HttpServletResponse response,
+        ObjectMapper objectMapper,
+        Class<D> dataType,
+        int chunkSize,
+        Function<List<BulkOperationDTO<D>>, List<BulkResultDTO>> executor
+    ) throws IOException {
+        boolean ndjson =
+            request.getContentType() != null &&
+            MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()));
+        JavaType operationType = objectMapper.getTypeFactory().constructParametricType(BulkOperationDTO.class, dataType);
+        QueryStatisticsFilter.streamed(response);
+        response.setContentType(ndjson ? MediaType.APPLICATION_NDJSON_VALUE : MediaType.APPLICATION_JSON_VALUE);
+        try (
+            MappingIterator<BulkOperationDTO<D>> operations = objectMapper
+                .readerFor(operationType)
+                .readValues(request.getInputStream());
+            JsonGenerator generator = objectMapper.getFactory().createGenerator(response.getOutputStream())
+        ) {
+            ResultWriter writer = new ResultWriter(generator, ndjson);
+            List<BulkOperationDTO<D>> chunk = new ArrayList<>(chunkSize);
+            int index = 0;
+            while (true) {
+                BulkOperationDTO<D> operation;
+                try {
+                    if (!operations.hasNextValue()) {
+                        break;
+                    }
+                    operation = operations.nextValue();
+                } catch (JsonProcessingException e) {
+                    index = run(chunk, index, executor, writer);
+                    chunk.clear();
+                    BulkResultDTO malformed = new BulkResultDTO(null, null, HttpStatus.BAD_REQUEST.value(), "Malformed operation");
+                    malformed.setIndex(index);
+                    writer.write(malformed);
+                    break;
+                }
+                chunk.add(operation);
+                if (chunk.size() == chunkSize) {
+                    index = run(chunk, index, executor, writer);
+                    chunk.clear();
+                }
+            }
+            run(chunk, index, executor, writer);
+            writer.close();
+        }
+    }
+
+    private static <D> int run(
+        List<BulkOperationDTO<D>> chunk,
+        int firstIndex,
+        Function<List<BulkOperationDTO<D>>, List<BulkResultDTO>> executor,
+        ResultWriter writer
+    ) throws IOException {
+        if (chunk.isEmpty()) {
+            return firstIndex;
+        }
+        List<BulkResultDTO> results;
+        try {
+            results = executor.apply(chunk);
+        } catch (RuntimeException e) {
+            log.debug("Bulk chunk starting at operation {} failed, running its operations one by one", firstIndex, e);
+            results = new ArrayList<>(chunk.size());
+            for (BulkOperationDTO<D> operation : chunk) {
+                try {
+                    results.addAll(executor.apply(List.of(operation)));
+                } catch (RuntimeException operationFailure) {
+                    results.add(failure(operation, operationFailure));
+                }
+            }
+        }
+        int index = firstIndex;
+        for (BulkResultDTO result : results) {
+            result.setIndex(index++);
+            writer.write(result);
+        }
+        writer.flush();
+        return index;
+    }
+
+    private static BulkResultDTO failure(BulkOperationDTO<?> operation, RuntimeException e) {
+        Long id = operation.getData() instanceof VersionedDTO ? ((VersionedDTO) operation.getData()).getId() : operation.getId();
+        if (e instanceof ConcurrencyFailureException) {
+            return new BulkResultDTO(operation.getAction(), id, HttpStatus.CONFLICT.value(), "Entity was updated concurrently");
+        }
+        if (e instanceof DataIntegrityViolationException) {
+            return new BulkResultDTO(operation.getAction(), id, HttpStatus.BAD_REQUEST.value(), "Constraint violation");
+        }
+        log.warn("Bulk operation {} failed", operation, e);
+        return new BulkResultDTO(operation.getAction(), id, HttpStatus.INTERNAL_SERVER_ERROR.value(), "Internal server error");
+    }
+
+    private static final class ResultWriter {
+
+        private final JsonGenerator generator;
+
+        private final boolean ndjson;
+
+        ResultWriter(JsonGenerator generator, boolean ndjson) throws IOException {
+            this.generator = generator;
+            this.ndjson = ndjson;
+            if (ndjson) {
+                generator.setRootValueSeparator(null);
+            } else {
+                generator.writeStartArray();
+            }
+        }
+
+        void write(BulkResultDTO result) throws IOException {
+            generator.writeObject(result);
+            if (ndjson) {
+                generator.writeRaw('\n');
+            }
+        }
+
+        void flush() throws IOException {
+            generator.flush();
+        }
+
+        void close() throws IOException {
+            if (!ndjson) {
+                generator.writeEndArray();
+            }
+            generator.flush();
+        }
+    }
+}
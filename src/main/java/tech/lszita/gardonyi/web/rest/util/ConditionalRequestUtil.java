@@ -0,0 +1,80 @@
+package tech.lszita.gardonyi.web.rest.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+import tech.lszita.gardonyi.service.RenderedResponseCache;
+
+/**
+ * Utility class for handling conditional requests ({@code If-None-Match} and {@code If-Modified-Since}).
+ */
+public final class ConditionalRequestUtil {
+
+    private ConditionalRequestUtil() {}
+
+    /**
+     * Build the strong ETag of a single entity from its version.
+     *
+     * @param version the version of the entity.
+     * @return the quoted ETag.
+     */
+    public static String eTag(Long version) {
+        return "\"" + version + "\"";
+    }
+
+    /**
+     * Parse the version of a single entity from its ETag, as sent in an {@code If-Match} header.
+     *
+     * @param eTag the header value, may be {@code null}.
+     * @return the version, or empty if no header was sent or it matches any version ({@code *}).
+     * @throws IllegalArgumentException if the header is not an ETag of a single entity.
+     */
+    public static Optional<Long> version(String eTag) {
+        if (eTag == null || "*".equals(eTag.trim())) {
+            return Optional.empty();
+        }
+        String value = eTag.trim();
+        if (value.length() < 2 || value.charAt(0) != '"' || value.charAt(value.length() - 1) != '"') {
+            throw new IllegalArgumentException("Not a strong ETag: " + eTag);
+        }
+        return Optional.of(Long.valueOf(value.substring(1, value.length() - 1)));
+    }
+
+    /**
+     * Build the strong ETag of a list of entities from the entities returned and the pagination headers, so that it
+     * changes with any of them without querying the whole table.
+     *
+     * @param content the entities returned.
+     * @param validator the value of an entity that changes with it, such as its id and version.
+     * @param headers the pagination headers of the response.
+     * @param <T> the type of the entities.
+     * @return the quoted ETag.
+     */
+    public static <T> String eTag(List<T> content, Function<? super T, String> validator, HttpHeaders headers) {
+        StringBuilder state = new StringBuilder();
+        content.forEach(entity -> state.append(validator.apply(entity)).append('\n'));
+        headers.forEach((name, values) -> state.append(name).append(": ").append(values).append('\n'));
+        return "\"" + DigestUtils.md5DigestAsHex(state.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Wrap a rendered entity in a {@code 200 (OK)} response with its {@code ETag} and {@code Last-Modified} headers.
+     * <p>
+     * If the request validators match, Spring turns the response into a {@code 304 (Not Modified)} without a body.
+     *
+     * @param rendered the rendered entity.
+     * @return the response entity.
+     */
+    public static ResponseEntity<byte[]> renderedResponse(RenderedResponseCache.Rendered rendered) {
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).eTag(eTag(rendered.getVersion()));
+        if (rendered.getLastModifiedDate() != null) {
+            builder.lastModified(rendered.getLastModifiedDate());
+        }
+        return builder.body(rendered.getBody());
+    }
+}
@@ -0,0 +1,185 @@
+package tech.lszita.gardonyi.web.rest.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.function.Consumer;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import tech.lszita.gardonyi.web.filter.QueryStatisticsFilter;
+
+/**
+ * Utility class for streaming exports of entities, as NDJSON (one entity per line) or CSV (RFC 4180, with a header).
+ * <p>
+ * Each entity is written as soon as it is accepted, so the size of the export is not limited by the memory.
+ */
+public final class ExportUtil {
+
+    /**
+     * Media type of the CSV exports.
+     */
+    public static final MediaType TEXT_CSV = new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+    /**
+     * Format of an export.
+     */
+    public enum Format {
+        NDJSON("ndjson", MediaType.APPLICATION_NDJSON),
+        CSV("csv", TEXT_CSV);
+
+        private final String extension;
+
+        private final MediaType mediaType;
+
+        Format(String extension, MediaType mediaType) {
+            this.extension = extension;
+            this.mediaType = mediaType;
+        }
+
+        /**
+         * Find a format from its name, as given in a request parameter.
+         *
+         * @param name the name of the format, case insensitive.
+         * @return the format, or empty if unknown.
+         */
+        public static Optional<Format> of(String name) {
+            return Arrays.stream(values()).filter(format -> format.extension.equals(name.toLowerCase(Locale.ROOT))).findFirst();
+        }
+    }
+
+    private ExportUtil() {}
+
+    /**
+     * Start an export as the body of the given response, downloaded as an attachment.
+     *
+     * @param response the response, written directly.
+     * @param format the format of the export.
+     * @param fileName the name of the attachment, without extension.
+     * @param objectMapper the object mapper, serializing the entities.
+     * @param columns the JSON properties of the entities written to the CSV columns, in order.
+     * @param <D> the type of the exported entity DTO.
+     * @return the writer of the entities, to be closed at the end of the export.
+     * @throws IOException if the response could not be written.
+     */
+    public static <D> ExportWriter<D> open(
+        HttpServletResponse response,
+        Format format,
+        String fileName,
+        ObjectMapper objectMapper,
+        String... columns
+    ) throws IOException {
+        QueryStatisticsFilter.streamed(response);
+        response.setContentType(format.mediaType.toString());
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(fileName + "." + format.extension).build().toString()
+        );
+        if (format == Format.CSV) {
+            return new CsvWriter<>(new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8), objectMapper, columns);
+        }
+        return new NdjsonWriter<>(objectMapper.getFactory().createGenerator(response.getOutputStream()));
+    }
+
+    /**
+     * Writer of the entities of an export.
+     * <p>
+     * {@link #accept} throws an {@link UncheckedIOException} if the response could not be written, typically because
+     * the client has gone away.
+     *
+     * @param <D> the type of the exported entity DTO.
+     */
+    public interface ExportWriter<D> extends Consumer<D>, Closeable {}
+
+    private static final class NdjsonWriter<D> implements ExportWriter<D> {
+
+        private final JsonGenerator generator;
+
+        NdjsonWriter(JsonGenerator generator) {
+            this.generator = generator;
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void accept(D entity) {
+            try {
+                generator.writeObject(entity);
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvWriter<D> implements ExportWriter<D> {
+
+        private final Writer writer;
+
+        private final ObjectMapper objectMapper;
+
+        private final List<String> columns;
+
+        CsvWriter(Writer writer, ObjectMapper objectMapper, String... columns) throws IOException {
+            this.writer = writer;
+            this.objectMapper = objectMapper;
+            this.columns = List.of(columns);
+            writeRow(this.columns);
+        }
+
+        @Override
+        public void accept(D entity) {
+            JsonNode node = objectMapper.valueToTree(entity);
+            String[] values = new String[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                JsonNode value = node.get(columns.get(i));
+                values[i] = value == null || value.isNull() ? "" : value.asText();
+            }
+            try {
+                writeRow(Arrays.asList(values));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.close();
+        }
+
+        private void writeRow(List<String> values) throws IOException {
+            for (int i = 0; i < values.size(); i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeValue(values.get(i));
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeValue(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package tech.lszita.gardonyi.web.rest.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Utility class for handling keyset (cursor based) pagination.
+ * <p>
+ * The cursor handed out to the client is opaque: it encodes the id of the last element of the slice,
+ * and is sent back in the {@code after} request parameter to fetch the following slice.
+ */
+public final class KeysetPaginationUtil {
+
+    public static final String CURSOR_PARAM = "after";
+
+    public static final String HEADER_NEXT_CURSOR = "X-Next-Cursor";
+
+    private static final String CURSOR_PREFIX = "id:";
+
+    private KeysetPaginationUtil() {}
+
+    /**
+     * Encode the given id as an opaque cursor.
+     *
+     * @param id the id of the last element seen.
+     * @return the cursor.
+     */
+    public static String encodeCursor(Long id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a cursor previously produced by {@link #encodeCursor(Long)}.
+     *
+     * @param cursor the cursor, an empty cursor means "from the beginning".
+     * @return the decoded id, empty if the cursor is blank.
+     * @throws IllegalArgumentException if the cursor is not a valid cursor.
+     */
+    public static Optional<Long> decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return Optional.empty();
+        }
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        if (!decoded.startsWith(CURSOR_PREFIX)) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return Optional.of(Long.valueOf(decoded.substring(CURSOR_PREFIX.length())));
+    }
+
+    /**
+     * Generate the headers for a keyset slice: {@code X-Next-Cursor} and a {@code Link} header with the "next" relation,
+     * both only present if there is a next slice.
+     *
+     * @param uriBuilder the current request URI builder.
+     * @param slice the slice.
+     * @param idExtractor how to get the id of an element of the slice.
+     * @param <T> the type of the elements of the slice.
+     * @return the http headers.
+     */
+    public static <T> HttpHeaders generateKeysetPaginationHttpHeaders(
+        UriComponentsBuilder uriBuilder,
+        Slice<T> slice,
+        Function<T, Long> idExtractor
+    ) {
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.hasNext() && slice.hasContent()) {
+            List<T> content = slice.getContent();
+            String cursor = encodeCursor(idExtractor.apply(content.get(content.size() - 1)));
+            String next = uriBuilder
+                .replaceQueryParam(CURSOR_PARAM, cursor)
+                .replaceQueryParam("size", slice.getSize())
+                .replaceQueryParam("page")
+                .toUriString()
+                .replace(",", "%2C")
+                .replace(";", "%3B");
+            headers.add(HEADER_NEXT_CURSOR, cursor);
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
+        return headers;
+    }
+}
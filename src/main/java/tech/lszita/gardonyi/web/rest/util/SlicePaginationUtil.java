@@ -0,0 +1,72 @@
+package tech.lszita.gardonyi.web.rest.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import tech.jhipster.web.util.PaginationUtil;
+import tech.lszita.gardonyi.service.TotalCount;
+
+/**
+ * Utility class for handling the pagination of lists whose total may be estimated, or not counted at all.
+ * <p>
+ * The total count is chosen by the client with the {@code count} request parameter ({@code exact},
+ * {@code estimated} or {@code none}), the default being configured for each list.
+ */
+public final class SlicePaginationUtil {
+
+    public static final String COUNT_PARAM = "count";
+
+    public static final String HEADER_TOTAL_COUNT_ESTIMATED = "X-Total-Count-Estimated";
+
+    private static final String HEADER_LINK_FORMAT = "<%s>; rel=\"%s\"";
+
+    private SlicePaginationUtil() {}
+
+    /**
+     * Generate the pagination headers of a list: those of {@link PaginationUtil} for a {@link Page}, with
+     * {@code X-Total-Count-Estimated} if the total may be estimated; for a {@link Slice}, a {@code Link} header with
+     * the "next", "prev" and "first" relations only, and no {@code X-Total-Count}.
+     *
+     * @param uriBuilder the current request URI builder.
+     * @param slice the page or slice.
+     * @param totalCount how the total was found.
+     * @param <T> the type of the elements of the list.
+     * @return the http headers.
+     */
+    public static <T> HttpHeaders generatePaginationHttpHeaders(UriComponentsBuilder uriBuilder, Slice<T> slice, TotalCount totalCount) {
+        if (slice instanceof Page) {
+            HttpHeaders headers = PaginationUtil.generatePaginationHttpHeaders(uriBuilder, (Page<T>) slice);
+            if (totalCount == TotalCount.ESTIMATED) {
+                headers.add(HEADER_TOTAL_COUNT_ESTIMATED, "true");
+            }
+            return headers;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        if (slice.getPageable().isUnpaged()) {
+            return headers;
+        }
+        List<String> links = new ArrayList<>();
+        if (slice.hasNext()) {
+            links.add(link(uriBuilder, slice.getNumber() + 1, slice.getSize(), "next"));
+        }
+        if (slice.hasPrevious()) {
+            links.add(link(uriBuilder, slice.getNumber() - 1, slice.getSize(), "prev"));
+        }
+        links.add(link(uriBuilder, 0, slice.getSize(), "first"));
+        headers.add(HttpHeaders.LINK, String.join(",", links));
+        return headers;
+    }
+
+    private static String link(UriComponentsBuilder uriBuilder, int pageNumber, int pageSize, String relation) {
+        String uri = uriBuilder
+            .replaceQueryParam("page", pageNumber)
+            .replaceQueryParam("size", pageSize)
+            .toUriString()
+            .replace(",", "%2C")
+            .replace(";", "%3B");
+        return String.format(HEADER_LINK_FORMAT, uri, relation);
+    }
+}
@@ -94,7 +94,7 @@ export const PageUpdate = () => {
                 id="page-content"
                 name="content"
                 data-cy="content"
-                type="text"
+                type="textarea"
               />
               <Button tag={Link} id="cancel-save" data-cy="entityCreateCancelButton" to="/page" replace color="info">
                 <FontAwesomeIcon icon="arrow-left" />
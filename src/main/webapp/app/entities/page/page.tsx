@@ -108,9 +108,6 @@ export const Page = () => {
                 <th className="hand" onClick={sort('title')}>
                   <Translate contentKey="gardonyiCmsApp.page.title">Title</Translate> <FontAwesomeIcon icon="sort" />
                 </th>
-                <th className="hand" onClick={sort('content')}>
-                  <Translate contentKey="gardonyiCmsApp.page.content">Content</Translate> <FontAwesomeIcon icon="sort" />
-                </th>
                 <th />
               </tr>
             </thead>
@@ -123,7 +120,6 @@ export const Page = () => {
                     </Button>
                   </td>
                   <td>{page.title}</td>
-                  <td>{page.content}</td>
                   <td className="text-end">
                     <div className="btn-group flex-btn-group-container">
                       <Button tag={Link} to={`/page/${page.id}`} color="info" size="sm" data-cy="entityDetailsButton">
@@ -91,7 +91,7 @@ export const PostUpdate = () => {
                 id="post-content"
                 name="content"
                 data-cy="content"
-                type="text"
+                type="textarea"
               />
               <ValidatedField label={translate('gardonyiCmsApp.post.author')} id="post-author" name="author" data-cy="author" type="text" />
               <Button tag={Link} id="cancel-save" data-cy="entityCreateCancelButton" to="/post" replace color="info">
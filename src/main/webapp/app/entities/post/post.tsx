@@ -128,9 +128,6 @@ export const Post = () => {
                   <th className="hand" onClick={sort('title')}>
                     <Translate contentKey="gardonyiCmsApp.post.title">Title</Translate> <FontAwesomeIcon icon="sort" />
                   </th>
-                  <th className="hand" onClick={sort('content')}>
-                    <Translate contentKey="gardonyiCmsApp.post.content">Content</Translate> <FontAwesomeIcon icon="sort" />
-                  </th>
                   <th className="hand" onClick={sort('author')}>
                     <Translate contentKey="gardonyiCmsApp.post.author">Author</Translate> <FontAwesomeIcon icon="sort" />
                   </th>
@@ -146,7 +143,6 @@ export const Post = () => {
                       </Button>
                     </td>
                     <td>{post.title}</td>
-                    <td>{post.content}</td>
                     <td>{post.author}</td>
                     <td className="text-end">
                       <div className="btn-group flex-btn-group-container">
@@ -2,6 +2,8 @@ export interface IPage {
   id?: number;
   title?: string | null;
   content?: string | null;
+  version?: number | null;
+  lastModifiedDate?: Date | null;
 }
 
 export const defaultValue: Readonly<IPage> = {};
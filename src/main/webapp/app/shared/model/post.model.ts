@@ -3,6 +3,8 @@ export interface IPost {
   title?: string | null;
   content?: string | null;
   author?: string | null;
+  version?: number | null;
+  lastModifiedDate?: Date | null;
 }
 
 export const defaultValue: Readonly<IPost> = {};
@@ -0,0 +1,70 @@
+package tech.lszita.gardonyi.aop.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import tech.lszita.gardonyi.IntegrationTest;
+import tech.lszita.gardonyi.repository.PostRepository;
+import tech.lszita.gardonyi.service.PostService;
+import tech.lszita.gardonyi.service.TotalCount;
+import tech.lszita.gardonyi.service.UserService;
+import tech.lszita.gardonyi.service.UsernameAlreadyUsedException;
+import tech.lszita.gardonyi.service.dto.AdminUserDTO;
+import tech.lszita.gardonyi.service.impl.PostServiceImpl;
+
+/**
+ * Integration tests for the {@link MetricsAspect}, with the percentiles of {@code management.metrics.distribution}.
+ */
+@IntegrationTest
+@TestPropertySource(properties = MetricsAspectIT.PERCENTILES)
+class MetricsAspectIT {
+
+    static final String PERCENTILES = "management.metrics.distribution.percentiles.all=0.5,0.99";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PostService postService;
+
+    @Autowired
+    private UserService userService;
+
+    @Test
+    @Transactional
+    void testServiceAndRepositoryMethodsAreTimed() {
+        postService.findAll(PageRequest.of(0, 20), TotalCount.EXACT);
+
+        Timer service = meterRegistry
+            .get(MetricsAspect.TIMER_NAME)
+            .tags("class", PostServiceImpl.class.getName(), "method", "findAll")
+            .timer();
+        assertThat(service.count()).isPositive();
+        assertThat(service.takeSnapshot().percentileValues()).extracting(value -> value.percentile()).containsExactly(0.5, 0.99);
+        assertThat(meterRegistry.find(MetricsAspect.TIMER_NAME).tag("class", PostRepository.class.getName()).timers()).isNotEmpty();
+    }
+
+    @Test
+    @Transactional
+    void testExceptionsAreCountedByType() {
+        AdminUserDTO user = new AdminUserDTO();
+        user.setLogin("admin");
+        user.setEmail("metrics-aspect@localhost");
+
+        assertThatThrownBy(() -> userService.registerUser(user, "password")).isInstanceOf(UsernameAlreadyUsedException.class);
+
+        Counter exceptions = meterRegistry
+            .get(MetricsAspect.EXCEPTIONS_COUNTER_NAME)
+            .tags("class", UserService.class.getName(), "method", "registerUser", "exception", "UsernameAlreadyUsedException")
+            .counter();
+        assertThat(exceptions.count()).isPositive();
+    }
+}
@@ -0,0 +1,109 @@
+package tech.lszita.gardonyi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Map;
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import org.ehcache.config.CacheRuntimeConfiguration;
+import org.ehcache.config.ResourcePools;
+import org.ehcache.config.ResourceType;
+import org.ehcache.config.SizedResourcePool;
+import org.ehcache.config.units.MemoryUnit;
+import org.ehcache.jsr107.Eh107Configuration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.autoconfigure.cache.JCacheManagerCustomizer;
+import tech.jhipster.config.JHipsterProperties;
+import tech.lszita.gardonyi.domain.PageEntity;
+import tech.lszita.gardonyi.domain.Post;
+
+/**
+ * Unit tests for the {@link CacheConfiguration} class.
+ */
+class CacheConfigurationTest {
+
+    private static final String POST_REGION = Post.class.getName();
+
+    private static final String PAGE_REGION = PageEntity.class.getName();
+
+    @TempDir
+    Path diskDirectory;
+
+    private ApplicationProperties applicationProperties;
+
+    private CacheManager cacheManager;
+
+    @BeforeEach
+    public void setup() {
+        applicationProperties = new ApplicationProperties();
+        applicationProperties.getCache().setDiskDirectory(diskDirectory.toString());
+        ApplicationProperties.Cache.Region postRegion = new ApplicationProperties.Cache.Region();
+        postRegion.setHeapEntries(10L);
+        postRegion.setOffHeapMb(1);
+        postRegion.setDiskMb(8);
+        postRegion.setTimeToIdleSeconds(60L);
+        applicationProperties.getCache().getRegions().put(POST_REGION, postRegion);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (cacheManager != null) {
+            cacheManager.close();
+        }
+    }
+
+    @Test
+    void shouldConfigureRegionTiers() {
+        cacheManager = createCacheManager();
+
+        ResourcePools postPools = runtimeConfiguration(POST_REGION).getResourcePools();
+        assertThat(((SizedResourcePool) postPools.getPoolForResource(ResourceType.Core.HEAP)).getSize()).isEqualTo(10);
+        assertThat(((SizedResourcePool) postPools.getPoolForResource(ResourceType.Core.OFFHEAP)).getSize()).isEqualTo(1);
+        assertThat(((SizedResourcePool) postPools.getPoolForResource(ResourceType.Core.DISK)).getUnit()).isEqualTo(MemoryUnit.MB);
+        assertThat(((SizedResourcePool) postPools.getPoolForResource(ResourceType.Core.DISK)).isPersistent()).isTrue();
+        assertThat(runtimeConfiguration(POST_REGION).getExpiryPolicy().getExpiryForAccess(1L, () -> "post"))
+            .isEqualTo(Duration.ofSeconds(60));
+
+        // Regions not configured keep the JHipster defaults
+        ResourcePools pagePools = runtimeConfiguration(PAGE_REGION).getResourcePools();
+        assertThat(pagePools.getResourceTypeSet()).containsExactly(ResourceType.Core.HEAP);
+        assertThat(((SizedResourcePool) pagePools.getPoolForResource(ResourceType.Core.HEAP)).getSize())
+            .isEqualTo(new JHipsterProperties().getCache().getEhcache().getMaxEntries());
+        assertThat(runtimeConfiguration(PAGE_REGION).getExpiryPolicy().getExpiryForCreation(1L, "page"))
+            .isEqualTo(Duration.ofSeconds(new JHipsterProperties().getCache().getEhcache().getTimeToLiveSeconds()));
+    }
+
+    @Test
+    void shouldKeepPersistentDiskTierAcrossRestarts() {
+        cacheManager = createCacheManager();
+        Cache<Object, Object> posts = cacheManager.getCache(POST_REGION);
+        for (long id = 1; id <= 100; id++) {
+            posts.put(id, new Post().title("Post " + id));
+        }
+        cacheManager.close();
+
+        cacheManager = createCacheManager();
+
+        assertThat(cacheManager.getCache(POST_REGION).get(100L)).isInstanceOf(Post.class).extracting("title").isEqualTo("Post 100");
+    }
+
+    private CacheManager createCacheManager() {
+        CacheConfiguration cacheConfiguration = new CacheConfiguration(new JHipsterProperties(), applicationProperties);
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory(
+            Map.of("cacheManagerCustomizer", cacheConfiguration.cacheManagerCustomizer())
+        );
+        return cacheConfiguration.jCacheCacheManager(beanFactory.getBeanProvider(JCacheManagerCustomizer.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheRuntimeConfiguration<Object, Object> runtimeConfiguration(String region) {
+        Eh107Configuration<Object, Object> configuration = cacheManager.getCache(region).getConfiguration(Eh107Configuration.class);
+        return configuration.unwrap(CacheRuntimeConfiguration.class);
+    }
+}
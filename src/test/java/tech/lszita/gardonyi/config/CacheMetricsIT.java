@@ -0,0 +1,66 @@
+package tech.lszita.gardonyi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import tech.lszita.gardonyi.IntegrationTest;
+import tech.lszita.gardonyi.domain.Post;
+import tech.lszita.gardonyi.repository.UserRepository;
+import tech.lszita.gardonyi.service.RenderedResponseCache;
+
+/**
+ * Integration tests for the cache metrics.
+ */
+@IntegrationTest
+class CacheMetricsIT {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void testMetricsAreRegisteredForEveryCache() {
+        List<String> caches = List.of(
+            UserRepository.USERS_BY_LOGIN_CACHE,
+            UserRepository.USERS_BY_EMAIL_CACHE,
+            Post.class.getName(),
+            RenderedResponseCache.RENDERED_POSTS_CACHE
+        );
+        for (String cache : caches) {
+            assertThat(meterRegistry.find("cache.gets").tags("cache", cache, "result", "hit").functionCounter()).isNotNull();
+            assertThat(meterRegistry.find("cache.evictions").tag("cache", cache).functionCounter()).isNotNull();
+            Tags tags = Tags.of("cache", cache, "cache.manager", "cacheManager");
+            assertThat(meterRegistry.find("cache.gets").tags(tags).functionCounter()).isNotNull();
+            assertThat(meterRegistry.find("cache.latency.average").tags(tags).tag("operation", "get").timeGauge()).isNotNull();
+        }
+    }
+
+    @Test
+    @Transactional
+    void testCacheStatisticsAreCounted() {
+        FunctionCounter misses = meterRegistry
+            .get("cache.gets")
+            .tags("cache", UserRepository.USERS_BY_LOGIN_CACHE, "result", "miss")
+            .functionCounter();
+        FunctionCounter hits = meterRegistry
+            .get("cache.gets")
+            .tags("cache", UserRepository.USERS_BY_LOGIN_CACHE, "result", "hit")
+            .functionCounter();
+        double missesBefore = misses.count();
+        double hitsBefore = hits.count();
+
+        userRepository.findOneWithAuthoritiesByLogin("admin");
+        userRepository.findOneWithAuthoritiesByLogin("admin");
+
+        assertThat(misses.count()).isEqualTo(missesBefore + 1);
+        assertThat(hits.count()).isEqualTo(hitsBefore + 1);
+    }
+}
@@ -0,0 +1,46 @@
+package tech.lszita.gardonyi.config;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import tech.lszita.gardonyi.IntegrationTest;
+import tech.lszita.gardonyi.security.AuthoritiesConstants;
+
+/**
+ * Integration tests for the {@link SecurityConfiguration} of the Prometheus endpoint.
+ */
+@AutoConfigureMockMvc
+@IntegrationTest
+class SecurityConfigurationIT {
+
+    private static final String PROMETHEUS_URL = "/management/prometheus";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void testPrometheusRequiresAuthentication() throws Exception {
+        mockMvc.perform(get(PROMETHEUS_URL)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    @WithMockUser(authorities = AuthoritiesConstants.USER)
+    void testPrometheusRequiresAdmin() throws Exception {
+        mockMvc.perform(get(PROMETHEUS_URL)).andExpect(status().isForbidden());
+    }
+
+    @Test
+    void testPrometheusIsScrapedWithBasicAuthentication() throws Exception {
+        mockMvc
+            .perform(get(PROMETHEUS_URL).with(httpBasic("admin", "admin")))
+            .andExpect(status().isOk())
+            .andExpect(request().sessionAttribute("SPRING_SECURITY_CONTEXT", (Object) null));
+    }
+}
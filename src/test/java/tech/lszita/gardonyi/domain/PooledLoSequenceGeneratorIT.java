@@ -0,0 +1,92 @@
+package tech.lszita.gardonyi.domain;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.id.enhanced.PooledLoOptimizer;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.lszita.gardonyi.IntegrationTest;
+import tech.lszita.gardonyi.repository.PostRepository;
+
+/**
+ * Integration tests for the {@link PooledLoSequenceGenerator}.
+ */
+@IntegrationTest
+class PooledLoSequenceGeneratorIT {
+
+    private static final int BLOCK_SIZE = PooledLoSequenceGenerator.DEFAULT_BLOCK_SIZE;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private Statistics statistics;
+
+    private List<Long> insertedIds = List.of();
+
+    @BeforeEach
+    void enableStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactoryImplementor.class).getStatistics();
+        statistics.clear();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @AfterEach
+    void cleanup() {
+        statistics.setStatisticsEnabled(false);
+        postRepository.deleteAllById(insertedIds);
+    }
+
+    @ParameterizedTest
+    @ValueSource(classes = { Post.class, PageEntity.class, User.class })
+    void testEntitiesUsePooledLoOptimizer(Class<?> entityClass) {
+        SequenceStyleGenerator generator = (SequenceStyleGenerator) entityManagerFactory
+            .unwrap(SessionFactoryImplementor.class)
+            .getMetamodel()
+            .entityPersister(entityClass)
+            .getIdentifierGenerator();
+
+        assertThat(generator.getDatabaseStructure().getPhysicalName().render()).isEqualTo("sequence_generator");
+        assertThat(generator.getOptimizer()).isInstanceOf(PooledLoOptimizer.class);
+        assertThat(generator.getOptimizer().getIncrementSize()).isEqualTo(BLOCK_SIZE);
+    }
+
+    @Test
+    void testBulkInsertCallsSequenceOncePerBlock() {
+        int count = 2 * BLOCK_SIZE;
+
+        insertedIds =
+            new TransactionTemplate(transactionManager).execute(status ->
+                postRepository
+                    .saveAllAndFlush(IntStream.range(0, count).mapToObj(i -> new Post().title("Post " + i)).collect(Collectors.toList()))
+                    .stream()
+                    .map(Post::getId)
+                    .collect(Collectors.toList())
+            );
+
+        // Without batching, every insert is a statement of its own: the other statements are the calls of the sequence
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(count);
+        long sequenceCalls = statistics.getPrepareStatementCount() - count;
+        // Two blocks, or one if a block was already partly used by a previous insert
+        assertThat(sequenceCalls).isBetween(1L, 2L);
+        assertThat(insertedIds).doesNotHaveDuplicates().isSorted();
+    }
+}
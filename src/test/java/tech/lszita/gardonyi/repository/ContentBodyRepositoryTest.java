@@ -0,0 +1,63 @@
+package tech.lszita.gardonyi.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.StringReader;
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.lszita.gardonyi.domain.Post;
+import tech.lszita.gardonyi.repository.ContentSearchRepository.Content;
+
+/**
+ * Test class for the {@link ContentBodyRepository}.
+ */
+class ContentBodyRepositoryTest {
+
+    private Cache cache;
+
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private ContentBodyRepository contentBodyRepository;
+
+    @BeforeEach
+    void setUp() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        when(jdbcTemplate.update(anyString(), any(PreparedStatementSetter.class))).thenReturn(1);
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        cache = mock(Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        cacheInvalidationBus = mock(CacheInvalidationBus.class);
+        contentBodyRepository = new ContentBodyRepository(jdbcTemplate, entityManagerFactory, cacheInvalidationBus);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void testEntityIsEvictedAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertThat(contentBodyRepository.write(Content.POSTS, 1L, null, new StringReader("Egri csillagok"))).isTrue();
+        verify(cache).evict(Post.class, 1L);
+        verify(cacheInvalidationBus).publishEntityEviction(Post.class, 1L);
+
+        // A concurrent reader may have cached the row as it was before the commit
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        verify(cache, times(2)).evict(Post.class, 1L);
+    }
+}
@@ -0,0 +1,110 @@
+package tech.lszita.gardonyi.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import tech.lszita.gardonyi.repository.ContentSearchRepository.Content;
+
+/**
+ * Test class for the {@link LuceneContentSearchRepository}.
+ */
+class LuceneContentSearchRepositoryTest {
+
+    @TempDir
+    Path indexDirectory;
+
+    private LuceneContentSearchRepository repository;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        repository = new LuceneContentSearchRepository(indexDirectory, 1000);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        repository.close();
+    }
+
+    @Test
+    void testSearchRanksTitleMatchesFirst() {
+        repository.index(Content.POSTS, 1L, "Egri csillagok", "Dobó István védi Eger várát.");
+        repository.index(Content.POSTS, 2L, "Dobó István", "Eger kapitánya.");
+        repository.index(Content.POSTS, 3L, "Bornemissza Gergely", "Gergely Eger várában harcol.");
+        repository.index(Content.PAGES, 1L, "Dobó István", "A page, not a post.");
+        repository.refresh();
+
+        Page<SearchHit> hits = repository.search(Content.POSTS, "dobó istván", PageRequest.of(0, 10));
+
+        assertThat(hits.getTotalElements()).isEqualTo(2);
+        assertThat(hits.getContent()).extracting(SearchHit::getId).containsExactly(2L, 1L);
+        assertThat(hits.getContent().get(1).getSnippet()).contains("<mark>Dobó</mark> <mark>István</mark>");
+    }
+
+    @Test
+    void testSnippetsAreHtmlEscaped() {
+        repository.index(Content.POSTS, 1L, "Eger", "Dobó <script>alert('Eger')</script> & István");
+        repository.refresh();
+
+        Page<SearchHit> hits = repository.search(Content.POSTS, "dobó", PageRequest.of(0, 10));
+
+        assertThat(hits.getContent().get(0).getSnippet())
+            .isEqualTo("<mark>Dobó</mark> &lt;script&gt;alert(&#39;Eger&#39;)&lt;/script&gt; &amp; István");
+    }
+
+    @Test
+    void testSearchPaginates() {
+        for (long id = 1; id <= 5; id++) {
+            repository.index(Content.PAGES, id, "Page " + id, "Eger");
+        }
+        repository.refresh();
+
+        Page<SearchHit> hits = repository.search(Content.PAGES, "eger", PageRequest.of(1, 2));
+
+        assertThat(hits.getTotalElements()).isEqualTo(5);
+        // Same scores, so the newest first
+        assertThat(hits.getContent()).extracting(SearchHit::getId).containsExactly(3L, 2L);
+    }
+
+    @Test
+    void testIndexReplacesAndRemoveDeletes() {
+        repository.index(Content.POSTS, 1L, "Eger", "Dobó");
+        repository.index(Content.POSTS, 1L, "Eger", "Gergely");
+        repository.index(Content.POSTS, 2L, "Eger", "Dobó");
+        repository.remove(Content.POSTS, 2L);
+        repository.refresh();
+
+        assertThat(repository.search(Content.POSTS, "dobó", PageRequest.of(0, 10))).isEmpty();
+        assertThat(repository.search(Content.POSTS, "gergely", PageRequest.of(0, 10))).extracting(SearchHit::getId).containsExactly(1L);
+    }
+
+    @Test
+    void testRebuildRemovesTheEntitiesNotIndexedAgain() {
+        repository.index(Content.POSTS, 1L, "Eger", "Dobó");
+        repository.index(Content.POSTS, 2L, "Eger", "Dobó");
+        repository.index(Content.PAGES, 1L, "Eger", "Dobó");
+
+        repository.startRebuild(Content.POSTS);
+        repository.index(Content.POSTS, 2L, "Eger", "Dobó");
+        repository.finishRebuild(Content.POSTS);
+
+        assertThat(repository.search(Content.POSTS, "eger", PageRequest.of(0, 10))).extracting(SearchHit::getId).containsExactly(2L);
+        assertThat(repository.search(Content.PAGES, "eger", PageRequest.of(0, 10))).extracting(SearchHit::getId).containsExactly(1L);
+    }
+
+    @Test
+    void testIndexIsKeptAfterReopening() throws IOException {
+        repository.index(Content.POSTS, 1L, "Eger", "Dobó");
+        repository.close();
+
+        repository = new LuceneContentSearchRepository(indexDirectory, 1000);
+
+        assertThat(repository.search(Content.POSTS, "dobó", PageRequest.of(0, 10))).extracting(SearchHit::getId).containsExactly(1L);
+    }
+}
@@ -0,0 +1,119 @@
+package tech.lszita.gardonyi.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.function.BooleanSupplier;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.test.context.TestPropertySource;
+import tech.lszita.gardonyi.GardonyiCmsApp;
+import tech.lszita.gardonyi.IntegrationTest;
+import tech.lszita.gardonyi.domain.Post;
+
+/**
+ * Integration tests for the {@link PostgresCacheInvalidationBus}, between the test application context and a second
+ * node started against the same database.
+ * <p>
+ * Only run on PostgreSQL, with the {@code testprod} profile.
+ */
+@IntegrationTest
+@TestPropertySource(properties = { PostgresCacheInvalidationBusIT.SECOND_LEVEL_CACHE, PostgresCacheInvalidationBusIT.POLL_INTERVAL })
+@EnabledIfSystemProperty(named = "spring.profiles.active", matches = ".*testprod.*")
+class PostgresCacheInvalidationBusIT {
+
+    static final String SECOND_LEVEL_CACHE = "spring.jpa.properties.hibernate.cache.use_second_level_cache=true";
+
+    static final String POLL_INTERVAL = "application.cache.invalidation.poll-interval-ms=20";
+
+    private static final long TIMEOUT_MS = 10_000;
+
+    private static ConfigurableApplicationContext otherNode;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @BeforeEach
+    void startOtherNode() throws InterruptedException {
+        if (otherNode == null) {
+            otherNode =
+                new SpringApplicationBuilder(GardonyiCmsApp.class)
+                    .profiles(environment.getActiveProfiles())
+                    .properties(
+                        "spring.datasource.url=" + environment.getProperty("spring.datasource.url"),
+                        "spring.datasource.username=" + environment.getProperty("spring.datasource.username"),
+                        "spring.datasource.password=" + environment.getProperty("spring.datasource.password"),
+                        "spring.liquibase.enabled=false",
+                        "server.port=0",
+                        // Caches of its own, they would be shared with this node otherwise
+                        "application.cache.manager-uri=urn:gardonyi:other-node",
+                        SECOND_LEVEL_CACHE,
+                        POLL_INTERVAL
+                    )
+                    .run();
+        }
+        await(() -> isListening(cacheInvalidationBus) && isListening(otherNode.getBean(CacheInvalidationBus.class)));
+    }
+
+    @AfterAll
+    static void stopOtherNode() {
+        if (otherNode != null) {
+            otherNode.close();
+            otherNode = null;
+        }
+    }
+
+    @Test
+    void testEntityUpdateEvictsOtherNode() throws InterruptedException {
+        PostRepository otherPostRepository = otherNode.getBean(PostRepository.class);
+        javax.persistence.Cache otherSecondLevelCache = otherNode.getBean(EntityManagerFactory.class).getCache();
+        Post post = postRepository.save(new Post().title("Before"));
+        try {
+            assertThat(otherPostRepository.findById(post.getId())).isPresent();
+            assertThat(otherSecondLevelCache.contains(Post.class, post.getId())).isTrue();
+
+            postRepository.save(post.title("After"));
+
+            await(() -> !otherSecondLevelCache.contains(Post.class, post.getId()));
+            assertThat(otherPostRepository.findById(post.getId())).get().extracting(Post::getTitle).isEqualTo("After");
+        } finally {
+            postRepository.deleteById(post.getId());
+        }
+    }
+
+    @Test
+    void testCacheEvictionReachesOtherNode() throws InterruptedException {
+        Cache otherUsersByLogin = otherNode.getBean(CacheManager.class).getCache(UserRepository.USERS_BY_LOGIN_CACHE);
+        otherUsersByLogin.put("invalidated", "cached");
+
+        cacheInvalidationBus.publishCacheEviction(UserRepository.USERS_BY_LOGIN_CACHE, "invalidated");
+
+        await(() -> otherUsersByLogin.get("invalidated") == null);
+    }
+
+    private static boolean isListening(CacheInvalidationBus cacheInvalidationBus) {
+        return ((PostgresCacheInvalidationBus) cacheInvalidationBus).isListening();
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!condition.getAsBoolean()) {
+            assertThat(System.currentTimeMillis()).as("Timed out waiting for the other node").isLessThan(deadline);
+            Thread.sleep(50);
+        }
+    }
+}
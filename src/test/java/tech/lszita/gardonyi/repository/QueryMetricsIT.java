@@ -0,0 +1,47 @@
+package tech.lszita.gardonyi.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import tech.lszita.gardonyi.IntegrationTest;
+
+/**
+ * Integration tests for the {@link QueryMetrics} of the {@link QueryMetricsDataSource}.
+ */
+@IntegrationTest
+class QueryMetricsIT {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testStatementsAreTimedByNormalizedSql() {
+        jdbcTemplate.queryForObject("select count(*) from jhi_user where login = 'admin'", Long.class);
+        jdbcTemplate.queryForObject("select count(*) from jhi_user where login = ?", Long.class, "user");
+
+        Timer timer = meterRegistry
+            .get(QueryMetrics.TIMER_NAME)
+            .tag(QueryMetrics.SQL_TAG, "select ... from jhi_user where login = ?")
+            .timer();
+        assertThat(timer.count()).isGreaterThanOrEqualTo(2);
+    }
+
+    @Test
+    void testConnectionPoolMetricsAreStillBound() {
+        assertThat(dataSource).isInstanceOf(QueryMetricsDataSource.class);
+        assertThat(meterRegistry.find("hikaricp.connections.pending").gauge()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.acquire").timer()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.usage").timer()).isNotNull();
+    }
+}
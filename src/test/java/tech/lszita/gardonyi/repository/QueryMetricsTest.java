@@ -0,0 +1,53 @@
+package tech.lszita.gardonyi.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Test class for the {@link QueryMetrics}.
+ */
+class QueryMetricsTest {
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void testNormalizeReplacesLiteralsAndInLists() {
+        assertThat(QueryMetrics.normalize("update post\n   set title = 'It''s' , version = 2.5 where id in (?, ?,?) and post0_.id > 10"))
+            .isEqualTo("update post set title = ? , version = ? where id in (?) and post0_.id > ?");
+    }
+
+    @Test
+    void testNormalizeShortensSelectLists() {
+        assertThat(
+            QueryMetrics.normalize(
+                "select post0_.id as id1_2_, post0_.title as title2_2_ from post post0_ where post0_.id in " +
+                "(select distinct page0_.id as col_0_0_ from page page0_) limit ?"
+            )
+        )
+            .isEqualTo("select ... from post post0_ where post0_.id in (select ... from page page0_) limit ?");
+    }
+
+    @Test
+    void testStatementsWithOtherLiteralsShareTheirTimer() {
+        QueryMetrics queryMetrics = new QueryMetrics(meterRegistry, 0, 1);
+
+        queryMetrics.record("select title from post where id = 1", TimeUnit.MILLISECONDS.toNanos(3));
+        queryMetrics.record("select title from post where id = 2", TimeUnit.MILLISECONDS.toNanos(5));
+        queryMetrics.record("select title from post where id = 1", TimeUnit.MILLISECONDS.toNanos(7));
+
+        Timer timer = meterRegistry.get(QueryMetrics.TIMER_NAME).tag(QueryMetrics.SQL_TAG, "select ... from post where id = ?").timer();
+        assertThat(timer.count()).isEqualTo(3);
+        assertThat(timer.totalTime(TimeUnit.MILLISECONDS)).isEqualTo(15);
+        assertThat(meterRegistry.find(QueryMetrics.TIMER_NAME).timers()).hasSize(1);
+    }
+}
@@ -0,0 +1,123 @@
+package tech.lszita.gardonyi.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Test class for the {@link ReplicaRoutingDataSource}.
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:primary";
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:replica";
+
+    private ReplicaRoutingDataSource dataSource;
+
+    private ReadYourWrites readYourWrites;
+
+    @AfterEach
+    void tearDown() {
+        if (readYourWrites != null) {
+            readYourWrites.stop();
+        }
+        TransactionSynchronizationManager.clear();
+        dataSource.close();
+    }
+
+    @Test
+    void testReadOnlyTransactionReadsFromReplica() throws SQLException {
+        dataSource = routingDataSource(REPLICA_URL, "select 0");
+
+        assertThat(url(true)).isEqualTo(REPLICA_URL);
+        assertThat(url(false)).isEqualTo(PRIMARY_URL);
+        assertThat(dataSource.getLagMillis("replica")).isZero();
+    }
+
+    @Test
+    void testLaggingReplicaIsNotReadFrom() throws SQLException {
+        dataSource = routingDataSource(REPLICA_URL, "select 10");
+
+        assertThat(url(true)).isEqualTo(PRIMARY_URL);
+        assertThat(dataSource.getLagMillis("replica")).isEqualTo(10_000);
+    }
+
+    @Test
+    void testUnavailableReplicaFallsBackToPrimary() throws SQLException {
+        dataSource = routingDataSource("jdbc:h2:tcp://localhost:1/unavailable", "select 0");
+
+        assertThat(url(true)).isEqualTo(PRIMARY_URL);
+        assertThat(dataSource.getLagMillis("replica")).isEqualTo(-1);
+    }
+
+    @Test
+    void testSessionReadsFromPrimaryAfterWrite() throws SQLException {
+        dataSource = routingDataSource(REPLICA_URL, "select 0");
+        readYourWrites = ReadYourWrites.start(0);
+
+        assertThat(url(true)).isEqualTo(REPLICA_URL);
+        TransactionSynchronizationManager.initSynchronization();
+        assertThat(url(false)).isEqualTo(PRIMARY_URL);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager
+            .getSynchronizations()
+            .forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(readYourWrites.getPrimaryUntilMillis()).isGreaterThan(System.currentTimeMillis());
+        assertThat(url(true)).isEqualTo(PRIMARY_URL);
+    }
+
+    @Test
+    void testPrimaryReadsDontReadFromReplica() throws SQLException {
+        dataSource = routingDataSource(REPLICA_URL, "select 0");
+        readYourWrites = ReadYourWrites.start(0);
+        TransactionSynchronizationManager.initSynchronization();
+
+        String url = ReplicaRoutingDataSource.readFromPrimary(() -> {
+            try {
+                return url(true);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(url).isEqualTo(PRIMARY_URL);
+        // Reading isn't writing, the session keeps reading from the replicas
+        assertThat(TransactionSynchronizationManager.getSynchronizations()).isEmpty();
+        assertThat(url(true)).isEqualTo(REPLICA_URL);
+    }
+
+    private ReplicaRoutingDataSource routingDataSource(String replicaUrl, String lagQuery) {
+        DataSource replica = new DriverManagerDataSource(replicaUrl + ";DB_CLOSE_DELAY=-1", "sa", "");
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(
+            new DriverManagerDataSource(PRIMARY_URL + ";DB_CLOSE_DELAY=-1", "sa", ""),
+            Map.of("replica", replica),
+            lagQuery,
+            1000,
+            3_600_000,
+            5000
+        );
+        routingDataSource.checkReplicas();
+        return routingDataSource;
+    }
+
+    /**
+     * The URL of the database a transaction runs on, the connection is only routed on its first use.
+     */
+    private String url(boolean readOnly) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+            return connection.getMetaData().getURL();
+        }
+    }
+}
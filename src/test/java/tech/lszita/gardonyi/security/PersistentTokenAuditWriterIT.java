@@ -0,0 +1,94 @@
+package tech.lszita.gardonyi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import javax.persistence.EntityManager;
+import org.apache.commons.lang3.RandomStringUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.annotation.Transactional;
+import tech.lszita.gardonyi.IntegrationTest;
+import tech.lszita.gardonyi.domain.PersistentToken;
+import tech.lszita.gardonyi.domain.User;
+import tech.lszita.gardonyi.repository.PersistentTokenRepository;
+import tech.lszita.gardonyi.repository.UserRepository;
+
+/**
+ * Integration tests for {@link PersistentTokenAuditWriter}.
+ */
+@IntegrationTest
+@Transactional
+class PersistentTokenAuditWriterIT {
+
+    private static final String SERIES = "audit-series";
+
+    @Autowired
+    private PersistentTokenAuditWriter persistentTokenAuditWriter;
+
+    @Autowired
+    private PersistentTokenRepository persistentTokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager em;
+
+    @BeforeEach
+    public void init() {
+        User user = new User();
+        user.setLogin("audit-writer-user");
+        user.setPassword(RandomStringUtils.randomAlphanumeric(60));
+        user.setActivated(true);
+        user.setEmail("audit-writer-user@localhost");
+        userRepository.saveAndFlush(user);
+
+        PersistentToken token = new PersistentToken();
+        token.setSeries(SERIES);
+        token.setUser(user);
+        token.setTokenValue("audit-token-value");
+        token.setTokenDate(LocalDate.of(2017, 3, 23));
+        token.setIpAddress("127.0.0.1");
+        token.setUserAgent("Old agent");
+        persistentTokenRepository.saveAndFlush(token);
+    }
+
+    @Test
+    void testCoalescedAuditIsWrittenWithoutTouchingTheTokenValue() {
+        persistentTokenAuditWriter.enqueue(createAudit("10.0.0.1", "First agent"));
+        persistentTokenAuditWriter.enqueue(createAudit("10.0.0.2", "Second agent"));
+
+        assertThat(persistentTokenAuditWriter.flush()).isEqualTo(1);
+        assertThat(persistentTokenAuditWriter.flush()).isZero();
+
+        em.clear();
+        PersistentToken token = persistentTokenRepository.findById(SERIES).orElseThrow();
+        assertThat(token.getTokenValue()).isEqualTo("audit-token-value");
+        assertThat(token.getTokenDate()).isEqualTo(LocalDate.now());
+        assertThat(token.getIpAddress()).isEqualTo("10.0.0.2");
+        assertThat(token.getUserAgent()).isEqualTo("Second agent");
+    }
+
+    @Test
+    void testTokenValueIsUpdatedWithoutTouchingTheAudit() {
+        assertThat(persistentTokenRepository.updateTokenValue(SERIES, "new-token-value")).isEqualTo(1);
+        assertThat(persistentTokenRepository.updateTokenValue("unknown-series", "new-token-value")).isZero();
+
+        em.clear();
+        PersistentToken token = persistentTokenRepository.findById(SERIES).orElseThrow();
+        assertThat(token.getTokenValue()).isEqualTo("new-token-value");
+        assertThat(token.getTokenDate()).isEqualTo(LocalDate.of(2017, 3, 23));
+        assertThat(token.getUserAgent()).isEqualTo("Old agent");
+    }
+
+    private static PersistentToken createAudit(String ipAddress, String userAgent) {
+        PersistentToken audit = new PersistentToken();
+        audit.setSeries(SERIES);
+        audit.setTokenDate(LocalDate.now());
+        audit.setIpAddress(ipAddress);
+        audit.setUserAgent(userAgent);
+        return audit;
+    }
+}
@@ -0,0 +1,66 @@
+package tech.lszita.gardonyi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import tech.lszita.gardonyi.domain.PersistentToken;
+import tech.lszita.gardonyi.repository.CacheInvalidationBus;
+
+/**
+ * Test class for the {@link PersistentTokenAuditWriter} cache evictions.
+ */
+class PersistentTokenAuditWriterUnitTest {
+
+    private Cache cache;
+
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private PersistentTokenAuditWriter persistentTokenAuditWriter;
+
+    @BeforeEach
+    void setUp() {
+        EntityManagerFactory entityManagerFactory = mock(EntityManagerFactory.class);
+        cache = mock(Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        cacheInvalidationBus = mock(CacheInvalidationBus.class);
+        persistentTokenAuditWriter =
+            new PersistentTokenAuditWriter(
+                mock(JdbcTemplate.class),
+                mock(PlatformTransactionManager.class),
+                entityManagerFactory,
+                cacheInvalidationBus,
+                25
+            );
+    }
+
+    @Test
+    void testWrittenTokensAreEvictedOnAllNodes() {
+        persistentTokenAuditWriter.enqueue(createAudit("seriesA"));
+        persistentTokenAuditWriter.enqueue(createAudit("seriesB"));
+
+        assertThat(persistentTokenAuditWriter.flush()).isEqualTo(2);
+
+        for (String series : new String[] { "seriesA", "seriesB" }) {
+            verify(cache).evict(PersistentToken.class, series);
+            verify(cacheInvalidationBus).publishEntityEviction(PersistentToken.class, series);
+        }
+    }
+
+    private static PersistentToken createAudit(String series) {
+        PersistentToken audit = new PersistentToken();
+        audit.setSeries(series);
+        audit.setTokenDate(LocalDate.now());
+        audit.setIpAddress("127.0.0.1");
+        audit.setUserAgent("Test agent");
+        return audit;
+    }
+}
@@ -0,0 +1,205 @@
+package tech.lszita.gardonyi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+import java.time.LocalDate;
+import java.util.Collections;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import tech.jhipster.config.JHipsterProperties;
+import tech.lszita.gardonyi.config.ApplicationProperties;
+import tech.lszita.gardonyi.domain.PersistentToken;
+import tech.lszita.gardonyi.domain.User;
+import tech.lszita.gardonyi.repository.CacheInvalidationBus;
+import tech.lszita.gardonyi.repository.PersistentTokenRepository;
+import tech.lszita.gardonyi.repository.UserRepository;
+
+/**
+ * Test class for the {@link PersistentTokenRememberMeServices} token upgrades.
+ */
+class PersistentTokenRememberMeServicesUnitTest {
+
+    private static final String ALICE_SERIES = "seriesA";
+    private static final String BOB_SERIES = "seriesB";
+
+    private PersistentTokenRepository persistentTokenRepository;
+
+    private PersistentTokenAuditWriter persistentTokenAuditWriter;
+
+    private CacheInvalidationBus cacheInvalidationBus;
+
+    private UserDetailsService userDetailsService;
+
+    private PersistentTokenRememberMeServices rememberMeServices;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        persistentTokenRepository = mock(PersistentTokenRepository.class);
+        when(persistentTokenRepository.findById(ALICE_SERIES)).thenAnswer(invocation -> Optional.of(createToken(ALICE_SERIES, "alice")));
+        when(persistentTokenRepository.findById(BOB_SERIES)).thenAnswer(invocation -> Optional.of(createToken(BOB_SERIES, "bob")));
+
+        persistentTokenAuditWriter = mock(PersistentTokenAuditWriter.class);
+        cacheInvalidationBus = mock(CacheInvalidationBus.class);
+
+        userDetailsService = mock(UserDetailsService.class);
+        when(userDetailsService.loadUserByUsername(anyString()))
+            .thenAnswer(invocation ->
+                new org.springframework.security.core.userdetails.User(invocation.getArgument(0), "", Collections.emptyList())
+            );
+
+        rememberMeServices = createRememberMeServices(false);
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testLoginsOfDifferentSeriesDoNotBlockEachOther() throws Exception {
+        CountDownLatch aliceSaving = new CountDownLatch(1);
+        CountDownLatch releaseAlice = new CountDownLatch(1);
+        blockSaveOf(ALICE_SERIES, aliceSaving, releaseAlice);
+
+        Future<UserDetails> alice = executor.submit(() -> autoLogin(ALICE_SERIES));
+        assertThat(aliceSaving.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Alice's upgrade is stuck in the database round trip, Bob must still get through
+        Future<UserDetails> bob = executor.submit(() -> autoLogin(BOB_SERIES));
+        assertThat(bob.get(5, TimeUnit.SECONDS).getUsername()).isEqualTo("bob");
+        assertThat(alice.isDone()).isFalse();
+
+        releaseAlice.countDown();
+        assertThat(alice.get(5, TimeUnit.SECONDS).getUsername()).isEqualTo("alice");
+    }
+
+    @Test
+    void testLoginsOfSameSeriesAreSerialized() throws Exception {
+        CountDownLatch aliceSaving = new CountDownLatch(1);
+        CountDownLatch releaseAlice = new CountDownLatch(1);
+        blockSaveOf(ALICE_SERIES, aliceSaving, releaseAlice);
+
+        Future<UserDetails> first = executor.submit(() -> autoLogin(ALICE_SERIES));
+        assertThat(aliceSaving.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The same cookie presented concurrently waits for the first upgrade
+        Future<UserDetails> second = executor.submit(() -> autoLogin(ALICE_SERIES));
+        try {
+            second.get(200, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException expected) {
+            // still waiting on the series lock
+        }
+        assertThat(second.isDone()).isFalse();
+
+        releaseAlice.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getUsername()).isEqualTo("alice");
+        // ... and then uses the upgraded token instead of refreshing it a second time
+        assertThat(second.get(5, TimeUnit.SECONDS).getUsername()).isEqualTo("alice");
+        verify(persistentTokenRepository, times(1)).saveAndFlush(any());
+    }
+
+    @Test
+    void testUpgradedTokenIsReusedWithinGracePeriod() {
+        assertThat(autoLogin(ALICE_SERIES).getUsername()).isEqualTo("alice");
+        assertThat(autoLogin(ALICE_SERIES).getUsername()).isEqualTo("alice");
+        verify(persistentTokenRepository, times(1)).saveAndFlush(any());
+    }
+
+    @Test
+    void testAuditFieldsAreWrittenBehind() {
+        rememberMeServices = createRememberMeServices(true);
+        when(persistentTokenRepository.updateTokenValue(eq(ALICE_SERIES), anyString())).thenReturn(1);
+        ArgumentCaptor<String> tokenValue = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<PersistentToken> audit = ArgumentCaptor.forClass(PersistentToken.class);
+
+        assertThat(autoLogin(ALICE_SERIES).getUsername()).isEqualTo("alice");
+
+        // Only the token value is written synchronously, without merging the audit fields
+        verify(persistentTokenRepository).updateTokenValue(eq(ALICE_SERIES), tokenValue.capture());
+        assertThat(tokenValue.getValue()).isNotEqualTo(ALICE_SERIES + "-value");
+        verify(persistentTokenRepository, never()).saveAndFlush(any());
+        verify(cacheInvalidationBus).publishEntityEviction(PersistentToken.class, ALICE_SERIES);
+        // ... which are handed to the write-behind buffer
+        verify(persistentTokenAuditWriter).enqueue(audit.capture());
+        assertThat(audit.getValue().getSeries()).isEqualTo(ALICE_SERIES);
+        assertThat(audit.getValue().getTokenDate()).isEqualTo(LocalDate.now());
+        assertThat(audit.getValue().getUserAgent()).isEqualTo("test");
+    }
+
+    @Test
+    void testAuditFieldsAreWrittenSynchronouslyByDefault() {
+        ArgumentCaptor<PersistentToken> savedToken = ArgumentCaptor.forClass(PersistentToken.class);
+
+        autoLogin(ALICE_SERIES);
+
+        verify(persistentTokenRepository).saveAndFlush(savedToken.capture());
+        assertThat(savedToken.getValue().getTokenDate()).isEqualTo(LocalDate.now());
+        assertThat(savedToken.getValue().getUserAgent()).isEqualTo("test");
+        verifyNoInteractions(persistentTokenAuditWriter);
+    }
+
+    private PersistentTokenRememberMeServices createRememberMeServices(boolean auditWriteBehind) {
+        JHipsterProperties jHipsterProperties = new JHipsterProperties();
+        jHipsterProperties.getSecurity().getRememberMe().setKey("test-key");
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.getRememberMe().setAuditWriteBehind(auditWriteBehind);
+        return new PersistentTokenRememberMeServices(
+            jHipsterProperties,
+            applicationProperties,
+            userDetailsService,
+            persistentTokenRepository,
+            mock(UserRepository.class),
+            persistentTokenAuditWriter,
+            cacheInvalidationBus
+        );
+    }
+
+    private UserDetails autoLogin(String series) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("User-Agent", "test");
+        return rememberMeServices.processAutoLoginCookie(new String[] { series, series + "-value" }, request, new MockHttpServletResponse());
+    }
+
+    private void blockSaveOf(String series, CountDownLatch saving, CountDownLatch release) {
+        when(persistentTokenRepository.saveAndFlush(any()))
+            .thenAnswer(invocation -> {
+                PersistentToken token = invocation.getArgument(0);
+                if (series.equals(token.getSeries())) {
+                    saving.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                }
+                return token;
+            });
+    }
+
+    private static PersistentToken createToken(String series, String login) {
+        User user = new User();
+        user.setLogin(login);
+        PersistentToken token = new PersistentToken();
+        token.setSeries(series);
+        token.setTokenValue(series + "-value");
+        token.setTokenDate(LocalDate.now().minusDays(1));
+        token.setUser(user);
+        return token;
+    }
+}
@@ -0,0 +1,159 @@
+package tech.lszita.gardonyi.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Base64;
+import java.util.List;
+import javax.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import tech.lszita.gardonyi.IntegrationTest;
+import tech.lszita.gardonyi.domain.PersistentToken;
+import tech.lszita.gardonyi.domain.User;
+import tech.lszita.gardonyi.repository.PersistentTokenRepository;
+import tech.lszita.gardonyi.repository.ReplicaRoutingDataSource;
+import tech.lszita.gardonyi.repository.UserRepository;
+
+/**
+ * Integration tests for the authentication with the read replicas enabled: the replica is an empty database, so that
+ * nothing authenticating the users can be read from it.
+ */
+@AutoConfigureMockMvc
+@IntegrationTest
+@TestPropertySource(
+    properties = {
+        "application.read-replicas.enabled=true",
+        "application.read-replicas.urls[0]=" + ReplicaAuthenticationIT.REPLICA_URL,
+        "application.read-replicas.lag-query=select 0",
+    }
+)
+class ReplicaAuthenticationIT {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:empty-replica;DB_CLOSE_DELAY=-1";
+
+    private static final String LOGIN = "replica-user";
+
+    private static final String PASSWORD = "replica-password";
+
+    private static final String SERIES = "replica-series";
+
+    private static final String USER_AGENT = "Test agent";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PersistentTokenRepository persistentTokenRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        User user = new User();
+        user.setLogin(LOGIN);
+        user.setPassword(passwordEncoder.encode(PASSWORD));
+        user.setActivated(true);
+        user.setEmail("replica-user@localhost");
+        userRepository.saveAndFlush(user);
+
+        PersistentToken token = new PersistentToken();
+        token.setSeries(SERIES);
+        token.setUser(user);
+        token.setTokenValue("replica-token-value");
+        token.setTokenDate(LocalDate.now());
+        token.setIpAddress("127.0.0.1");
+        token.setUserAgent(USER_AGENT);
+        persistentTokenRepository.saveAndFlush(token);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingDataSource
+            .readFromPrimary(() -> userRepository.findOneByLogin(LOGIN))
+            .ifPresent(user -> {
+                List<PersistentToken> tokens = ReplicaRoutingDataSource.readFromPrimary(() -> persistentTokenRepository.findByUser(user));
+                persistentTokenRepository.deleteAll(tokens);
+                userRepository.delete(user);
+            });
+    }
+
+    @Test
+    void testReadOnlyTransactionsReadFromReplica() {
+        TransactionTemplate readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+
+        String url = readOnly.execute(status -> jdbcTemplate.execute((ConnectionCallback<String>) c -> c.getMetaData().getURL()));
+
+        assertThat(url).startsWith("jdbc:h2:mem:empty-replica");
+    }
+
+    @Test
+    void testRotatedTokenIsReadFromPrimary() throws Exception {
+        Cookie rotated = mockMvc
+            .perform(get("/api/authenticate").cookie(rememberMeCookie("replica-token-value")).header(HttpHeaders.USER_AGENT, USER_AGENT))
+            .andExpect(status().isOk())
+            .andExpect(content().string(LOGIN))
+            .andReturn()
+            .getResponse()
+            .getCookie("remember-me");
+        assertThat(rotated).isNotNull();
+
+        // A new request of the session, not reading its writes: a replica would still have the previous token value
+        mockMvc
+            .perform(get("/api/authenticate").cookie(rotated).header(HttpHeaders.USER_AGENT, USER_AGENT))
+            .andExpect(status().isOk())
+            .andExpect(content().string(LOGIN));
+
+        assertThat(ReplicaRoutingDataSource.readFromPrimary(() -> persistentTokenRepository.findById(SERIES))).isPresent();
+    }
+
+    @Test
+    void testLoginReadsUserFromPrimary() throws Exception {
+        mockMvc
+            .perform(
+                post("/api/authentication")
+                    .param("username", LOGIN)
+                    .param("password", PASSWORD)
+                    .param("remember-me", "true")
+                    .header(HttpHeaders.USER_AGENT, USER_AGENT)
+                    .with(csrf())
+            )
+            .andExpect(status().isOk());
+
+        User user = ReplicaRoutingDataSource.readFromPrimary(() -> userRepository.findOneByLogin(LOGIN)).orElseThrow();
+        assertThat(ReplicaRoutingDataSource.readFromPrimary(() -> persistentTokenRepository.findByUser(user))).hasSize(2);
+    }
+
+    private static Cookie rememberMeCookie(String tokenValue) {
+        String tokens = SERIES + ":" + tokenValue;
+        return new Cookie("remember-me", Base64.getEncoder().withoutPadding().encodeToString(tokens.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,106 @@
+package tech.lszita.gardonyi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Status;
+import org.springframework.transaction.PlatformTransactionManager;
+import tech.lszita.gardonyi.IntegrationTest;
+import tech.lszita.gardonyi.domain.Authority;
+import tech.lszita.gardonyi.domain.Post;
+import tech.lszita.gardonyi.domain.User;
+import tech.lszita.gardonyi.repository.AuthorityRepository;
+import tech.lszita.gardonyi.repository.PageRepository;
+import tech.lszita.gardonyi.repository.PostRepository;
+import tech.lszita.gardonyi.repository.UserRepository;
+
+/**
+ * Integration tests for the {@link CacheWarmUp}.
+ */
+@IntegrationTest
+class CacheWarmUpIT {
+
+    @Autowired
+    private PostRepository postRepository;
+
+    @Autowired
+    private PageRepository pageRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private List<Post> posts = List.of();
+
+    @AfterEach
+    void cleanup() {
+        postRepository.deleteAll(posts);
+    }
+
+    @Test
+    void testWarmUpLoadsMostRecentlyModifiedEntities() {
+        posts = postRepository.saveAll(IntStream.range(0, 5).mapToObj(i -> new Post().title("Post " + i)).collect(Collectors.toList()));
+        CacheWarmUp cacheWarmUp = cacheWarmUp(true, 3);
+
+        assertThat(cacheWarmUp.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        cacheWarmUp.start().join();
+
+        assertThat(cacheWarmUp.health().getStatus()).isEqualTo(Status.UP);
+        assertThat(cacheWarmUp.health().getDetails().get("state")).hasToString("FINISHED");
+        assertThat(entities(Post.class)).isEqualTo(3);
+        assertThat(entities(Authority.class)).isEqualTo(authorityRepository.count());
+        assertThat(entities(User.class)).isEqualTo(userRepository.count());
+        assertThat(meterRegistry.get("cache.warmup").tag("result", "finished").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("cache.warmup.progress").gauge().value()).isEqualTo(1);
+        cacheWarmUp.shutdown();
+    }
+
+    @Test
+    void testDisabledWarmUpIsReady() {
+        CacheWarmUp cacheWarmUp = cacheWarmUp(false, 3);
+
+        assertThat(cacheWarmUp.health().getStatus()).isEqualTo(Status.UP);
+
+        cacheWarmUp.start().join();
+
+        assertThat(meterRegistry.find("cache.warmup.entities").counter()).isNull();
+    }
+
+    private CacheWarmUp cacheWarmUp(boolean enabled, int posts) {
+        // No pages, and batches of 2 entities so that the posts and users are loaded in several batches
+        return new CacheWarmUp(
+            postRepository,
+            pageRepository,
+            userRepository,
+            authorityRepository,
+            transactionManager,
+            meterRegistry,
+            enabled,
+            posts,
+            0,
+            100,
+            2,
+            2,
+            60
+        );
+    }
+
+    private double entities(Class<?> entityClass) {
+        return meterRegistry.get("cache.warmup.entities").tag("cache", entityClass.getName()).counter().count();
+    }
+}
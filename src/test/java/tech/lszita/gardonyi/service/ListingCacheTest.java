@@ -0,0 +1,154 @@
+package tech.lszita.gardonyi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.configuration.MutableConfiguration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.jcache.JCacheCacheManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.lszita.gardonyi.repository.CacheInvalidationBus;
+import tech.lszita.gardonyi.repository.RowCountEstimator;
+
+/**
+ * Test class for the {@link ListingCache}.
+ */
+class ListingCacheTest {
+
+    private static final String CACHE = ListingCache.POST_LISTINGS_CACHE;
+
+    private static final Pageable PAGEABLE = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id"));
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final AtomicInteger counts = new AtomicInteger();
+
+    private CacheManager cacheManager;
+
+    private ListingCache listingCache;
+
+    @BeforeEach
+    void setUp() {
+        // Ehcache, as in production: its loads don't block the clearing of the cache
+        cacheManager = Caching.getCachingProvider().getCacheManager();
+        cacheManager.createCache(CACHE, new MutableConfiguration<>().setStoreByValue(false));
+        listingCache =
+            new ListingCache(new JCacheCacheManager(cacheManager), mock(CacheInvalidationBus.class), mock(RowCountEstimator.class), 0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+        cacheManager.destroyCache(CACHE);
+        cacheManager.close();
+    }
+
+    @Test
+    void testPageAndCountAreCached() {
+        assertThat(((Page<Long>) getPage(this::load, this::count)).getTotalElements()).isEqualTo(3);
+        assertThat(((Page<Long>) getPage(this::load, this::count)).getTotalElements()).isEqualTo(3);
+
+        assertThat(loads).hasValue(1);
+        assertThat(counts).hasValue(1);
+    }
+
+    @Test
+    void testPageLoadedBeforeCommitIsNotCached() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        CompletableFuture<?> read = CompletableFuture.runAsync(() ->
+            getPage(
+                pageable -> {
+                    loading.countDown();
+                    await(committed);
+                    return load(pageable);
+                },
+                this::count
+            )
+        );
+
+        assertThat(loading.await(10, TimeUnit.SECONDS)).isTrue();
+        commitWrite();
+        committed.countDown();
+        read.get(10, TimeUnit.SECONDS);
+
+        getPage(this::load, this::count);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void testCountLoadedBeforeCommitIsNotCached() throws Exception {
+        CountDownLatch counting = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        CompletableFuture<?> read = CompletableFuture.runAsync(() ->
+            getPage(
+                this::load,
+                () -> {
+                    counting.countDown();
+                    await(committed);
+                    return count();
+                }
+            )
+        );
+
+        assertThat(counting.await(10, TimeUnit.SECONDS)).isTrue();
+        commitWrite();
+        committed.countDown();
+        read.get(10, TimeUnit.SECONDS);
+
+        getPage(this::load, this::count);
+        assertThat(counts).hasValue(2);
+    }
+
+    private Slice<Long> getPage(Function<Pageable, Slice<Long>> loader, LongSupplier counter) {
+        return listingCache.getPage(CACHE, "post", PAGEABLE, TotalCount.EXACT, loader, counter);
+    }
+
+    private Slice<Long> load(Pageable pageable) {
+        loads.incrementAndGet();
+        return new SliceImpl<>(List.of(3L, 2L), pageable, true);
+    }
+
+    private long count() {
+        counts.incrementAndGet();
+        return 3;
+    }
+
+    /**
+     * A write of the table, committing while a read is loading.
+     */
+    private void commitWrite() {
+        TransactionSynchronizationManager.initSynchronization();
+        listingCache.evict(CACHE);
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package tech.lszita.gardonyi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import tech.lszita.gardonyi.repository.CacheInvalidationBus;
+import tech.lszita.gardonyi.service.dto.VersionedDTO;
+
+/**
+ * Test class for the {@link RenderedResponseCache}.
+ */
+class RenderedResponseCacheTest {
+
+    private static final String CACHE = RenderedResponseCache.RENDERED_POSTS_CACHE;
+
+    private ConcurrentMapCacheManager cacheManager;
+
+    private RenderedResponseCache renderedResponseCache;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager(CACHE);
+        renderedResponseCache = new RenderedResponseCache(cacheManager, new ObjectMapper(), mock(CacheInvalidationBus.class));
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+
+    @Test
+    void testRenderedEntityIsCached() {
+        assertThat(renderedResponseCache.get(CACHE, 1L, () -> Optional.of(new TestDTO(1L, 0L)))).get().extracting("version").isEqualTo(0L);
+
+        assertThat(renderedResponseCache.get(CACHE, 1L, Optional::empty)).get().extracting("version").isEqualTo(0L);
+    }
+
+    @Test
+    void testStateLoadedBeforeCommitIsNotCached() throws Exception {
+        CountDownLatch loaded = new CountDownLatch(1);
+        CountDownLatch committed = new CountDownLatch(1);
+        CompletableFuture<?> read = CompletableFuture.runAsync(() ->
+            renderedResponseCache.get(
+                CACHE,
+                1L,
+                () -> {
+                    loaded.countDown();
+                    await(committed);
+                    return Optional.of(new TestDTO(1L, 0L));
+                }
+            )
+        );
+
+        // A write of the entity commits while the read renders the state it loaded before
+        assertThat(loaded.await(10, TimeUnit.SECONDS)).isTrue();
+        TransactionSynchronizationManager.initSynchronization();
+        renderedResponseCache.evict(CACHE, 1L);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        committed.countDown();
+        read.get(10, TimeUnit.SECONDS);
+
+        assertThat(cacheManager.getCache(CACHE).get(1L)).isNull();
+        assertThat(renderedResponseCache.get(CACHE, 1L, () -> Optional.of(new TestDTO(1L, 1L)))).get().extracting("version").isEqualTo(1L);
+        assertThat(cacheManager.getCache(CACHE).get(1L)).isNotNull();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    static class TestDTO implements VersionedDTO {
+
+        private final Long id;
+
+        private final Long version;
+
+        TestDTO(Long id, Long version) {
+            this.id = id;
+            this.version = version;
+        }
+
+        @Override
+        public Long getId() {
+            return id;
+        }
+
+        @Override
+        public Long getVersion() {
+            return version;
+        }
+
+        @Override
+        public Instant getLastModifiedDate() {
+            return null;
+        }
+    }
+}
@@ -1,19 +1,27 @@
 package tech.lszita.gardonyi.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -21,6 +29,8 @@ import org.springframework.transaction.annotation.Transactional;
 import tech.lszita.gardonyi.IntegrationTest;
 import tech.lszita.gardonyi.domain.PageEntity;
 import tech.lszita.gardonyi.repository.PageRepository;
+import tech.lszita.gardonyi.service.ListingCache;
+import tech.lszita.gardonyi.service.dto.BulkOperationDTO;
 import tech.lszita.gardonyi.service.dto.PageDTO;
 import tech.lszita.gardonyi.service.mapper.PageMapper;
 
@@ -56,6 +66,9 @@ class PageResourceIT {
     @Autowired
     private MockMvc restPageMockMvc;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     private PageEntity page;
 
     /**
@@ -82,6 +95,8 @@ class PageResourceIT {
 
     @BeforeEach
     public void initTest() {
+        // The tests write to the repository directly, not through the service that clears the cache
+        cacheManager.getCache(ListingCache.PAGE_LISTINGS_CACHE).clear();
         page = createEntity(em);
     }
 
@@ -145,7 +160,60 @@ class PageResourceIT {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(page.getId().intValue())))
             .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
-            .andExpect(jsonPath("$.[*].content").value(hasItem(DEFAULT_CONTENT)));
+            .andExpect(jsonPath("$.[*].content").value(not(hasItem(DEFAULT_CONTENT))));
+    }
+
+    @Test
+    @Transactional
+    void getAllPagesIsCachedUntilWrite() throws Exception {
+        // Initialize the database
+        pageRepository.saveAndFlush(page);
+        String total = String.valueOf(pageRepository.count());
+        restPageMockMvc.perform(get(ENTITY_API_URL + "?sort=id,desc")).andExpect(status().isOk());
+
+        // Written to the repository directly, the cached list is served
+        PageEntity hidden = pageRepository.saveAndFlush(createEntity(em));
+        restPageMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", total))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(hidden.getId().intValue()))));
+
+        // Created through the service, the list is read again
+        restPageMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(pageMapper.toDto(createEntity(em))))
+            )
+            .andExpect(status().isCreated());
+        restPageMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", String.valueOf(pageRepository.count())))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(hidden.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllPageSummaries() throws Exception {
+        // Initialize the database, the excerpt is the beginning of the content
+        String longContent = "Egri csillagok. ".repeat(20);
+        pageRepository.saveAndFlush(page.content(longContent));
+
+        // Get all the page summaries
+        restPageMockMvc
+            .perform(get(ENTITY_API_URL + "?view=summary&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(page.getId().intValue())))
+            .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
+            .andExpect(jsonPath("$.[*].excerpt").value(hasItem(longContent.substring(0, 200))))
+            .andExpect(jsonPath("$.[*].content").doesNotExist())
+            .andExpect(jsonPath("$.[*].version").doesNotExist());
     }
 
     @Test
@@ -164,6 +232,214 @@ class PageResourceIT {
             .andExpect(jsonPath("$.content").value(DEFAULT_CONTENT));
     }
 
+    @Test
+    @Transactional
+    void getPageAfterUpdateIsNotStale() throws Exception {
+        // Initialize the database
+        pageRepository.saveAndFlush(page);
+
+        // Render the page once, so that it is cached
+        restPageMockMvc
+            .perform(get(ENTITY_API_URL_ID, page.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value(DEFAULT_TITLE));
+
+        // Update the page
+        PageEntity updatedPage = pageRepository.findById(page.getId()).get();
+        em.detach(updatedPage);
+        updatedPage.title(UPDATED_TITLE).content(UPDATED_CONTENT);
+        PageDTO pageDTO = pageMapper.toDto(updatedPage);
+        restPageMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, pageDTO.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(pageDTO))
+            )
+            .andExpect(status().isOk());
+
+        // The cached rendering must have been evicted
+        restPageMockMvc
+            .perform(get(ENTITY_API_URL_ID, page.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.title").value(UPDATED_TITLE))
+            .andExpect(jsonPath("$.content").value(UPDATED_CONTENT));
+    }
+
+    @Test
+    @Transactional
+    void getPageWithIfNoneMatch() throws Exception {
+        // Initialize the database
+        pageRepository.saveAndFlush(page);
+
+        String eTag = restPageMockMvc
+            .perform(get(ENTITY_API_URL_ID, page.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + page.getVersion() + "\""))
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // The client copy is up to date
+        restPageMockMvc
+            .perform(get(ENTITY_API_URL_ID, page.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().bytes(new byte[0]));
+
+        // The client copy is stale
+        restPageMockMvc
+            .perform(get(ENTITY_API_URL_ID, page.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"-1\""))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(page.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllPagesWithIfNoneMatch() throws Exception {
+        // Initialize the database
+        pageRepository.saveAndFlush(page);
+
+        String eTag = restPageMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // Nothing changed
+        restPageMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // A new page changes the ETag of the list, created through the API which evicts the cached listings
+        restPageMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(pageMapper.toDto(createEntity(em))))
+            )
+            .andExpect(status().isCreated());
+        restPageMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    @Transactional
+    void getPageContent() throws Exception {
+        // Initialize the database, with a content longer than a varchar(255)
+        String longContent = "Egri csillagok, Gárdonyi Géza. ".repeat(1000);
+        pageRepository.saveAndFlush(page.content(longContent));
+
+        String eTag = restPageMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/content", page.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/plain;charset=UTF-8"))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + page.getVersion() + "\""))
+            .andExpect(content().string(longContent))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // The client copy is up to date
+        restPageMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/content", page.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingPageContent() throws Exception {
+        restPageMockMvc.perform(get(ENTITY_API_URL_ID + "/content", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void putPageContent() throws Exception {
+        // Initialize the database
+        pageRepository.saveAndFlush(page);
+        Long version = page.getVersion();
+
+        String longContent = "Gárdonyi Géza: Egri csillagok. ".repeat(1000);
+        restPageMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID + "/content", page.getId())
+                    .with(csrf())
+                    .contentType("text/plain;charset=UTF-8")
+                    .header(HttpHeaders.IF_MATCH, "\"" + version + "\"")
+                    .content(longContent)
+            )
+            .andExpect(status().isNoContent())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + (version + 1) + "\""));
+
+        // Validate the Page in the database
+        em.clear();
+        PageEntity testPage = pageRepository.findById(page.getId()).orElseThrow();
+        assertThat(testPage.getContent()).isEqualTo(longContent);
+        assertThat(testPage.getTitle()).isEqualTo(DEFAULT_TITLE);
+        assertThat(testPage.getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    @Transactional
+    void putPageContentWithStaleVersion() throws Exception {
+        // Initialize the database
+        pageRepository.saveAndFlush(page);
+
+        restPageMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID + "/content", page.getId())
+                    .with(csrf())
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .header(HttpHeaders.IF_MATCH, "\"" + (page.getVersion() - 1) + "\"")
+                    .content(UPDATED_CONTENT)
+            )
+            .andExpect(status().isConflict());
+
+        // Validate the Page in the database
+        em.clear();
+        assertThat(pageRepository.findById(page.getId()).orElseThrow().getContent()).isEqualTo(DEFAULT_CONTENT);
+    }
+
+    @Test
+    @Transactional
+    void putNonExistingPageContent() throws Exception {
+        restPageMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID + "/content", Long.MAX_VALUE).with(csrf()).contentType(MediaType.TEXT_PLAIN).content(UPDATED_CONTENT)
+            )
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void searchPages() throws Exception {
+        // Initialize the database
+        PageEntity contentMatch = pageRepository.saveAndFlush(
+            new PageEntity().title("Egri csillagok").content("Eger ostroma Dobó István vezetésével.")
+        );
+        PageEntity titleMatch = pageRepository.saveAndFlush(new PageEntity().title("Dobó István").content("Életrajz."));
+        pageRepository.saveAndFlush(new PageEntity().title("A láthatatlan ember").content("Zéta története."));
+
+        // Title matches rank first, matched words are highlighted in the snippets
+        restPageMockMvc
+            .perform(get("/api/_search/pages?q={query}", "dobó istván"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$.[0].id").value(titleMatch.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(contentMatch.getId().intValue()))
+            .andExpect(jsonPath("$.[1].title").value("Egri csillagok"))
+            .andExpect(jsonPath("$.[1].snippet").value(containsString("<mark>Dobó</mark> <mark>István</mark>")));
+    }
+
     @Test
     @Transactional
     void getNonExistingPage() throws Exception {
@@ -203,6 +479,38 @@ class PageResourceIT {
         assertThat(testPage.getContent()).isEqualTo(UPDATED_CONTENT);
     }
 
+    @Test
+    @Transactional
+    void putExistingPageWithoutVersion() throws Exception {
+        // Initialize the database
+        pageRepository.saveAndFlush(page);
+
+        int databaseSizeBeforeUpdate = pageRepository.findAll().size();
+
+        // Update the page, as a client not aware of the version would
+        PageEntity updatedPage = pageRepository.findById(page.getId()).get();
+        em.detach(updatedPage);
+        updatedPage.title(UPDATED_TITLE).content(UPDATED_CONTENT);
+        PageDTO pageDTO = pageMapper.toDto(updatedPage);
+        pageDTO.setVersion(null);
+
+        restPageMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, pageDTO.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(pageDTO))
+            )
+            .andExpect(status().isOk());
+
+        // Validate the Page in the database
+        List<PageEntity> pageList = pageRepository.findAll();
+        assertThat(pageList).hasSize(databaseSizeBeforeUpdate);
+        PageEntity testPage = pageList.get(pageList.size() - 1);
+        assertThat(testPage.getTitle()).isEqualTo(UPDATED_TITLE);
+        assertThat(testPage.getContent()).isEqualTo(UPDATED_CONTENT);
+    }
+
     @Test
     @Transactional
     void putNonExistingPage() throws Exception {
@@ -423,4 +731,157 @@ class PageResourceIT {
         List<PageEntity> pageList = pageRepository.findAll();
         assertThat(pageList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void exportPagesAsNdjson() throws Exception {
+        // Initialize the database
+        pageRepository.saveAndFlush(page);
+        int databaseSize = pageRepository.findAll().size();
+
+        String export = restPageMockMvc
+            .perform(get(ENTITY_API_URL + "/_export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON_VALUE))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"pages.ndjson\""))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertThat(export.split("\n"))
+            .hasSize(databaseSize)
+            .anySatisfy(line ->
+                assertThat(line).contains("\"id\":" + page.getId() + ",", "\"title\":\"" + DEFAULT_TITLE + "\"", DEFAULT_CONTENT)
+            );
+    }
+
+    @Test
+    @Transactional
+    void exportPagesAsCsv() throws Exception {
+        // Initialize the database
+        page.setTitle("Egri, \"csillagok\"");
+        pageRepository.saveAndFlush(page);
+        int databaseSize = pageRepository.findAll().size();
+
+        String export = restPageMockMvc
+            .perform(get(ENTITY_API_URL + "/_export?format=csv"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv;charset=UTF-8"))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"pages.csv\""))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        String[] lines = export.split("\r\n");
+        assertThat(lines).hasSize(databaseSize + 1);
+        assertThat(lines[0]).isEqualTo("id,title,version,lastModifiedDate,content");
+        assertThat(lines).anySatisfy(line -> assertThat(line).startsWith(page.getId() + ",\"Egri, \"\"csillagok\"\"\","));
+    }
+
+    @Test
+    @Transactional
+    void exportPagesWithUnknownFormat() throws Exception {
+        restPageMockMvc.perform(get(ENTITY_API_URL + "/_export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void bulkPages() throws Exception {
+        // Initialize the database
+        pageRepository.saveAndFlush(page);
+        PageEntity deletedPage = pageRepository.saveAndFlush(createEntity(em));
+        int databaseSizeBeforeBulk = pageRepository.findAll().size();
+
+        PageDTO newPageDTO = pageMapper.toDto(createUpdatedEntity(em));
+        PageDTO updatedPageDTO = pageMapper.toDto(page);
+        updatedPageDTO.setTitle(UPDATED_TITLE);
+        List<BulkOperationDTO<PageDTO>> operations = List.of(
+            new BulkOperationDTO<>(BulkOperationDTO.Action.CREATE, null, newPageDTO),
+            new BulkOperationDTO<>(BulkOperationDTO.Action.UPDATE, null, updatedPageDTO),
+            new BulkOperationDTO<>(BulkOperationDTO.Action.DELETE, deletedPage.getId(), null),
+            new BulkOperationDTO<>(BulkOperationDTO.Action.DELETE, Long.MAX_VALUE, null),
+            new BulkOperationDTO<>(BulkOperationDTO.Action.CREATE, null, updatedPageDTO)
+        );
+
+        // Run the operations, each one gets its own result
+        restPageMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_bulk")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(operations))
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$", hasSize(5)))
+            .andExpect(jsonPath("$.[*].index").value(contains(0, 1, 2, 3, 4)))
+            .andExpect(jsonPath("$.[*].status").value(contains(201, 200, 204, 404, 400)))
+            .andExpect(jsonPath("$.[1].id").value(page.getId().intValue()))
+            .andExpect(jsonPath("$.[2].id").value(deletedPage.getId().intValue()));
+
+        // Validate the Pages in the database
+        assertThat(pageRepository.findAll()).hasSize(databaseSizeBeforeBulk);
+        assertThat(pageRepository.findById(page.getId()).orElseThrow().getTitle()).isEqualTo(UPDATED_TITLE);
+        assertThat(pageRepository.findById(deletedPage.getId())).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void bulkPagesWithNdjson() throws Exception {
+        int databaseSizeBeforeBulk = pageRepository.findAll().size();
+
+        // Reading stops at the malformed line
+        String operations =
+            "{\"action\": \"create\", \"data\": {\"title\": \"" + DEFAULT_TITLE + "\"}}\n" +
+            "{\"action\": \"delete\", \"id\": " + Long.MAX_VALUE + "}\n" +
+            "not an operation\n" +
+            "{\"action\": \"create\", \"data\": {\"title\": \"" + UPDATED_TITLE + "\"}}\n";
+        String results = restPageMockMvc
+            .perform(post(ENTITY_API_URL + "/_bulk").with(csrf()).contentType(MediaType.APPLICATION_NDJSON).content(operations))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON_VALUE))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertThat(results.split("\n"))
+            .hasSize(3)
+            .satisfies(lines -> {
+                assertThat(lines[0]).contains("\"index\":0", "\"action\":\"create\"", "\"status\":201");
+                assertThat(lines[1]).contains("\"index\":1", "\"action\":\"delete\"", "\"status\":404");
+                assertThat(lines[2]).contains("\"index\":2", "\"status\":400");
+            });
+        assertThat(pageRepository.findAll()).hasSize(databaseSizeBeforeBulk + 1);
+    }
+
+    @Test
+    void bulkPagesIsolatesFailingOperations() throws Exception {
+        String title = "bulk-" + count.incrementAndGet();
+        List<BulkOperationDTO<PageDTO>> operations = new ArrayList<>();
+        for (String content : List.of(DEFAULT_CONTENT, "A".repeat(1000), UPDATED_CONTENT)) {
+            PageDTO pageDTO = new PageDTO();
+            // The second title is too long for its column, failing the flush of the whole chunk
+            pageDTO.setTitle(content.length() > 255 ? content : title);
+            pageDTO.setContent(content);
+            operations.add(new BulkOperationDTO<>(BulkOperationDTO.Action.CREATE, null, pageDTO));
+        }
+
+        try {
+            restPageMockMvc
+                .perform(
+                    post(ENTITY_API_URL + "/_bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(operations))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].status").value(contains(201, 400, 201)));
+
+            assertThat(pageRepository.findAll()).filteredOn(page1 -> title.equals(page1.getTitle())).hasSize(2);
+        } finally {
+            pageRepository.deleteAll(
+                pageRepository.findAll().stream().filter(page1 -> title.equals(page1.getTitle())).collect(Collectors.toList())
+            );
+        }
+    }
 }
@@ -1,28 +1,42 @@
 package tech.lszita.gardonyi.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static tech.lszita.gardonyi.web.rest.TestUtil.assertMaxQueries;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 import javax.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 import tech.lszita.gardonyi.IntegrationTest;
 import tech.lszita.gardonyi.domain.Post;
 import tech.lszita.gardonyi.repository.PostRepository;
+import tech.lszita.gardonyi.service.ListingCache;
+import tech.lszita.gardonyi.service.dto.BulkOperationDTO;
 import tech.lszita.gardonyi.service.dto.PostDTO;
 import tech.lszita.gardonyi.service.mapper.PostMapper;
+import tech.lszita.gardonyi.web.filter.QueryStatisticsFilter;
+import tech.lszita.gardonyi.web.rest.util.KeysetPaginationUtil;
 
 /**
  * Integration tests for the {@link PostResource} REST controller.
@@ -59,6 +73,9 @@ class PostResourceIT {
     @Autowired
     private MockMvc restPostMockMvc;
 
+    @Autowired
+    private CacheManager cacheManager;
+
     private Post post;
 
     /**
@@ -85,6 +102,8 @@ class PostResourceIT {
 
     @BeforeEach
     public void initTest() {
+        // The tests write to the repository directly, not through the service that clears the cache
+        cacheManager.getCache(ListingCache.POST_LISTINGS_CACHE).clear();
         post = createEntity(em);
     }
 
@@ -149,8 +168,133 @@ class PostResourceIT {
             .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
             .andExpect(jsonPath("$.[*].id").value(hasItem(post.getId().intValue())))
             .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
-            .andExpect(jsonPath("$.[*].content").value(hasItem(DEFAULT_CONTENT)))
-            .andExpect(jsonPath("$.[*].author").value(hasItem(DEFAULT_AUTHOR)));
+            .andExpect(jsonPath("$.[*].content").value(not(hasItem(DEFAULT_CONTENT))))
+            .andExpect(jsonPath("$.[*].author").value(hasItem(DEFAULT_AUTHOR)))
+            .andExpect(assertMaxQueries(2));
+    }
+
+    @Test
+    @Transactional
+    void getAllPostsIsCachedUntilWrite() throws Exception {
+        // Initialize the database
+        postRepository.saveAndFlush(post);
+        String total = String.valueOf(postRepository.count());
+        restPostMockMvc.perform(get(ENTITY_API_URL + "?sort=id,desc")).andExpect(status().isOk());
+
+        // Written to the repository directly, the cached list is served
+        Post hidden = postRepository.saveAndFlush(createEntity(em));
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", total))
+            .andExpect(jsonPath("$.[*].id").value(not(hasItem(hidden.getId().intValue()))));
+
+        // Created through the service, the list is read again
+        restPostMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(postMapper.toDto(createEntity(em))))
+            )
+            .andExpect(status().isCreated());
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", String.valueOf(postRepository.count())))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(hidden.getId().intValue())));
+    }
+
+    @Test
+    @Transactional
+    void getAllPostsWithoutCount() throws Exception {
+        // Initialize the database
+        postRepository.saveAndFlush(post);
+        postRepository.saveAndFlush(createEntity(em));
+
+        // Get the first slice, not counted
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&size=1&count=none"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("page=1&size=1>; rel=\"next\"")))
+            .andExpect(header().string(HttpHeaders.LINK, not(containsString("rel=\"last\""))))
+            .andExpect(jsonPath("$", hasSize(1)));
+    }
+
+    @Test
+    @Transactional
+    void getAllPostsWithEstimatedCount() throws Exception {
+        // Initialize the database
+        postRepository.saveAndFlush(post);
+
+        // No estimates on H2, the posts are counted
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc&size=1&count=estimated"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("X-Total-Count", String.valueOf(postRepository.count())))
+            .andExpect(header().string("X-Total-Count-Estimated", "true"));
+    }
+
+    @Test
+    void getAllPostsWithInvalidCount() throws Exception {
+        restPostMockMvc.perform(get(ENTITY_API_URL + "?count=approximately")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllPostsWithCursor() throws Exception {
+        // Initialize the database
+        Post first = postRepository.saveAndFlush(createEntity(em));
+        Post second = postRepository.saveAndFlush(createEntity(em));
+
+        // Get the first slice, starting right before the first post
+        String start = KeysetPaginationUtil.encodeCursor(first.getId() - 1);
+        MvcResult result = restPostMockMvc
+            .perform(get(ENTITY_API_URL + "?after={cursor}&size=1", start))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(KeysetPaginationUtil.HEADER_NEXT_CURSOR, KeysetPaginationUtil.encodeCursor(first.getId())))
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(first.getId().intValue()))
+            .andReturn();
+
+        // Get the next slice using the returned cursor
+        String next = result.getResponse().getHeader(KeysetPaginationUtil.HEADER_NEXT_CURSOR);
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL + "?after={cursor}&size=1", next))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$.[0].id").value(second.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllPostsWithInvalidCursor() throws Exception {
+        restPostMockMvc.perform(get(ENTITY_API_URL + "?after=not-a-cursor")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void getAllPostSummaries() throws Exception {
+        // Initialize the database, the excerpt is the beginning of the content
+        String longContent = "Egri csillagok. ".repeat(20);
+        postRepository.saveAndFlush(post.content(longContent));
+
+        // Get all the post summaries
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL + "?view=summary&sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().exists("X-Total-Count"))
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andExpect(jsonPath("$.[*].id").value(hasItem(post.getId().intValue())))
+            .andExpect(jsonPath("$.[*].title").value(hasItem(DEFAULT_TITLE)))
+            .andExpect(jsonPath("$.[*].author").value(hasItem(DEFAULT_AUTHOR)))
+            .andExpect(jsonPath("$.[*].excerpt").value(hasItem(longContent.substring(0, 200))))
+            .andExpect(jsonPath("$.[*].content").doesNotExist())
+            .andExpect(jsonPath("$.[*].version").doesNotExist());
     }
 
     @Test
@@ -167,7 +311,260 @@ class PostResourceIT {
             .andExpect(jsonPath("$.id").value(post.getId().intValue()))
             .andExpect(jsonPath("$.title").value(DEFAULT_TITLE))
             .andExpect(jsonPath("$.content").value(DEFAULT_CONTENT))
-            .andExpect(jsonPath("$.author").value(DEFAULT_AUTHOR));
+            .andExpect(jsonPath("$.author").value(DEFAULT_AUTHOR))
+            .andExpect(assertMaxQueries(1));
+    }
+
+    @Test
+    @Transactional
+    void getPostAfterUpdateIsNotStale() throws Exception {
+        // Initialize the database
+        postRepository.saveAndFlush(post);
+
+        // Render the post once, so that it is cached
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL_ID, post.getId()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.title").value(DEFAULT_TITLE));
+
+        // Update the post
+        Post updatedPost = postRepository.findById(post.getId()).get();
+        em.detach(updatedPost);
+        updatedPost.title(UPDATED_TITLE).content(UPDATED_CONTENT).author(UPDATED_AUTHOR);
+        PostDTO postDTO = postMapper.toDto(updatedPost);
+        restPostMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, postDTO.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(postDTO))
+            )
+            .andExpect(status().isOk());
+
+        // The cached rendering must have been evicted
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL_ID, post.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$.title").value(UPDATED_TITLE))
+            .andExpect(jsonPath("$.content").value(UPDATED_CONTENT));
+    }
+
+    @Test
+    @Transactional
+    void getPostWithIfNoneMatch() throws Exception {
+        // Initialize the database
+        postRepository.saveAndFlush(post);
+
+        String eTag = restPostMockMvc
+            .perform(get(ENTITY_API_URL_ID, post.getId()))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + post.getVersion() + "\""))
+            .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // The client copy is up to date
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL_ID, post.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().bytes(new byte[0]));
+
+        // The client copy is stale
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL_ID, post.getId()).header(HttpHeaders.IF_NONE_MATCH, "\"-1\""))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.id").value(post.getId().intValue()));
+    }
+
+    @Test
+    @Transactional
+    void getAllPostsWithIfNoneMatch() throws Exception {
+        // Initialize the database
+        postRepository.saveAndFlush(post);
+
+        String eTag = restPostMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // Nothing changed
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // A new post changes the ETag of the list, created through the API which evicts the cached listings
+        restPostMockMvc
+            .perform(
+                post(ENTITY_API_URL)
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(postMapper.toDto(createEntity(em))))
+            )
+            .andExpect(status().isCreated());
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL + "?sort=id,desc").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    @Transactional
+    void getAllPostsAfterWithIfNoneMatch() throws Exception {
+        // Initialize the database
+        postRepository.saveAndFlush(post);
+
+        String eTag = restPostMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=100"))
+            .andExpect(status().isOk())
+            .andExpect(header().exists(HttpHeaders.ETAG))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // Nothing changed
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=100").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified());
+
+        // An updated post changes the ETag of the slice holding it
+        Post updatedPost = postRepository.findById(post.getId()).get();
+        em.detach(updatedPost);
+        postRepository.saveAndFlush(updatedPost.title(UPDATED_TITLE));
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL + "?after=&size=100").header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isOk())
+            .andExpect(header().string(HttpHeaders.ETAG, not(eTag)));
+    }
+
+    @Test
+    @Transactional
+    void getPostContent() throws Exception {
+        // Initialize the database, with a content longer than a varchar(255)
+        String longContent = "Egri csillagok, Gárdonyi Géza. ".repeat(1000);
+        postRepository.saveAndFlush(post.content(longContent));
+
+        String eTag = restPostMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/content", post.getId()))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/plain;charset=UTF-8"))
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + post.getVersion() + "\""))
+            .andExpect(content().string(longContent))
+            .andReturn()
+            .getResponse()
+            .getHeader(HttpHeaders.ETAG);
+
+        // The client copy is up to date
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL_ID + "/content", post.getId()).header(HttpHeaders.IF_NONE_MATCH, eTag))
+            .andExpect(status().isNotModified())
+            .andExpect(content().string(""));
+    }
+
+    @Test
+    @Transactional
+    void getNonExistingPostContent() throws Exception {
+        restPostMockMvc.perform(get(ENTITY_API_URL_ID + "/content", Long.MAX_VALUE)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void putPostContent() throws Exception {
+        // Initialize the database
+        postRepository.saveAndFlush(post);
+        Long version = post.getVersion();
+
+        String longContent = "Gárdonyi Géza: Egri csillagok. ".repeat(1000);
+        restPostMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID + "/content", post.getId())
+                    .with(csrf())
+                    .contentType("text/plain;charset=UTF-8")
+                    .header(HttpHeaders.IF_MATCH, "\"" + version + "\"")
+                    .content(longContent)
+            )
+            .andExpect(status().isNoContent())
+            .andExpect(header().string(HttpHeaders.ETAG, "\"" + (version + 1) + "\""));
+
+        // Validate the Post in the database
+        em.clear();
+        Post testPost = postRepository.findById(post.getId()).orElseThrow();
+        assertThat(testPost.getContent()).isEqualTo(longContent);
+        assertThat(testPost.getTitle()).isEqualTo(DEFAULT_TITLE);
+        assertThat(testPost.getVersion()).isEqualTo(version + 1);
+    }
+
+    @Test
+    @Transactional
+    void putPostContentWithStaleVersion() throws Exception {
+        // Initialize the database
+        postRepository.saveAndFlush(post);
+
+        restPostMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID + "/content", post.getId())
+                    .with(csrf())
+                    .contentType(MediaType.TEXT_PLAIN)
+                    .header(HttpHeaders.IF_MATCH, "\"" + (post.getVersion() - 1) + "\"")
+                    .content(UPDATED_CONTENT)
+            )
+            .andExpect(status().isConflict());
+
+        // Validate the Post in the database
+        em.clear();
+        assertThat(postRepository.findById(post.getId()).orElseThrow().getContent()).isEqualTo(DEFAULT_CONTENT);
+    }
+
+    @Test
+    @Transactional
+    void putNonExistingPostContent() throws Exception {
+        restPostMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID + "/content", Long.MAX_VALUE).with(csrf()).contentType(MediaType.TEXT_PLAIN).content(UPDATED_CONTENT)
+            )
+            .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @Transactional
+    void searchPosts() throws Exception {
+        // Initialize the database
+        Post contentMatch = postRepository.saveAndFlush(
+            new Post().title("Egri csillagok").content("Eger ostroma Dobó István vezetésével.").author(DEFAULT_AUTHOR)
+        );
+        Post titleMatch = postRepository.saveAndFlush(new Post().title("Dobó István").content("Életrajz.").author(DEFAULT_AUTHOR));
+        postRepository.saveAndFlush(new Post().title("A láthatatlan ember").content("Zéta története.").author(DEFAULT_AUTHOR));
+
+        // Title matches rank first, matched words are highlighted in the snippets
+        restPostMockMvc
+            .perform(get("/api/_search/posts?q={query}", "dobó istván"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(header().string("X-Total-Count", "2"))
+            .andExpect(jsonPath("$", hasSize(2)))
+            .andExpect(jsonPath("$.[0].id").value(titleMatch.getId().intValue()))
+            .andExpect(jsonPath("$.[1].id").value(contentMatch.getId().intValue()))
+            .andExpect(jsonPath("$.[1].title").value("Egri csillagok"))
+            .andExpect(jsonPath("$.[1].snippet").value(containsString("<mark>Dobó</mark> <mark>István</mark>")));
+    }
+
+    @Test
+    @Transactional
+    void searchPostsEscapesSnippets() throws Exception {
+        // Initialize the database
+        postRepository.saveAndFlush(
+            new Post().title("Egri csillagok").content("Dobó <img src=x onerror=alert(1)> István").author(DEFAULT_AUTHOR)
+        );
+
+        // Only the highlight tags are HTML in the snippets
+        restPostMockMvc
+            .perform(get("/api/_search/posts?q={query}", "dobó"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[0].snippet").value("<mark>Dobó</mark> &lt;img src=x onerror=alert(1)&gt; István"));
     }
 
     @Test
@@ -210,6 +607,38 @@ class PostResourceIT {
         assertThat(testPost.getAuthor()).isEqualTo(UPDATED_AUTHOR);
     }
 
+    @Test
+    @Transactional
+    void putExistingPostWithoutVersion() throws Exception {
+        // Initialize the database
+        postRepository.saveAndFlush(post);
+
+        int databaseSizeBeforeUpdate = postRepository.findAll().size();
+
+        // Update the post, as a client not aware of the version would
+        Post updatedPost = postRepository.findById(post.getId()).get();
+        em.detach(updatedPost);
+        updatedPost.title(UPDATED_TITLE).content(UPDATED_CONTENT);
+        PostDTO postDTO = postMapper.toDto(updatedPost);
+        postDTO.setVersion(null);
+
+        restPostMockMvc
+            .perform(
+                put(ENTITY_API_URL_ID, postDTO.getId())
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(postDTO))
+            )
+            .andExpect(status().isOk());
+
+        // Validate the Post in the database
+        List<Post> postList = postRepository.findAll();
+        assertThat(postList).hasSize(databaseSizeBeforeUpdate);
+        Post testPost = postList.get(postList.size() - 1);
+        assertThat(testPost.getTitle()).isEqualTo(UPDATED_TITLE);
+        assertThat(testPost.getContent()).isEqualTo(UPDATED_CONTENT);
+    }
+
     @Test
     @Transactional
     void putNonExistingPost() throws Exception {
@@ -430,4 +859,172 @@ class PostResourceIT {
         List<Post> postList = postRepository.findAll();
         assertThat(postList).hasSize(databaseSizeBeforeDelete - 1);
     }
+
+    @Test
+    @Transactional
+    void exportPostsAsNdjson() throws Exception {
+        // Initialize the database
+        postRepository.saveAndFlush(post);
+        int databaseSize = postRepository.findAll().size();
+
+        String export = restPostMockMvc
+            .perform(get(ENTITY_API_URL + "/_export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON_VALUE))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"posts.ndjson\""))
+            // Counted once the export has run, as it fits in the response buffer
+            .andExpect(header().string(QueryStatisticsFilter.STATEMENT_COUNT_HEADER, not("0")))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertThat(export.split("\n"))
+            .hasSize(databaseSize)
+            .anySatisfy(line ->
+                assertThat(line).contains("\"id\":" + post.getId() + ",", "\"title\":\"" + DEFAULT_TITLE + "\"", DEFAULT_CONTENT)
+            );
+    }
+
+    @Test
+    @Transactional
+    void exportPostsLargerThanTheBufferHaveNoStatisticsHeaders() throws Exception {
+        // Initialize the database
+        post.setContent("Egri csillagok ".repeat(1000));
+        postRepository.saveAndFlush(post);
+
+        restPostMockMvc
+            .perform(get(ENTITY_API_URL + "/_export"))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist(QueryStatisticsFilter.STATEMENT_COUNT_HEADER));
+    }
+
+    @Test
+    @Transactional
+    void exportPostsAsCsv() throws Exception {
+        // Initialize the database
+        post.setTitle("Egri, \"csillagok\"");
+        postRepository.saveAndFlush(post);
+        int databaseSize = postRepository.findAll().size();
+
+        String export = restPostMockMvc
+            .perform(get(ENTITY_API_URL + "/_export?format=csv"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType("text/csv;charset=UTF-8"))
+            .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"posts.csv\""))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        String[] lines = export.split("\r\n");
+        assertThat(lines).hasSize(databaseSize + 1);
+        assertThat(lines[0]).isEqualTo("id,title,author,version,lastModifiedDate,content");
+        assertThat(lines).anySatisfy(line -> assertThat(line).startsWith(post.getId() + ",\"Egri, \"\"csillagok\"\"\","));
+    }
+
+    @Test
+    @Transactional
+    void exportPostsWithUnknownFormat() throws Exception {
+        restPostMockMvc.perform(get(ENTITY_API_URL + "/_export?format=xml")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @Transactional
+    void bulkPosts() throws Exception {
+        // Initialize the database
+        postRepository.saveAndFlush(post);
+        Post deletedPost = postRepository.saveAndFlush(createEntity(em));
+        int databaseSizeBeforeBulk = postRepository.findAll().size();
+
+        PostDTO newPostDTO = postMapper.toDto(createUpdatedEntity(em));
+        PostDTO updatedPostDTO = postMapper.toDto(post);
+        updatedPostDTO.setTitle(UPDATED_TITLE);
+        List<BulkOperationDTO<PostDTO>> operations = List.of(
+            new BulkOperationDTO<>(BulkOperationDTO.Action.CREATE, null, newPostDTO),
+            new BulkOperationDTO<>(BulkOperationDTO.Action.UPDATE, null, updatedPostDTO),
+            new BulkOperationDTO<>(BulkOperationDTO.Action.DELETE, deletedPost.getId(), null),
+            new BulkOperationDTO<>(BulkOperationDTO.Action.DELETE, Long.MAX_VALUE, null),
+            new BulkOperationDTO<>(BulkOperationDTO.Action.CREATE, null, updatedPostDTO)
+        );
+
+        // Run the operations, each one gets its own result
+        restPostMockMvc
+            .perform(
+                post(ENTITY_API_URL + "/_bulk")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(TestUtil.convertObjectToJsonBytes(operations))
+            )
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_JSON_VALUE))
+            .andExpect(jsonPath("$", hasSize(5)))
+            .andExpect(jsonPath("$.[*].index").value(contains(0, 1, 2, 3, 4)))
+            .andExpect(jsonPath("$.[*].status").value(contains(201, 200, 204, 404, 400)))
+            .andExpect(jsonPath("$.[1].id").value(post.getId().intValue()))
+            .andExpect(jsonPath("$.[2].id").value(deletedPost.getId().intValue()));
+
+        // Validate the Posts in the database
+        assertThat(postRepository.findAll()).hasSize(databaseSizeBeforeBulk);
+        assertThat(postRepository.findById(post.getId()).orElseThrow().getTitle()).isEqualTo(UPDATED_TITLE);
+        assertThat(postRepository.findById(deletedPost.getId())).isEmpty();
+    }
+
+    @Test
+    @Transactional
+    void bulkPostsWithNdjson() throws Exception {
+        int databaseSizeBeforeBulk = postRepository.findAll().size();
+
+        // Reading stops at the malformed line
+        String operations =
+            "{\"action\": \"create\", \"data\": {\"title\": \"" + DEFAULT_TITLE + "\"}}\n" +
+            "{\"action\": \"delete\", \"id\": " + Long.MAX_VALUE + "}\n" +
+            "not an operation\n" +
+            "{\"action\": \"create\", \"data\": {\"title\": \"" + UPDATED_TITLE + "\"}}\n";
+        String results = restPostMockMvc
+            .perform(post(ENTITY_API_URL + "/_bulk").with(csrf()).contentType(MediaType.APPLICATION_NDJSON).content(operations))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON_VALUE))
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+
+        assertThat(results.split("\n"))
+            .hasSize(3)
+            .satisfies(lines -> {
+                assertThat(lines[0]).contains("\"index\":0", "\"action\":\"create\"", "\"status\":201");
+                assertThat(lines[1]).contains("\"index\":1", "\"action\":\"delete\"", "\"status\":404");
+                assertThat(lines[2]).contains("\"index\":2", "\"status\":400");
+            });
+        assertThat(postRepository.findAll()).hasSize(databaseSizeBeforeBulk + 1);
+    }
+
+    @Test
+    void bulkPostsIsolatesFailingOperations() throws Exception {
+        String title = "bulk-" + count.incrementAndGet();
+        List<BulkOperationDTO<PostDTO>> operations = new ArrayList<>();
+        for (String content : List.of(DEFAULT_CONTENT, "A".repeat(1000), UPDATED_CONTENT)) {
+            PostDTO postDTO = new PostDTO();
+            // The second title is too long for its column, failing the flush of the whole chunk
+            postDTO.setTitle(content.length() > 255 ? content : title);
+            postDTO.setContent(content);
+            operations.add(new BulkOperationDTO<>(BulkOperationDTO.Action.CREATE, null, postDTO));
+        }
+
+        try {
+            restPostMockMvc
+                .perform(
+                    post(ENTITY_API_URL + "/_bulk")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(TestUtil.convertObjectToJsonBytes(operations))
+                )
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].status").value(contains(201, 400, 201)));
+
+            assertThat(postRepository.findAll()).filteredOn(post1 -> title.equals(post1.getTitle())).hasSize(2);
+        } finally {
+            postRepository.deleteAll(
+                postRepository.findAll().stream().filter(post1 -> title.equals(post1.getTitle())).collect(Collectors.toList())
+            );
+        }
+    }
 }
@@ -22,6 +22,8 @@ import org.hamcrest.TypeSafeMatcher;
 import org.springframework.format.datetime.standard.DateTimeFormatterRegistrar;
 import org.springframework.format.support.DefaultFormattingConversionService;
 import org.springframework.format.support.FormattingConversionService;
+import org.springframework.test.web.servlet.ResultMatcher;
+import tech.lszita.gardonyi.web.filter.QueryStatisticsFilter;
 
 /**
  * Utility class for testing REST controllers.
@@ -49,6 +51,21 @@ public final class TestUtil {
         return mapper.writeValueAsBytes(object);
     }
 
+    /**
+     * Assert that a request executed at most the given number of SQL statements, as counted by the
+     * {@link QueryStatisticsFilter}, to catch N+1 selects.
+     *
+     * @param maxQueries the maximum number of SQL statements.
+     * @return the matcher of the statement count header.
+     */
+    public static ResultMatcher assertMaxQueries(int maxQueries) {
+        return result -> {
+            String statementCount = result.getResponse().getHeader(QueryStatisticsFilter.STATEMENT_COUNT_HEADER);
+            assertThat(statementCount).as("SQL statement count header").isNotNull();
+            assertThat(Integer.parseInt(statementCount)).as("SQL statements executed by the request").isLessThanOrEqualTo(maxQueries);
+        };
+    }
+
     /**
      * Create a byte array with a specific size filled with specified data.
      *
@@ -1,10 +1,13 @@
 package tech.lszita.gardonyi.web.rest;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static tech.lszita.gardonyi.web.rest.TestUtil.assertMaxQueries;
 
 import java.time.Instant;
 import java.util.*;
@@ -16,6 +19,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
@@ -25,6 +29,7 @@ import tech.lszita.gardonyi.domain.Authority;
 import tech.lszita.gardonyi.domain.User;
 import tech.lszita.gardonyi.repository.UserRepository;
 import tech.lszita.gardonyi.security.AuthoritiesConstants;
+import tech.lszita.gardonyi.service.ListingCache;
 import tech.lszita.gardonyi.service.dto.AdminUserDTO;
 import tech.lszita.gardonyi.service.mapper.UserMapper;
 import tech.lszita.gardonyi.web.rest.vm.ManagedUserVM;
@@ -81,6 +86,7 @@ class UserResourceIT {
     public void setup() {
         cacheManager.getCache(UserRepository.USERS_BY_LOGIN_CACHE).clear();
         cacheManager.getCache(UserRepository.USERS_BY_EMAIL_CACHE).clear();
+        cacheManager.getCache(ListingCache.USER_LISTINGS_CACHE).clear();
     }
 
     /**
@@ -268,7 +274,45 @@ class UserResourceIT {
             .andExpect(jsonPath("$.[*].lastName").value(hasItem(DEFAULT_LASTNAME)))
             .andExpect(jsonPath("$.[*].email").value(hasItem(DEFAULT_EMAIL)))
             .andExpect(jsonPath("$.[*].imageUrl").value(hasItem(DEFAULT_IMAGEURL)))
-            .andExpect(jsonPath("$.[*].langKey").value(hasItem(DEFAULT_LANGKEY)));
+            .andExpect(jsonPath("$.[*].langKey").value(hasItem(DEFAULT_LANGKEY)))
+            .andExpect(assertMaxQueries(2));
+    }
+
+    @Test
+    @Transactional
+    void getAllUsersFetchesAuthoritiesInBatches() throws Exception {
+        // Initialize the database
+        Authority authority = em.find(Authority.class, AuthoritiesConstants.USER);
+        for (int i = 0; i < 5; i++) {
+            User other = createEntity(em);
+            other.getAuthorities().add(authority);
+            userRepository.save(other);
+        }
+        em.flush();
+        em.clear();
+
+        // Get all the users, with their authorities in one statement rather than one per user
+        restUserMockMvc
+            .perform(get("/api/admin/users?sort=id,desc").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.[*].authorities").value(hasSize(5)))
+            .andExpect(assertMaxQueries(2));
+    }
+
+    @Test
+    @Transactional
+    void getAllUsersWithoutCount() throws Exception {
+        // Initialize the database
+        userRepository.saveAndFlush(user);
+        userRepository.saveAndFlush(createEntity(em));
+
+        // Get a slice of the users, not counted
+        restUserMockMvc
+            .perform(get("/api/admin/users?sort=id,desc&size=1&count=none").accept(MediaType.APPLICATION_JSON))
+            .andExpect(status().isOk())
+            .andExpect(header().doesNotExist("X-Total-Count"))
+            .andExpect(header().string(HttpHeaders.LINK, containsString("rel=\"next\"")))
+            .andExpect(jsonPath("$.[*].login").value(hasSize(1)));
     }
 
     @Test
@@ -0,0 +1,61 @@
+package tech.lszita.gardonyi.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Test class for the {@link KeysetPaginationUtil} utility class.
+ */
+class KeysetPaginationUtilUnitTest {
+
+    @Test
+    void testCursorRoundTrip() {
+        String cursor = KeysetPaginationUtil.encodeCursor(1234L);
+        assertThat(cursor).doesNotContain("1234");
+        assertThat(KeysetPaginationUtil.decodeCursor(cursor)).contains(1234L);
+    }
+
+    @Test
+    void testBlankCursor() {
+        assertThat(KeysetPaginationUtil.decodeCursor("")).isEmpty();
+        assertThat(KeysetPaginationUtil.decodeCursor(null)).isEmpty();
+    }
+
+    @Test
+    void testInvalidCursor() {
+        assertThatThrownBy(() -> KeysetPaginationUtil.decodeCursor("not-a-cursor")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetPaginationUtil.decodeCursor("@@@")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void testHeadersWithNextSlice() {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString("/api/posts?after=&size=2");
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+            uriBuilder,
+            new SliceImpl<>(List.of(1L, 2L), PageRequest.ofSize(2), true),
+            id -> id
+        );
+        String cursor = KeysetPaginationUtil.encodeCursor(2L);
+        assertThat(headers.getFirst(KeysetPaginationUtil.HEADER_NEXT_CURSOR)).isEqualTo(cursor);
+        assertThat(headers.getFirst(HttpHeaders.LINK)).isEqualTo("</api/posts?after=" + cursor + "&size=2>; rel=\"next\"");
+    }
+
+    @Test
+    void testHeadersWithoutNextSlice() {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString("/api/posts?after=&size=2");
+        HttpHeaders headers = KeysetPaginationUtil.generateKeysetPaginationHttpHeaders(
+            uriBuilder,
+            new SliceImpl<>(List.of(1L), PageRequest.ofSize(2), false),
+            id -> id
+        );
+        assertThat(headers.containsKey(KeysetPaginationUtil.HEADER_NEXT_CURSOR)).isFalse();
+        assertThat(headers.containsKey(HttpHeaders.LINK)).isFalse();
+    }
+}
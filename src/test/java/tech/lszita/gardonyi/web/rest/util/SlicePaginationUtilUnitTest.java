@@ -0,0 +1,70 @@
+package tech.lszita.gardonyi.web.rest.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.UriComponentsBuilder;
+import tech.lszita.gardonyi.service.TotalCount;
+
+/**
+ * Test class for the {@link SlicePaginationUtil} utility class.
+ */
+class SlicePaginationUtilUnitTest {
+
+    @Test
+    void testSliceHeaders() {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString("/api/posts?count=none");
+        HttpHeaders headers = SlicePaginationUtil.generatePaginationHttpHeaders(
+            uriBuilder,
+            new SliceImpl<>(List.of(3L, 4L), PageRequest.of(1, 2), true),
+            TotalCount.NONE
+        );
+        assertThat(headers.containsKey("X-Total-Count")).isFalse();
+        assertThat(headers.getFirst(HttpHeaders.LINK))
+            .isEqualTo(
+                "</api/posts?count=none&page=2&size=2>; rel=\"next\"," +
+                "</api/posts?count=none&page=0&size=2>; rel=\"prev\"," +
+                "</api/posts?count=none&page=0&size=2>; rel=\"first\""
+            );
+    }
+
+    @Test
+    void testLastSliceHeaders() {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString("/api/posts");
+        HttpHeaders headers = SlicePaginationUtil.generatePaginationHttpHeaders(
+            uriBuilder,
+            new SliceImpl<>(List.of(1L), PageRequest.of(0, 2), false),
+            TotalCount.NONE
+        );
+        assertThat(headers.getFirst(HttpHeaders.LINK)).isEqualTo("</api/posts?page=0&size=2>; rel=\"first\"");
+    }
+
+    @Test
+    void testEstimatedPageHeaders() {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString("/api/posts");
+        HttpHeaders headers = SlicePaginationUtil.generatePaginationHttpHeaders(
+            uriBuilder,
+            new PageImpl<>(List.of(1L, 2L), PageRequest.of(0, 2), 1_000_000),
+            TotalCount.ESTIMATED
+        );
+        assertThat(headers.getFirst("X-Total-Count")).isEqualTo("1000000");
+        assertThat(headers.getFirst(SlicePaginationUtil.HEADER_TOTAL_COUNT_ESTIMATED)).isEqualTo("true");
+    }
+
+    @Test
+    void testExactPageHeaders() {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder.fromUriString("/api/posts");
+        HttpHeaders headers = SlicePaginationUtil.generatePaginationHttpHeaders(
+            uriBuilder,
+            new PageImpl<>(List.of(1L, 2L), PageRequest.of(0, 2), 2),
+            TotalCount.EXACT
+        );
+        assertThat(headers.getFirst("X-Total-Count")).isEqualTo("2");
+        assertThat(headers.containsKey(SlicePaginationUtil.HEADER_TOTAL_COUNT_ESTIMATED)).isFalse();
+    }
+}